@@ -0,0 +1,82 @@
+package Utils;
+
+/**
+ * BloomFilter – Fixed-size Bloom filter over long keys.
+ *
+ * {@link #mightContain(long)} never returns false for a key that was added; it returns
+ * true for an absent key with roughly the false-positive rate the filter was sized for,
+ * as long as no more than the expected number of keys are added.
+ *
+ * Bits are set with plain writes guarded by the instance lock; readers take the same lock.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int expectedInsertions;
+    private int insertions;
+
+    /**
+     * @param expectedInsertions the number of keys the filter is sized for
+     * @param falsePositiveRate the wanted false-positive rate, e.g. 0.01
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new long[(bitCount + 63) >>> 6];
+        this.expectedInsertions = n;
+    }
+
+    /**
+     * Adds a key.
+     */
+    public synchronized void put(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        insertions++;
+    }
+
+    /**
+     * @return false if the key was definitely never added, true if it may have been.
+     */
+    public synchronized boolean mightContain(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true once more keys were added than the filter was sized for
+     *         (the false-positive rate is then higher than requested).
+     */
+    public synchronized boolean isSaturated() {
+        return insertions > expectedInsertions;
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3, spreads sequential IDs over the bit array.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
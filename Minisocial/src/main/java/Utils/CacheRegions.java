@@ -0,0 +1,47 @@
+package Utils;
+
+import javax.persistence.EntityManager;
+
+/**
+ * CacheRegions – Names of the second-level cache regions and explicit eviction helpers.
+ *
+ * Hibernate qualifies these names with the region prefix set in persistence.xml ("minisocial"),
+ * where region sizes and expiry are configured under the qualified names
+ * ({@code hibernate.cache.infinispan.minisocial.<region>.*}).
+ */
+public class CacheRegions {
+
+    /** Region of the User entity. */
+    public static final String USERS = "users";
+
+    /** Region of the Group entity. */
+    public static final String GROUPS = "groups";
+
+    /** Region of the GroupMembership entity. */
+    public static final String GROUP_MEMBERSHIPS = "group_memberships";
+
+    /**
+     * Evicts one entity from the second-level cache once the current transaction commits,
+     * so no concurrent transaction can re-cache the old state in between.
+     *
+     * @param em the entity manager of the current transaction.
+     * @param entityClass the cached entity class.
+     * @param id the ID of the entity.
+     */
+    public static void evictAfterCommit(EntityManager em, Class<?> entityClass, Object id) {
+        javax.persistence.Cache cache = em.getEntityManagerFactory().getCache();
+        TransactionHooks.afterCommit(() -> cache.evict(entityClass, id));
+    }
+
+    /**
+     * Evicts every cached instance of an entity class once the current transaction commits.
+     * Used after bulk JPQL updates or deletes, which bypass the cache.
+     *
+     * @param em the entity manager of the current transaction.
+     * @param entityClass the cached entity class.
+     */
+    public static void evictAllAfterCommit(EntityManager em, Class<?> entityClass) {
+        javax.persistence.Cache cache = em.getEntityManagerFactory().getCache();
+        TransactionHooks.afterCommit(() -> cache.evict(entityClass));
+    }
+}
@@ -1,7 +1,6 @@
 package Utils;
 
 import models.Comment;
-import models.Friendships;
 import models.GroupPost;
 import models.User;
 import service.CommentService;
@@ -14,30 +13,40 @@ import java.util.List;
  */
 public class CommentUtils {
 
+    // The comment list queries fetch the creator and the commented post in the same statement,
+    // since CommentDTO reads both for every row.
+
     // Constant for querying comments by user post ID
     public static final String GET_COMMENTS_BY_USER_POST_QUERY =
-            "SELECT c FROM Comment c WHERE c.post.postId = :postId ORDER BY c.timestamp DESC";
+            "SELECT c FROM Comment c JOIN FETCH c.creator LEFT JOIN FETCH c.post LEFT JOIN FETCH c.groupPost " +
+            "WHERE c.post.postId = :postId ORDER BY c.timestamp DESC";
 
     // Constant for querying comments by group post ID and group ID
     public static final String GET_COMMENTS_BY_GROUP_POST_QUERY =
-            "SELECT c FROM Comment c WHERE c.groupPost.postId = :postId AND c.groupPost.group.groupId = :groupId ORDER BY c.timestamp DESC";
-
-    // Constant for querying all friendships of a user
-    public static final String GET_ALL_FRIENDS_QUERY =
-            "SELECT f FROM Friendships f WHERE f.user.userId = :userId OR f.friend.userId = :userId";
-
-    // Constant for checking if a user is a member of a group
-    public static final String CHECK_GROUP_MEMBERSHIP_QUERY =
-            "SELECT gm FROM GroupMembership gm WHERE gm.user.userId = :userId AND gm.group.groupId = :groupId AND gm.status = 'approved'";
+            "SELECT c FROM Comment c JOIN FETCH c.creator LEFT JOIN FETCH c.post LEFT JOIN FETCH c.groupPost " +
+            "WHERE c.groupPost.postId = :postId AND c.groupPost.group.groupId = :groupId ORDER BY c.timestamp DESC";
+
+    // Constant for querying one page of comments by user post ID (keyset on timestamp, commentId)
+    public static final String GET_COMMENTS_BY_USER_POST_PAGE_QUERY =
+            "SELECT c FROM Comment c JOIN FETCH c.creator LEFT JOIN FETCH c.post LEFT JOIN FETCH c.groupPost " +
+            "WHERE c.post.postId = :postId " +
+            "AND (c.timestamp < :beforeTs OR (c.timestamp = :beforeTs AND c.commentId < :beforeId)) " +
+            "ORDER BY c.timestamp DESC, c.commentId DESC";
+
+    // Constant for querying one page of comments by group post ID and group ID (keyset on timestamp, commentId)
+    public static final String GET_COMMENTS_BY_GROUP_POST_PAGE_QUERY =
+            "SELECT c FROM Comment c JOIN FETCH c.creator LEFT JOIN FETCH c.post LEFT JOIN FETCH c.groupPost " +
+            "WHERE c.groupPost.postId = :postId AND c.groupPost.group.groupId = :groupId " +
+            "AND (c.timestamp < :beforeTs OR (c.timestamp = :beforeTs AND c.commentId < :beforeId)) " +
+            "ORDER BY c.timestamp DESC, c.commentId DESC";
 
     /**
      * Validates a comment based on several rules.
      *
      * @param comment     The comment to be validated.
-     * @param friendships The list of friendships to check the relationship between users.
      * @return A list of error messages if validation fails, otherwise an empty list.
      */
-    public static List<String> validateComment(Comment comment, List<Friendships> friendships) {
+    public static List<String> validateComment(Comment comment) {
         List<String> errors = new ArrayList<>();
 
         User creator = comment.getCreator();
@@ -67,7 +76,7 @@ public class CommentUtils {
         }
 
         // Rule: Only friends of the post author can comment
-        if (creator != null && author != null && !areUsersFriends(creator, author, friendships)) {
+        if (creator != null && author != null && !areUsersFriends(creator, author)) {
             errors.add("You can only comment on posts created by your friends.");
         }
 
@@ -78,12 +87,11 @@ public class CommentUtils {
      * Validates a comment on a group post based on group membership and other rules.
      *
      * @param comment      The comment to be validated.
-     * @param friendships  The list of friendships to check the relationship between users.
      * @param groupId      The ID of the group.
      * @param commentService The comment service to check group membership.
      * @return A list of error messages if validation fails, otherwise an empty list.
      */
-    public static List<String> validateGroupComment(Comment comment, List<Friendships> friendships, Long groupId, CommentService commentService) {
+    public static List<String> validateGroupComment(Comment comment, Long groupId, CommentService commentService) {
         List<String> errors = new ArrayList<>();
 
         User creator = comment.getCreator();
@@ -118,23 +126,15 @@ public class CommentUtils {
     }
 
     /**
-     * Checks if two users are friends based on the provided list of friendships.
+     * Checks if two users are friends using the in-memory social graph index (O(log d)).
      *
      * @param u1           The first user.
      * @param u2           The second user.
-     * @param friendships  The list of friendships to check.
      * @return True if the users are friends, otherwise false.
      */
-    public static boolean areUsersFriends(User u1, User u2, List<Friendships> friendships) {
-        if (u1 == null || u2 == null || friendships == null) return false;
-
-        Long id1 = u1.getUserId();
-        Long id2 = u2.getUserId();
+    public static boolean areUsersFriends(User u1, User u2) {
+        if (u1 == null || u2 == null) return false;
 
-        // Check if either user is friends with the other
-        return friendships.stream().anyMatch(f ->
-                (f.getUser().getUserId().equals(id1) && f.getFriend().getUserId().equals(id2)) ||
-                        (f.getUser().getUserId().equals(id2) && f.getFriend().getUserId().equals(id1))
-        );
+        return SocialGraphIndex.getInstance().areFriends(u1.getUserId(), u2.getUserId());
     }
 }
@@ -0,0 +1,133 @@
+package Utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * ConcurrentLruCache – Thread-safe cache bounded by entry count, for hot read paths.
+ *
+ * Unlike {@link LruCache}, reads take no lock: entries live in a ConcurrentHashMap and a read
+ * only stamps the entry with the current time. The cache may grow up to 10% past its bound;
+ * the thread whose insert crosses that mark evicts the least recently used entries back down
+ * to the bound (other writers skip eviction while it runs). Recency is therefore approximate
+ * between two evictions, which is fine for caches of data that can always be reloaded.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ConcurrentLruCache<K, V> {
+
+    private final Map<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final int maxEntries;
+    private final int evictAbove;
+
+    /**
+     * @param maxEntries the number of entries kept after an eviction
+     */
+    public ConcurrentLruCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.evictAbove = maxEntries + Math.max(1, maxEntries / 10);
+    }
+
+    public V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        node.touch();
+        return node.value;
+    }
+
+    /**
+     * Returns the cached value without marking it as recently used.
+     */
+    public V peek(K key) {
+        Node<V> node = entries.get(key);
+        return node == null ? null : node.value;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new Node<>(value));
+        evictIfFull();
+    }
+
+    /**
+     * Returns the cached value, computing and caching it if absent.
+     * The mapping function runs under the lock of the key's bin and must be cheap.
+     */
+    public V computeIfAbsent(K key, Function<K, V> mappingFunction) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            node = entries.computeIfAbsent(key, k -> new Node<>(mappingFunction.apply(k)));
+            evictIfFull();
+        }
+        node.touch();
+        return node.value;
+    }
+
+    public V remove(K key) {
+        Node<V> node = entries.remove(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Removes every entry whose key matches the predicate (linear in the cache size).
+     */
+    public void removeIf(Predicate<K> keyPredicate) {
+        entries.keySet().removeIf(keyPredicate);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evicts the least recently used entries down to the bound once the cache is 10% over it.
+     */
+    private void evictIfFull() {
+        if (entries.size() <= evictAbove || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<K, Node<V>>> snapshot = new ArrayList<>(entries.entrySet());
+            snapshot.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (int i = 0; i < excess && i < snapshot.size(); i++) {
+                Map.Entry<K, Node<V>> eldest = snapshot.get(i);
+                entries.remove(eldest.getKey(), eldest.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cached value with the time it was last read.
+     */
+    private static final class Node<V> {
+        private final V value;
+        private volatile long lastAccess = System.nanoTime();
+
+        Node(V value) {
+            this.value = value;
+        }
+
+        void touch() {
+            lastAccess = System.nanoTime();
+        }
+    }
+}
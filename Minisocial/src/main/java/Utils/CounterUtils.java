@@ -0,0 +1,66 @@
+package Utils;
+
+/**
+ * CounterUtils – Query strings of the engagement counter subsystem.
+ *
+ * Responsibilities:
+ * - Atomic increments of counter shards.
+ * - Reading totals across shards.
+ * - Recomputing counts from the Like and comments tables (reconciliation).
+ */
+public class CounterUtils {
+
+    /**
+     * Atomically adds a delta to one counter shard (no read-modify-write).
+     */
+    public static final String INCREMENT_SHARD_QUERY =
+        "UPDATE PostCounter c SET c.n = c.n + :delta " +
+        "WHERE c.postId = :postId AND c.counterType = :counterType AND c.shard = :shard";
+
+    /**
+     * Sums the shards of a post counter.
+     */
+    public static final String SUM_SHARDS_QUERY =
+        "SELECT COALESCE(SUM(c.n), 0) FROM PostCounter c " +
+        "WHERE c.postId = :postId AND c.counterType = :counterType";
+
+    /**
+     * Highest post ID that has a post or a counter shard (upper bound of the reconciliation).
+     */
+    public static final String MAX_POST_ID_QUERY =
+        "SELECT MAX(p.postId) FROM Post p";
+
+    public static final String MAX_COUNTED_POST_ID_QUERY =
+        "SELECT MAX(c.postId) FROM PostCounter c";
+
+    /**
+     * Removes every shard of the posts in an ID range (reconciliation rewrites them).
+     */
+    public static final String DELETE_SHARDS_BY_POST_RANGE_QUERY =
+        "DELETE FROM PostCounter c WHERE c.postId BETWEEN :fromId AND :toId";
+
+    /*
+     * Recounts the posts of an ID range into single shards, in one INSERT ... SELECT each.
+     * The shard IDs are assigned by the database, so no row goes through the persistence context.
+     */
+
+    public static final String INSERT_LIKE_COUNTS_BY_USER_POST_QUERY =
+        "INSERT INTO PostCounter (postId, counterType, shard, n) " +
+        "SELECT l.post.postId, :counterType, 0, COUNT(l) FROM Like l " +
+        "WHERE l.post.postId BETWEEN :fromId AND :toId GROUP BY l.post.postId";
+
+    public static final String INSERT_LIKE_COUNTS_BY_GROUP_POST_QUERY =
+        "INSERT INTO PostCounter (postId, counterType, shard, n) " +
+        "SELECT l.groupPost.postId, :counterType, 0, COUNT(l) FROM Like l " +
+        "WHERE l.groupPost.postId BETWEEN :fromId AND :toId GROUP BY l.groupPost.postId";
+
+    public static final String INSERT_COMMENT_COUNTS_BY_USER_POST_QUERY =
+        "INSERT INTO PostCounter (postId, counterType, shard, n) " +
+        "SELECT c.post.postId, :counterType, 0, COUNT(c) FROM Comment c " +
+        "WHERE c.post.postId BETWEEN :fromId AND :toId GROUP BY c.post.postId";
+
+    public static final String INSERT_COMMENT_COUNTS_BY_GROUP_POST_QUERY =
+        "INSERT INTO PostCounter (postId, counterType, shard, n) " +
+        "SELECT c.groupPost.postId, :counterType, 0, COUNT(c) FROM Comment c " +
+        "WHERE c.groupPost.postId BETWEEN :fromId AND :toId GROUP BY c.groupPost.postId";
+}
@@ -0,0 +1,39 @@
+package Utils;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * EntityLoadCounter – Counts the entities Hibernate loads (from the database or the
+ * second-level cache) and attributes them to the current REST call (see RequestMetrics).
+ *
+ * Registered as a post-load listener by this Integrator, which Hibernate discovers through
+ * {@code META-INF/services/org.hibernate.integrator.spi.Integrator}.
+ */
+public class EntityLoadCounter implements Integrator, PostLoadEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        serviceRegistry.getService(EventListenerRegistry.class)
+                       .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // Nothing to release
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestMetrics.getInstance().recordEntityLoad();
+    }
+}
@@ -0,0 +1,205 @@
+package Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FriendSuggestionEngine – Ranks friends-of-friends by number of mutual friends.
+ *
+ * Suggestions are computed from the {@link SocialGraphIndex}: for every friend of the user,
+ * each of that friend's friends gets one vote in a primitive {@link LongIntHashMap}; users
+ * who are already friends (and the user themselves) are skipped, and the top K by vote count
+ * are kept with a bounded heap. The work is O(sum of friends' degrees) with no database access.
+ *
+ * Results are cached per user. When a friendship (a, b) is created, the cached suggestions of
+ * a, b and of all their friends are dropped, since those are the only users whose
+ * friends-of-friends changed.
+ */
+public final class FriendSuggestionEngine {
+
+    private static final FriendSuggestionEngine INSTANCE = new FriendSuggestionEngine();
+
+    /** Number of suggestions kept per user. */
+    public static final int MAX_SUGGESTIONS = Integer.getInteger("minisocial.suggestions.topK", 20);
+
+    /** Maximum number of users whose suggestions are cached. */
+    private static final int CACHE_SIZE = Integer.getInteger("minisocial.suggestions.cacheSize", 100_000);
+
+    /** Users per fork/join leaf task during bulk precomputation. */
+    private static final int BULK_CHUNK = 256;
+
+    private final SocialGraphIndex graph = SocialGraphIndex.getInstance();
+
+    private final LruCache<Long, List<Suggestion>> cache = new LruCache<>(CACHE_SIZE);
+
+    /**
+     * Bumped on every graph change; a result computed across a change is not cached,
+     * so a suggestion list never outlives the invalidation it raced with.
+     */
+    private final AtomicLong graphVersion = new AtomicLong();
+
+    private FriendSuggestionEngine() {}
+
+    public static FriendSuggestionEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the top suggestions of a user, best first.
+     *
+     * @param userId the user
+     * @return up to {@link #MAX_SUGGESTIONS} suggestions
+     */
+    public List<Suggestion> suggest(long userId) {
+        List<Suggestion> cached = cache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        return computeAndCache(userId);
+    }
+
+    /**
+     * Drops the cached suggestions affected by a new friendship between two users.
+     *
+     * @param userId1 the first user
+     * @param userId2 the second user
+     */
+    public void invalidate(long userId1, long userId2) {
+        graphVersion.incrementAndGet();
+        cache.remove(userId1);
+        cache.remove(userId2);
+        for (long friendId : graph.getFriends(userId1)) {
+            cache.remove(friendId);
+        }
+        for (long friendId : graph.getFriends(userId2)) {
+            cache.remove(friendId);
+        }
+    }
+
+    /**
+     * Computes the suggestions of every user in the graph in parallel (fork/join).
+     *
+     * @return the number of users processed
+     */
+    public int precomputeAll() {
+        long[] userIds = graph.getUserIds();
+        AtomicInteger done = new AtomicInteger();
+        ForkJoinPool.commonPool().invoke(new PrecomputeTask(userIds, 0, userIds.length, done));
+        return done.get();
+    }
+
+    private List<Suggestion> computeAndCache(long userId) {
+        long version = graphVersion.get();
+        List<Suggestion> suggestions = compute(userId);
+        if (graphVersion.get() == version) {
+            cache.put(userId, suggestions);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Counts mutual friends of every friend-of-friend and keeps the best ones.
+     */
+    private List<Suggestion> compute(long userId) {
+        long[] friends = graph.getFriends(userId);
+        if (friends.length == 0) {
+            return Collections.emptyList();
+        }
+
+        LongIntHashMap mutualCounts = new LongIntHashMap(friends.length * 8);
+        for (long friendId : friends) {
+            for (long candidateId : graph.getFriends(friendId)) {
+                if (candidateId != userId && Arrays.binarySearch(friends, candidateId) < 0) {
+                    mutualCounts.addTo(candidateId, 1);
+                }
+            }
+        }
+
+        // Min-heap of the best K: weakest suggestion on top
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(MAX_SUGGESTIONS + 1, Suggestion::compareByRank);
+        mutualCounts.forEach((candidateId, mutual) -> {
+            Suggestion suggestion = new Suggestion(candidateId, mutual);
+            if (best.size() < MAX_SUGGESTIONS) {
+                best.add(suggestion);
+            } else if (Suggestion.compareByRank(suggestion, best.peek()) > 0) {
+                best.poll();
+                best.add(suggestion);
+            }
+        });
+
+        List<Suggestion> result = new ArrayList<>(best);
+        result.sort((a, b) -> Suggestion.compareByRank(b, a));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * A suggested user and the number of friends they share with the user.
+     */
+    public static final class Suggestion {
+
+        private final long userId;
+        private final int mutualFriends;
+
+        Suggestion(long userId, int mutualFriends) {
+            this.userId = userId;
+            this.mutualFriends = mutualFriends;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public int getMutualFriends() {
+            return mutualFriends;
+        }
+
+        /**
+         * Orders by mutual friends, then prefers the lower (older) user ID; greater is better.
+         */
+        static int compareByRank(Suggestion a, Suggestion b) {
+            int byMutual = Integer.compare(a.mutualFriends, b.mutualFriends);
+            return byMutual != 0 ? byMutual : Long.compare(b.userId, a.userId);
+        }
+    }
+
+    /**
+     * Splits the user range until it is small enough to compute sequentially.
+     */
+    private final class PrecomputeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] userIds;
+        private final int from;
+        private final int to;
+        private final AtomicInteger done;
+
+        PrecomputeTask(long[] userIds, int from, int to, AtomicInteger done) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BULK_CHUNK) {
+                for (int i = from; i < to; i++) {
+                    computeAndCache(userIds[i]);
+                }
+                done.addAndGet(to - from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PrecomputeTask(userIds, from, mid, done),
+                      new PrecomputeTask(userIds, mid, to, done));
+        }
+    }
+}
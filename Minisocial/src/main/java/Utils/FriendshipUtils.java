@@ -6,8 +6,13 @@ import models.Friendships;
 import models.User;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TemporalType;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,129 +28,231 @@ public class FriendshipUtils {
     public static final String GET_PENDING_REQUESTS_QUERY =
             "SELECT r FROM FriendshipRequests r WHERE r.receiver.id = :userId AND r.status = :status";
 
-    /** Query to check if two users are already friends */
+    /** Query to check if two users are already friends (one probe of the canonical pair) */
     public static final String IS_ALREADY_FRIENDS_QUERY =
-            "SELECT COUNT(f) FROM Friendships f WHERE " +
-            "(f.user = :user1 AND f.friend = :user2) OR (f.user = :user2 AND f.friend = :user1)";
+            "SELECT COUNT(f) FROM Friendships f WHERE f.user.userId = :lowId AND f.friend.userId = :highId";
 
-    /** Query to check if a pending request already exists between two users */
-    public static final String HAS_PENDING_REQUEST_QUERY =
-            "SELECT COUNT(r) FROM FriendshipRequests r WHERE " +
-            "r.requester = :requester AND r.receiver = :receiver AND r.status = :status";
+    /**
+     * Conditional insert of a pending request (native SQL, one round-trip). Nothing is inserted if
+     * the users are already friends or a request between them is pending; two concurrent inserts
+     * for the same pair are serialized by uk_friendship_requests_pending_pair.
+     * Parameters: requester ID, receiver ID, timestamp, pending pair, lower user ID, higher user ID.
+     */
+    public static final String INSERT_PENDING_REQUEST_SQL =
+            "INSERT INTO FriendshipRequests (requester_id, receiver_id, status, timestamp, pending_pair) " +
+            "SELECT ?1, ?2, 'PENDING', ?3, ?4 FROM (SELECT 1) one " +
+            "WHERE NOT EXISTS (SELECT 1 FROM FriendshipRequests r WHERE r.pending_pair = ?4) " +
+            "AND NOT EXISTS (SELECT 1 FROM Friendships f WHERE f.user_id = ?5 AND f.friend_id = ?6)";
 
-    /** Query to retrieve all friends of a user */
-    public static final String GET_ALL_FRIENDS_QUERY =
-            "SELECT f.friend FROM Friendships f WHERE f.user = :user";
+    /** Query to find the pending request between two users, in either direction */
+    public static final String FIND_PENDING_REQUEST_BY_PAIR_QUERY =
+            "SELECT r FROM FriendshipRequests r WHERE r.pendingPair = :pendingPair";
 
-    /** 
-     * Query to suggest friends based on mutual connections.
-     * Excludes current friends and the user themselves.
+    /**
+     * Locks the pending requests among a list of request IDs and returns their IDs (bulk accept/reject).
+     * Native SQL so that FOR UPDATE covers the request rows only, not the users they reference.
      */
-    public static final String SUGGEST_FRIENDS_QUERY =
-            "SELECT u FROM User u WHERE u.id <> :userId " +
-            "AND u.id NOT IN (" +
-                "SELECT f.friend.id FROM Friendships f WHERE f.user.id = :userId" +
-            ") AND u.id IN (" +
-                "SELECT f2.friend.id FROM Friendships f1 " +
-                "JOIN Friendships f2 ON f1.friend.id = f2.user.id " +
-                "WHERE f1.user.id = :userId AND f2.friend.id <> :userId " +
-            ")";
+    public static final String LOCK_PENDING_REQUESTS_BY_IDS_SQL =
+            "SELECT r.friendship_request_id FROM FriendshipRequests r " +
+            "WHERE r.friendship_request_id IN (:requestIds) AND r.status = :status FOR UPDATE";
+
+    /** Query to load requests with their requester and receiver, once they are locked (bulk accept/reject) */
+    public static final String FIND_REQUESTS_WITH_USERS_BY_IDS_QUERY =
+            "SELECT r FROM FriendshipRequests r JOIN FETCH r.requester JOIN FETCH r.receiver " +
+            "WHERE r.friendship_request_id IN :requestIds";
+
+    /** Set-based status update of pending requests; bypasses @PreUpdate, so pending_pair is cleared here */
+    public static final String UPDATE_PENDING_REQUESTS_STATUS_QUERY =
+            "UPDATE FriendshipRequests r SET r.status = :newStatus, r.pendingPair = NULL " +
+            "WHERE r.friendship_request_id IN :requestIds AND r.status = :status";
+
+    /** Query to fetch the IDs of pending requests created before a cutoff date (expiry sweep) */
+    public static final String GET_STALE_PENDING_REQUEST_IDS_QUERY =
+            "SELECT r.friendship_request_id FROM FriendshipRequests r WHERE r.status = :status AND r.timestamp < :cutoff";
+
+    /** Query to read the scalar columns of closed requests, oldest first (archive sweep) */
+    public static final String GET_CLOSED_REQUESTS_QUERY =
+            "SELECT r.friendship_request_id, r.requester.userId, r.receiver.userId, r.status, r.timestamp " +
+            "FROM FriendshipRequests r WHERE r.status IN :statuses ORDER BY r.friendship_request_id";
+
+    /** Query to delete a list of requests once they are archived */
+    public static final String DELETE_REQUESTS_BY_IDS_QUERY =
+            "DELETE FROM FriendshipRequests r WHERE r.friendship_request_id IN :requestIds";
+
+    /** Query to stream every friendship pair from its lower user's side, grouped by user (loads the social graph index) */
+    public static final String GET_ALL_FRIEND_EDGES_QUERY =
+            "SELECT f.user.userId, f.friend.userId FROM Friendships f ORDER BY f.user.userId, f.friend.userId";
+
+    /** Query to stream every friendship pair from its higher user's side, grouped by user (loads the social graph index) */
+    public static final String GET_ALL_FRIEND_EDGES_REVERSED_QUERY =
+            "SELECT f.friend.userId, f.user.userId FROM Friendships f ORDER BY f.friend.userId, f.user.userId";
+
+    // A pair is stored once as (lower ID, higher ID), so the friends of a user are read from
+    // both sides: rows where the user is the lower ID and rows where the user is the higher ID.
+    // Each side is a range scan of its own index, there is no OR across the two columns.
+
+    /** Query to retrieve the friends of a user that have a higher ID */
+    public static final String GET_HIGHER_FRIENDS_QUERY =
+            "SELECT f.friend FROM Friendships f WHERE f.user = :user";
+
+    /** Query to retrieve the friends of a user that have a lower ID */
+    public static final String GET_LOWER_FRIENDS_QUERY =
+            "SELECT f.user FROM Friendships f WHERE f.friend = :user";
+
+    /** Query to fetch the IDs of the friends of a user that have a higher ID */
+    public static final String GET_HIGHER_FRIEND_IDS_QUERY =
+            "SELECT f.friend.userId FROM Friendships f WHERE f.user.userId = :userId";
+
+    /** Query to fetch the IDs of the friends of a user that have a lower ID */
+    public static final String GET_LOWER_FRIEND_IDS_QUERY =
+            "SELECT f.user.userId FROM Friendships f WHERE f.friend.userId = :userId";
+
+    /** Query to fetch which of the given candidates are friends of a user with a higher ID */
+    public static final String GET_HIGHER_FRIEND_IDS_AMONG_QUERY =
+            "SELECT f.friend.userId FROM Friendships f WHERE f.user.userId = :userId AND f.friend.userId IN :candidateIds";
+
+    /** Query to fetch which of the given candidates are friends of a user with a lower ID */
+    public static final String GET_LOWER_FRIEND_IDS_AMONG_QUERY =
+            "SELECT f.user.userId FROM Friendships f WHERE f.friend.userId = :userId AND f.user.userId IN :candidateIds";
+
+    /** Query to count the friends of a user that have a higher ID */
+    public static final String COUNT_HIGHER_FRIENDS_QUERY =
+            "SELECT COUNT(f) FROM Friendships f WHERE f.user.userId = :userId";
+
+    /** Query to count the friends of a user that have a lower ID */
+    public static final String COUNT_LOWER_FRIENDS_QUERY =
+            "SELECT COUNT(f) FROM Friendships f WHERE f.friend.userId = :userId";
+
+    /** Query to load the users behind a list of suggested user IDs */
+    public static final String GET_USERS_BY_IDS_QUERY =
+            "SELECT u FROM User u WHERE u.userId IN :userIds";
 
     // ===================== Utility Logic =====================
 
     /**
-     * Suggests a list of users as potential friends based on mutual connections.
+     * Suggests users as potential friends, ranked by the number of mutual friends.
+     * Ranking is done in memory by the FriendSuggestionEngine; only the suggested users are loaded.
      *
      * @param em EntityManager instance
      * @param userId ID of the current user
-     * @return List of suggested User entities
+     * @param limit maximum number of suggestions
+     * @return Suggested User entities (best first) mapped to their mutual friend count
      */
-    public static List<User> suggestFriends(EntityManager em, Long userId) {
-        return em.createQuery(SUGGEST_FRIENDS_QUERY, User.class)
-                 .setParameter("userId", userId)
-                 .getResultList();
+    public static Map<User, Integer> suggestFriends(EntityManager em, Long userId, int limit) {
+        List<FriendSuggestionEngine.Suggestion> suggestions = FriendSuggestionEngine.getInstance().suggest(userId);
+        if (suggestions.size() > limit) {
+            suggestions = suggestions.subList(0, limit);
+        }
+
+        Map<User, Integer> ranked = new LinkedHashMap<>();
+        if (suggestions.isEmpty()) {
+            return ranked;
+        }
+
+        List<Long> userIds = suggestions.stream()
+                .map(FriendSuggestionEngine.Suggestion::getUserId)
+                .collect(Collectors.toList());
+        Map<Long, User> usersById = em.createQuery(GET_USERS_BY_IDS_QUERY, User.class)
+                .setParameter("userIds", userIds)
+                .getResultStream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+
+        for (FriendSuggestionEngine.Suggestion suggestion : suggestions) {
+            User user = usersById.get(suggestion.getUserId());
+            if (user != null) {
+                ranked.put(user, suggestion.getMutualFriends());
+            }
+        }
+        return ranked;
     }
 
     /**
-     * Sends a friend request from requester to receiver if conditions are met.
+     * Inserts a pending friend request from requester to receiver with one conditional insert.
+     * A rejected duplicate from a concurrent insert surfaces as a violation of
+     * uk_friendship_requests_pending_pair (see {@link PersistenceUtils#isUniqueViolation(Throwable, String...)}).
      *
      * @param em EntityManager instance
      * @param requester User sending the request
      * @param receiver User receiving the request
-     * @return true if request was sent, false otherwise
+     * @return true if the request was inserted, false if the users are friends or a request between them is pending
      */
-    public static boolean sendFriendRequest(EntityManager em, User requester, User receiver) {
-        if (requester.getUserId().equals(receiver.getUserId())) {
+    public static boolean insertPendingRequest(EntityManager em, User requester, User receiver) {
+        long requesterId = requester.getUserId();
+        long receiverId = receiver.getUserId();
+        if (requesterId == receiverId) {
             System.out.println("❌ You can't send a friend request to yourself.");
             return false;
         }
 
-        if (isAlreadyFriends(em, requester, receiver) || hasPendingRequest(em, requester, receiver)) {
-            return false;
-        }
-
-        FriendshipRequests request = new FriendshipRequests();
-        request.setRequester(requester);
-        request.setReceiver(receiver);
-        request.setStatus(FriendshipStatus.PENDING);
-        request.setTimeStamp(new Date());
-
-        em.persist(request);
-        return true;
+        int inserted = em.createNativeQuery(INSERT_PENDING_REQUEST_SQL)
+                .setParameter(1, requesterId)
+                .setParameter(2, receiverId)
+                .setParameter(3, new Date(), TemporalType.DATE)
+                .setParameter(4, FriendshipRequests.pendingPairOf(requesterId, receiverId))
+                .setParameter(5, Math.min(requesterId, receiverId))
+                .setParameter(6, Math.max(requesterId, receiverId))
+                .executeUpdate();
+        return inserted == 1;
     }
 
     /**
-     * Checks if two users are already friends.
+     * Finds the pending friend request between two users, in either direction.
      *
      * @param em EntityManager instance
      * @param user1 First user
      * @param user2 Second user
-     * @return true if they are friends, false otherwise
+     * @return the pending request, or null if there is none
      */
-    public static boolean isAlreadyFriends(EntityManager em, User user1, User user2) {
-        Long count = em.createQuery(IS_ALREADY_FRIENDS_QUERY, Long.class)
-                .setParameter("user1", user1)
-                .setParameter("user2", user2)
-                .getSingleResult();
-        return count > 0;
+    public static FriendshipRequests findPendingRequest(EntityManager em, User user1, User user2) {
+        return em.createQuery(FIND_PENDING_REQUEST_BY_PAIR_QUERY, FriendshipRequests.class)
+                .setParameter("pendingPair", FriendshipRequests.pendingPairOf(user1.getUserId(), user2.getUserId()))
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
     }
 
     /**
-     * Checks if a pending friend request already exists between requester and receiver.
+     * Checks if two users are already friends.
      *
      * @param em EntityManager instance
-     * @param requester User who sent the request
-     * @param receiver User who received the request
-     * @return true if a pending request exists, false otherwise
+     * @param user1 First user
+     * @param user2 Second user
+     * @return true if they are friends, false otherwise
      */
-    public static boolean hasPendingRequest(EntityManager em, User requester, User receiver) {
-        Long count = em.createQuery(HAS_PENDING_REQUEST_QUERY, Long.class)
-                .setParameter("requester", requester)
-                .setParameter("receiver", receiver)
-                .setParameter("status", FriendshipStatus.PENDING)
+    public static boolean isAlreadyFriends(EntityManager em, User user1, User user2) {
+        long id1 = user1.getUserId();
+        long id2 = user2.getUserId();
+        Long count = em.createQuery(IS_ALREADY_FRIENDS_QUERY, Long.class)
+                .setParameter("lowId", Math.min(id1, id2))
+                .setParameter("highId", Math.max(id1, id2))
                 .getSingleResult();
         return count > 0;
     }
 
     /**
-     * Creates a mutual friendship between two users by persisting two entries (bidirectional).
+     * Creates a mutual friendship between two users by persisting one row for the pair,
+     * ordered as (lower user ID, higher user ID).
+     * The social graph index and the affected friend suggestions are updated once the transaction commits.
      *
      * @param em EntityManager instance
      * @param user1 First user
      * @param user2 Second user
      */
     public static void createMutualFriendship(EntityManager em, User user1, User user2) {
-        Friendships f1 = new Friendships();
-        f1.setUser(user1);
-        f1.setFriend(user2);
-        f1.setSince(new Date());
-        em.persist(f1);
-
-        Friendships f2 = new Friendships();
-        f2.setUser(user2);
-        f2.setFriend(user1);
-        f2.setSince(new Date());
-        em.persist(f2);
+        boolean ordered = user1.getUserId() < user2.getUserId();
+
+        Friendships friendship = new Friendships();
+        friendship.setUser(ordered ? user1 : user2);
+        friendship.setFriend(ordered ? user2 : user1);
+        friendship.setSince(new Date());
+        em.persist(friendship);
+
+        long userId1 = user1.getUserId();
+        long userId2 = user2.getUserId();
+        TransactionHooks.afterCommit(() -> {
+            SocialGraphIndex.getInstance().addFriendship(userId1, userId2);
+            FriendSuggestionEngine.getInstance().invalidate(userId1, userId2);
+        });
     }
 
     /**
@@ -172,8 +279,65 @@ public class FriendshipUtils {
      * @return List of User entities who are friends of the given user
      */
     public static List<User> getAllFriendsOfUser(EntityManager em, User user) {
-        return em.createQuery(GET_ALL_FRIENDS_QUERY, User.class)
+        List<User> friends = new ArrayList<>(em.createQuery(GET_LOWER_FRIENDS_QUERY, User.class)
                 .setParameter("user", user)
-                .getResultList();
+                .getResultList());
+        friends.addAll(em.createQuery(GET_HIGHER_FRIENDS_QUERY, User.class)
+                .setParameter("user", user)
+                .getResultList());
+        return friends;
+    }
+
+    /**
+     * Retrieves the IDs of all friends of a user.
+     *
+     * @param em EntityManager instance
+     * @param userId ID of the user
+     * @return the friend IDs
+     */
+    public static List<Long> getFriendIds(EntityManager em, Long userId) {
+        List<Long> friendIds = new ArrayList<>(em.createQuery(GET_LOWER_FRIEND_IDS_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .getResultList());
+        friendIds.addAll(em.createQuery(GET_HIGHER_FRIEND_IDS_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .getResultList());
+        return friendIds;
+    }
+
+    /**
+     * Retrieves which of the given candidate users are friends of a user.
+     *
+     * @param em EntityManager instance
+     * @param userId ID of the user
+     * @param candidateIds IDs of the candidate users
+     * @return the IDs of the candidates that are friends of the user
+     */
+    public static List<Long> getFriendIdsAmong(EntityManager em, Long userId, List<Long> candidateIds) {
+        List<Long> friendIds = new ArrayList<>(em.createQuery(GET_LOWER_FRIEND_IDS_AMONG_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .setParameter("candidateIds", candidateIds)
+                .getResultList());
+        friendIds.addAll(em.createQuery(GET_HIGHER_FRIEND_IDS_AMONG_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .setParameter("candidateIds", candidateIds)
+                .getResultList());
+        return friendIds;
+    }
+
+    /**
+     * Counts the friends of a user.
+     *
+     * @param em EntityManager instance
+     * @param userId ID of the user
+     * @return the number of friends
+     */
+    public static long countFriends(EntityManager em, Long userId) {
+        return em.createQuery(COUNT_LOWER_FRIENDS_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .getSingleResult()
+             + em.createQuery(COUNT_HIGHER_FRIENDS_QUERY, Long.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
     }
 }
@@ -25,12 +25,19 @@ public class GroupMembershipUtil {
         "SELECT gm FROM GroupMembership gm WHERE gm.user.userId = :userId AND gm.group.groupId = :groupId";
 
     /**
-     * JPQL query to find all pending memberships for a specific group based on the group's ID and membership status.
+     * JPQL query to read the role and status of a user's membership in a group (served by idx_membership_user_group).
+     */
+    public static final String FIND_ROLE_AND_STATUS = 
+        "SELECT gm.role, gm.status FROM GroupMembership gm WHERE gm.user.userId = :userId AND gm.group.groupId = :groupId";
+
+    /**
+     * JPQL query to find all memberships of a group with a given status (pending requests, approved members).
+     * User and group are fetched in the same statement, since GroupMembershipDTO reads both for every row.
      * 
      * @see GroupMembership
      */
-    public static final String FIND_PENDING_MEMBERSHIPS_FOR_GROUP = 
-        "SELECT gm FROM GroupMembership gm WHERE gm.group.groupId = :groupId AND gm.status = :status";
+    public static final String FIND_MEMBERSHIPS_FOR_GROUP_BY_STATUS = 
+        "SELECT gm FROM GroupMembership gm JOIN FETCH gm.user JOIN FETCH gm.group WHERE gm.group.groupId = :groupId AND gm.status = :status";
 
     /**
      * JPQL query to find a pending request for a specific user to join a group, based on user ID, group ID, and request status.
@@ -40,6 +47,22 @@ public class GroupMembershipUtil {
     public static final String FIND_PENDING_REQUEST_FOR_USER = 
         "SELECT gm FROM GroupMembership gm WHERE gm.group.groupId = :groupId AND gm.user.userId = :userId AND gm.status = :status";
 
+    /**
+     * JPQL query to load and lock the pending requests of several users in a group (bulk approve/reject).
+     * 
+     * @see GroupMembership
+     */
+    public static final String FIND_PENDING_REQUESTS_FOR_USERS = 
+        "SELECT gm FROM GroupMembership gm WHERE gm.group.groupId = :groupId AND gm.user.userId IN :userIds AND gm.status = :status";
+
+    /**
+     * JPQL set-based update of the status of several memberships, guarded by their current status.
+     * 
+     * @see GroupMembership
+     */
+    public static final String UPDATE_MEMBERSHIP_STATUS_BY_IDS = 
+        "UPDATE GroupMembership gm SET gm.status = :newStatus WHERE gm.id IN :membershipIds AND gm.status = :status";
+
     /**
      * Validates a join request to a group.
      * 
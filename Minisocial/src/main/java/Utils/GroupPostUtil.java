@@ -20,10 +20,20 @@ public class GroupPostUtil {
 
     /**
      * JPQL query string to fetch all posts associated with a specific group.
-     * The query selects GroupPost entities where the group's ID matches the provided parameter.
+     * The query selects GroupPost entities where the group's ID matches the provided parameter,
+     * fetching their author and group in the same statement (GroupPostDTO reads both).
      */
     public static final String GET_GROUP_POSTS_QUERY = 
-        "SELECT p FROM GroupPost p WHERE p.group.groupId = :groupId";
+        "SELECT p FROM GroupPost p LEFT JOIN FETCH p.user JOIN FETCH p.group WHERE p.group.groupId = :groupId";
+
+    /**
+     * JPQL query string to fetch one page of a group's posts, newest first.
+     * Keyset pagination on postId: only posts older than :beforeId are returned.
+     * Author and group are fetched in the same statement.
+     */
+    public static final String GET_GROUP_POSTS_PAGE_QUERY = 
+        "SELECT p FROM GroupPost p LEFT JOIN FETCH p.user JOIN FETCH p.group WHERE p.group.groupId = :groupId AND p.postId < :beforeId " +
+        "ORDER BY p.postId DESC";
 
     /**
      * Validates the input fields for creating or editing a GroupPost.
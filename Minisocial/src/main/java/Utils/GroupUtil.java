@@ -22,6 +22,66 @@ public class GroupUtil {
     public static final String CHECK_GROUP_NAME_EXISTS_QUERY =
             "SELECT COUNT(g) FROM Group g WHERE g.groupName = :name";
 
+    // ============================
+    // Group Deletion Queries (used in batches of IDs)
+    // ============================
+
+    /** IDs of the likes on the posts of a group. */
+    public static final String GET_GROUP_LIKE_IDS_QUERY =
+            "SELECT l.likeId FROM Like l WHERE l.groupPost.group.groupId = :groupId";
+
+    /** Deletes likes by ID. */
+    public static final String DELETE_LIKES_BY_IDS_QUERY =
+            "DELETE FROM Like l WHERE l.likeId IN :ids";
+
+    /** IDs of the comments on the posts of a group. */
+    public static final String GET_GROUP_COMMENT_IDS_QUERY =
+            "SELECT c.commentId FROM Comment c WHERE c.groupPost.group.groupId = :groupId";
+
+    /** Deletes comments by ID. */
+    public static final String DELETE_COMMENTS_BY_IDS_QUERY =
+            "DELETE FROM Comment c WHERE c.commentId IN :ids";
+
+    /** IDs of the posts of a group. */
+    public static final String GET_GROUP_POST_IDS_QUERY =
+            "SELECT gp.postId FROM GroupPost gp WHERE gp.group.groupId = :groupId";
+
+    /** Deletes likes left on a batch of posts (added after the likes stage ran). */
+    public static final String DELETE_LIKES_BY_POST_IDS_QUERY =
+            "DELETE FROM Like l WHERE l.groupPost.postId IN :ids";
+
+    /** Deletes comments left on a batch of posts (added after the comments stage ran). */
+    public static final String DELETE_COMMENTS_BY_POST_IDS_QUERY =
+            "DELETE FROM Comment c WHERE c.groupPost.postId IN :ids";
+
+    /** Deletes the engagement counter shards of a batch of posts. */
+    public static final String DELETE_COUNTERS_BY_POST_IDS_QUERY =
+            "DELETE FROM PostCounter c WHERE c.postId IN :ids";
+
+    /** Deletes group posts by ID (both rows of the JOINED hierarchy). */
+    public static final String DELETE_GROUP_POSTS_BY_IDS_QUERY =
+            "DELETE FROM GroupPost gp WHERE gp.postId IN :ids";
+
+    /** IDs of the GroupAdmins rows of a group. */
+    public static final String GET_GROUP_ADMIN_IDS_QUERY =
+            "SELECT ga.id FROM GroupAdmins ga WHERE ga.group.groupId = :groupId";
+
+    /** Deletes GroupAdmins rows by ID. */
+    public static final String DELETE_GROUP_ADMINS_BY_IDS_QUERY =
+            "DELETE FROM GroupAdmins ga WHERE ga.id IN :ids";
+
+    /** Deletes the rows of the User.adminOfGroups join table for a group (native SQL, no entity). */
+    public static final String DELETE_ADMIN_JOIN_ROWS_SQL =
+            "DELETE FROM group_admins WHERE group_id = ?1";
+
+    /** IDs of the memberships of a group. */
+    public static final String GET_GROUP_MEMBERSHIP_IDS_QUERY =
+            "SELECT gm.id FROM GroupMembership gm WHERE gm.group.groupId = :groupId";
+
+    /** Deletes memberships by ID. */
+    public static final String DELETE_MEMBERSHIPS_BY_IDS_QUERY =
+            "DELETE FROM GroupMembership gm WHERE gm.id IN :ids";
+
     // ============================
     // Validation Methods
     // ============================
@@ -0,0 +1,77 @@
+package Utils;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.persistence.EntityManager;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * JsonStreamWriter – Writes query results as a JSON array, one element at a time.
+ *
+ * Used by export endpoints: rows come from a JPA {@code getResultStream()} (a forward-only
+ * cursor), each row is written as soon as it is read, and the persistence context is cleared
+ * every {@link #CLEAR_INTERVAL} rows so loaded entities do not accumulate. Heap usage therefore
+ * stays constant whatever the number of rows.
+ *
+ * Must be called inside the transaction that owns the stream (i.e. from an EJB method invoked
+ * by the {@code StreamingOutput}, not from the resource method that builds the response).
+ */
+public class JsonStreamWriter {
+
+    /** Rows after which the persistence context is cleared and the output flushed. */
+    public static final int CLEAR_INTERVAL = 500;
+
+    /** JDBC fetch size hint for streamed queries. */
+    public static final String HINT_FETCH_SIZE = "org.hibernate.fetchSize";
+
+    /**
+     * Writes the rows of a stream as a JSON array.
+     *
+     * @param out the response output stream (left open).
+     * @param rows the rows to write; closed when done.
+     * @param em the entity manager that produced the rows, cleared periodically.
+     * @param writeElement writes one row as a JSON value (array element) to the generator.
+     * @return the number of rows written.
+     */
+    public static <T> long writeArray(OutputStream out, Stream<T> rows, EntityManager em,
+                                      BiConsumer<JsonGenerator, T> writeElement) {
+        JsonGenerator generator = Json.createGenerator(out);
+        long count = 0;
+        try (Stream<T> stream = rows) {
+            generator.writeStartArray();
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writeElement.accept(generator, iterator.next());
+                if (++count % CLEAR_INTERVAL == 0) {
+                    em.clear();
+                    generator.flush();
+                }
+            }
+            generator.writeEnd();
+        }
+        // Flush only: closing the generator would close the container's output stream
+        generator.flush();
+        return count;
+    }
+
+    /**
+     * Writes a string field unless the value is null (the JSON-B default for nulls).
+     */
+    public static void writeIfPresent(JsonGenerator generator, String name, String value) {
+        if (value != null) {
+            generator.write(name, value);
+        }
+    }
+
+    /**
+     * Writes a numeric field unless the value is null (the JSON-B default for nulls).
+     */
+    public static void writeIfPresent(JsonGenerator generator, String name, Long value) {
+        if (value != null) {
+            generator.write(name, value);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package Utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram – Lock-free fixed-bucket latency histogram.
+ *
+ * Bucket bounds follow the usual Prometheus defaults (1 ms … 10 s), so the counts can be
+ * exposed as-is as a Prometheus histogram and quantiles computed on the server side.
+ * Recording is one {@link LongAdder} increment per bucket hit plus the count and sum.
+ */
+public final class LatencyHistogram {
+
+    /** Upper bounds of the buckets in seconds (the last bucket is +Inf). */
+    public static final double[] BOUNDS_SECONDS = {
+        0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUNDS_NANOS[i] = (long) (BOUNDS_SECONDS[i] * 1_000_000_000L);
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_SECONDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one observation.
+     *
+     * @param nanos the observed duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * @return the cumulative bucket counts (Prometheus "le" semantics), the last entry being +Inf
+     */
+    public long[] cumulativeCounts() {
+        long[] result = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            result[i] = running;
+        }
+        return result;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of all observations in seconds
+     */
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+}
@@ -1,6 +1,5 @@
 package Utils;
 
-import models.Friendships;
 import models.GroupPost;
 import models.User;
 import models.UserPost;
@@ -13,30 +12,64 @@ import java.util.List;
 public class LikeUtils {
 
     // -------------------- Queries --------------------
+    // The like list queries fetch the liking user and the liked post in the same statement,
+    // since LikeDTO reads both for every row.
 
     /** 
      * Query to get all likes for a UserPost.
      */
     public static final String GET_LIKES_BY_USER_POST_QUERY =
-        "SELECT l FROM Like l WHERE l.post.postId = :postId ORDER BY l.timestamp DESC";
+        "SELECT l FROM Like l JOIN FETCH l.user LEFT JOIN FETCH l.post LEFT JOIN FETCH l.groupPost " +
+        "WHERE l.post.postId = :postId ORDER BY l.timestamp DESC";
 
     /** 
      * Query to get all likes for a GroupPost.
      */
     public static final String GET_LIKES_BY_GROUP_POST_QUERY =
-        "SELECT l FROM Like l WHERE l.groupPost.postId = :postId AND l.groupPost.group.groupId = :groupId ORDER BY l.timestamp DESC";
+        "SELECT l FROM Like l JOIN FETCH l.user LEFT JOIN FETCH l.post LEFT JOIN FETCH l.groupPost " +
+        "WHERE l.groupPost.postId = :postId AND l.groupPost.group.groupId = :groupId ORDER BY l.timestamp DESC";
 
     /** 
-     * Query to get all friendships for a user.
+     * Query to get one page of likes for a UserPost (keyset on timestamp, likeId).
      */
-    public static final String GET_ALL_FRIENDS_QUERY =
-        "SELECT f FROM Friendships f WHERE f.user.userId = :userId OR f.friend.userId = :userId";
+    public static final String GET_LIKES_BY_USER_POST_PAGE_QUERY =
+        "SELECT l FROM Like l JOIN FETCH l.user LEFT JOIN FETCH l.post LEFT JOIN FETCH l.groupPost " +
+        "WHERE l.post.postId = :postId " +
+        "AND (l.timestamp < :beforeTs OR (l.timestamp = :beforeTs AND l.likeId < :beforeId)) " +
+        "ORDER BY l.timestamp DESC, l.likeId DESC";
 
     /** 
-     * Query to check if a user is a member of a group with approved status.
+     * Query to get one page of likes for a GroupPost (keyset on timestamp, likeId).
      */
-    public static final String CHECK_GROUP_MEMBERSHIP_QUERY =
-        "SELECT gm FROM GroupMembership gm WHERE gm.user.userId = :userId AND gm.group.groupId = :groupId AND gm.status = 'approved'";
+    public static final String GET_LIKES_BY_GROUP_POST_PAGE_QUERY =
+        "SELECT l FROM Like l JOIN FETCH l.user LEFT JOIN FETCH l.post LEFT JOIN FETCH l.groupPost " +
+        "WHERE l.groupPost.postId = :postId AND l.groupPost.group.groupId = :groupId " +
+        "AND (l.timestamp < :beforeTs OR (l.timestamp = :beforeTs AND l.likeId < :beforeId)) " +
+        "ORDER BY l.timestamp DESC, l.likeId DESC";
+
+    /** 
+     * Existence probe: has the user already liked the UserPost? (served by uk_likes_user_post)
+     */
+    public static final String HAS_LIKED_USER_POST_QUERY =
+        "SELECT COUNT(l) FROM Like l WHERE l.user.userId = :userId AND l.post.postId = :postId";
+
+    /** 
+     * Existence probe: has the user already liked the GroupPost? (served by uk_likes_user_group_post)
+     */
+    public static final String HAS_LIKED_GROUP_POST_QUERY =
+        "SELECT COUNT(l) FROM Like l WHERE l.user.userId = :userId AND l.groupPost.postId = :postId";
+
+    /** 
+     * Query to count the likes of a post (UserPost or GroupPost).
+     */
+    public static final String COUNT_LIKES_FOR_POST_QUERY =
+        "SELECT COUNT(l) FROM Like l WHERE l.post.postId = :postId OR l.groupPost.postId = :postId";
+
+    /** 
+     * Query to get the IDs of the users who liked a post (UserPost or GroupPost).
+     */
+    public static final String GET_LIKER_IDS_FOR_POST_QUERY =
+        "SELECT l.user.userId FROM Like l WHERE l.post.postId = :postId OR l.groupPost.postId = :postId";
 
     // -------------------- Validation Methods --------------------
 
@@ -45,10 +78,9 @@ public class LikeUtils {
      * 
      * @param user The user who is trying to like the post.
      * @param post The UserPost being liked.
-     * @param friendships The list of friendships for the user.
      * @return A list of error messages (if any).
      */
-    public static List<String> validateUserPostLike(User user, UserPost post, List<Friendships> friendships) {
+    public static List<String> validateUserPostLike(User user, UserPost post) {
         List<String> errors = new ArrayList<>();
 
         if (user == null || user.getUserId() == null) {
@@ -65,7 +97,7 @@ public class LikeUtils {
         }
 
         // Rule: Only friends of the post author can like the post
-        if (user != null && post != null && !areUsersFriends(user, post.getUser(), friendships)) {
+        if (user != null && post != null && !areUsersFriends(user, post.getUser())) {
             errors.add("You can only like posts created by your friends.");
         }
 
@@ -77,11 +109,10 @@ public class LikeUtils {
      * 
      * @param user The user who is trying to like the post.
      * @param groupPost The GroupPost being liked.
-     * @param friendships The list of friendships for the user.
      * @param isGroupMember Whether the user is a member of the group.
      * @return A list of error messages (if any).
      */
-    public static List<String> validateGroupPostLike(User user, GroupPost groupPost, List<Friendships> friendships, boolean isGroupMember) {
+    public static List<String> validateGroupPostLike(User user, GroupPost groupPost, boolean isGroupMember) {
         List<String> errors = new ArrayList<>();
 
         if (user == null || user.getUserId() == null) {
@@ -103,22 +134,15 @@ public class LikeUtils {
     // -------------------- Helper Methods --------------------
 
     /**
-     * Checks if two users are friends based on the friendship records.
+     * Checks if two users are friends using the in-memory social graph index (O(log d)).
      * 
      * @param u1 The first user.
      * @param u2 The second user.
-     * @param friendships The list of friendships.
      * @return True if the users are friends, false otherwise.
      */
-    public static boolean areUsersFriends(User u1, User u2, List<Friendships> friendships) {
-        if (u1 == null || u2 == null || friendships == null) return false;
-
-        Long id1 = u1.getUserId();
-        Long id2 = u2.getUserId();
+    public static boolean areUsersFriends(User u1, User u2) {
+        if (u1 == null || u2 == null) return false;
 
-        return friendships.stream().anyMatch(f ->
-            (f.getUser().getUserId().equals(id1) && f.getFriend().getUserId().equals(id2)) ||
-            (f.getUser().getUserId().equals(id2) && f.getFriend().getUserId().equals(id1))
-        );
+        return SocialGraphIndex.getInstance().areFriends(u1.getUserId(), u2.getUserId());
     }
 }
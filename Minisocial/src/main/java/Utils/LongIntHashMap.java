@@ -0,0 +1,124 @@
+package Utils;
+
+import java.util.Arrays;
+
+/**
+ * LongIntHashMap – Open-addressing hash map from primitive long keys to int values.
+ *
+ * Used to count mutual friends without boxing every user ID into a {@code Long} and every
+ * count into an {@code Integer}. Linear probing over parallel arrays; {@code 0} is a valid
+ * key thanks to a separate "used" marker. Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    /**
+     * @param expectedSize the number of keys expected, used to size the tables
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds {@code delta} to the value of a key (absent keys start at 0).
+     *
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        int slot = slotOf(key);
+        if (used[slot]) {
+            return values[slot] += delta;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > mask * LOAD_FACTOR) {
+            grow();
+        }
+        return delta;
+    }
+
+    /**
+     * @return the value of the key, or {@code defaultValue} if absent
+     */
+    public int get(long key, int defaultValue) {
+        int slot = slotOf(key);
+        return used[slot] ? values[slot] : defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the consumer for every entry, in no particular order.
+     */
+    public void forEach(LongIntConsumer consumer) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding the key, or the free slot where it would go.
+     */
+    private int slotOf(long key) {
+        int slot = (int) mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Receives the entries of the map.
+     */
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept(long key, int value);
+    }
+}
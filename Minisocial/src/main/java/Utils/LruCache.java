@@ -0,0 +1,70 @@
+package Utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * LruCache – Small thread-safe cache bounded by entry count.
+ *
+ * When full, the least recently used entry is evicted. All operations lock the cache,
+ * which is fine for the short critical sections it is used for (lookups of precomputed
+ * per-post / per-user structures).
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    /**
+     * @param maxEntries the number of entries kept before evicting the least recently used one
+     */
+    public LruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Returns the cached value, computing and caching it if absent.
+     * The mapping function runs under the cache lock and must be cheap.
+     */
+    public synchronized V computeIfAbsent(K key, Function<K, V> mappingFunction) {
+        return entries.computeIfAbsent(key, mappingFunction);
+    }
+
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    /**
+     * Removes every entry whose key matches the predicate (linear in the cache size).
+     */
+    public synchronized void removeIf(Predicate<K> keyPredicate) {
+        entries.keySet().removeIf(keyPredicate);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,167 @@
+package Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * PageCursor – Opaque keyset pagination cursor.
+ *
+ * A cursor identifies the last row of the previous page by its (timestamp, id) pair.
+ * The next page is fetched with a keyset predicate
+ * {@code timestamp < :ts OR (timestamp = :ts AND id < :id)} ordered by (timestamp, id)
+ * descending, so every page costs the same no matter how deep the client has scrolled.
+ *
+ * Posts are keyed on their ID alone (IDs are generated in creation order, while the
+ * publish date is stored with day precision only), in which case the timestamp is 0.
+ *
+ * The timestamp keeps its full precision (epoch seconds and nanoseconds): truncating it,
+ * e.g. to milliseconds, would make the next page skip the rows sharing the last row's
+ * millisecond but sorting after it.
+ *
+ * On the wire the cursor is the URL-safe Base64 encoding of {@code "seconds:nanos:id"};
+ * cursors in the older {@code "millis:id"} form are still accepted.
+ */
+public final class PageCursor {
+
+    /** Page size used when the client does not send a limit. */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /** Largest page size a client may request. */
+    public static final int MAX_LIMIT = 100;
+
+    /** Timestamp bound of the first page (9999-12-31T23:59:59Z), newer than any row. */
+    private static final Instant FIRST_PAGE_TIMESTAMP = Instant.ofEpochSecond(253402300799L);
+
+    private final Instant timestamp;
+    private final long id;
+
+    private PageCursor(Instant timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * @return a cursor positioned before the newest row.
+     */
+    public static PageCursor first() {
+        return new PageCursor(FIRST_PAGE_TIMESTAMP, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a cursor pointing at a row keyed by (timestamp, id).
+     *
+     * @param timestamp the row timestamp
+     * @param id the row ID
+     * @return the cursor
+     */
+    public static PageCursor of(Date timestamp, long id) {
+        // Timestamp (as loaded by Hibernate) carries nanoseconds that getTime() would drop
+        Instant instant = timestamp instanceof Timestamp
+                ? ((Timestamp) timestamp).toInstant()
+                : Instant.ofEpochMilli(timestamp.getTime());
+        return new PageCursor(instant, id);
+    }
+
+    /**
+     * Creates a cursor pointing at a row keyed by (timestamp, id).
+     *
+     * @param timestamp the row timestamp
+     * @param id the row ID
+     * @return the cursor
+     */
+    public static PageCursor of(Instant timestamp, long id) {
+        return new PageCursor(timestamp, id);
+    }
+
+    /**
+     * Creates a cursor pointing at a row keyed by its ID only.
+     *
+     * @param id the row ID
+     * @return the cursor
+     */
+    public static PageCursor ofId(long id) {
+        return new PageCursor(Instant.EPOCH, id);
+    }
+
+    /**
+     * Decodes a cursor received from a client.
+     *
+     * @param cursor the encoded cursor, or null/blank for the first page
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return first();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length == 2) {
+                return new PageCursor(Instant.ofEpochMilli(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+            }
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            Instant timestamp = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new PageCursor(timestamp, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            // NumberFormatException and Base64 errors are IllegalArgumentExceptions as well
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    /**
+     * Normalizes a client supplied page size.
+     *
+     * @param limit the requested page size, may be null
+     * @return a page size between 1 and {@link #MAX_LIMIT}
+     */
+    public static int limit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * @return the opaque representation sent to clients.
+     */
+    public String encode() {
+        String raw = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true if this cursor is positioned before the newest row.
+     */
+    public boolean isFirst() {
+        return id == Long.MAX_VALUE;
+    }
+
+    /**
+     * @return the timestamp as a java.sql.Timestamp, which keeps the nanoseconds when bound as a parameter.
+     */
+    public Date getTimestampAsDate() {
+        return Timestamp.from(timestamp);
+    }
+
+    public Instant getTimestampAsInstant() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the ID bound for tables with {@code int} keys.
+     */
+    public int getIntId() {
+        return (int) Math.min(id, Integer.MAX_VALUE);
+    }
+}
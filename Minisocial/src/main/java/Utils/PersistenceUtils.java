@@ -0,0 +1,59 @@
+package Utils;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * PersistenceUtils – Helpers for interpreting persistence failures.
+ */
+public class PersistenceUtils {
+
+    /** SQLSTATE of a unique violation (H2, PostgreSQL, Derby, HSQLDB). */
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+
+    /** Generic SQLSTATE of integrity constraint violations, refined by the vendor code. */
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_STATE = "23000";
+
+    /** MySQL/MariaDB vendor code of a duplicate key (ER_DUP_ENTRY). */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    /** Oracle vendor code of a unique violation (ORA-00001). */
+    private static final int ORACLE_UNIQUE_VIOLATION = 1;
+
+    /**
+     * Checks whether a failure was caused by one of the given unique constraints, e.g. an
+     * insert rejected as a duplicate. Other integrity violations (foreign key, not null,
+     * check) and unique violations of other constraints are not matched, so they are not
+     * mistaken for duplicates.
+     *
+     * @param e the exception thrown by persist/flush
+     * @param constraintNames the names of the unique constraints that signal a duplicate
+     * @return true if a unique violation naming one of the constraints is in the cause chain
+     */
+    public static boolean isUniqueViolation(Throwable e, String... constraintNames) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && isUniqueViolation((SQLException) cause)) {
+                // The message names the violated constraint (in upper case on H2)
+                String message = String.valueOf(cause.getMessage()).toLowerCase(Locale.ROOT);
+                for (String constraintName : constraintNames) {
+                    if (message.contains(constraintName.toLowerCase(Locale.ROOT))) {
+                        return true;
+                    }
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUniqueViolation(SQLException e) {
+        String sqlState = e.getSQLState();
+        if (UNIQUE_VIOLATION_STATE.equals(sqlState)) {
+            return true;
+        }
+        return INTEGRITY_CONSTRAINT_VIOLATION_STATE.equals(sqlState)
+                && (e.getErrorCode() == MYSQL_DUPLICATE_ENTRY || e.getErrorCode() == ORACLE_UNIQUE_VIOLATION);
+    }
+}
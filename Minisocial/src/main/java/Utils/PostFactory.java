@@ -9,7 +9,7 @@ import models.UserPost;
 import java.util.Date;
 
 /**
- * 	 PostFactory  Factory for creating different types of Posts.
+ * 	 PostFactory – Factory for creating different types of Posts.
  * 
  * 	 Responsibilities:
  * - Create UserPost or GroupPost with appropriate properties.
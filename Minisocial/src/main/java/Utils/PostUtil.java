@@ -15,9 +15,46 @@ import java.util.List;
  */
 public class PostUtil {
 
-  
+    /**
+     * Query to fetch all posts of a user. The author is fetched in the same statement
+     * (UserPostDTO reads it for every row).
+     */
     public static final String GET_POSTS_BY_USER_QUERY = 
-        "SELECT p FROM UserPost p WHERE p.user.userId = :userId";
+        "SELECT p FROM UserPost p JOIN FETCH p.user WHERE p.user.userId = :userId";
+
+    /**
+     * Query to fetch one page of a user's posts, newest first (keyset on postId), with their author.
+     */
+    public static final String GET_POSTS_BY_USER_PAGE_QUERY =
+        "SELECT p FROM UserPost p JOIN FETCH p.user WHERE p.user.userId = :userId AND p.postId < :beforeId " +
+        "ORDER BY p.postId DESC";
+
+    // ============================== Timeline Queries ==============================
+
+    /**
+     * Query to fetch timeline post IDs older than :beforeId from the database: posts of the
+     * user and their friends, newest first. Used to rebuild a timeline and to page past
+     * the posts kept in the timeline store. Friends are read from both sides of the
+     * canonical friendship rows, each through its own index.
+     */
+    public static final String GET_TIMELINE_POST_IDS_QUERY =
+        "SELECT p.postId FROM UserPost p WHERE (p.user.userId = :userId " +
+        "OR p.user.userId IN (SELECT f.friend.userId FROM Friendships f WHERE f.user.userId = :userId) " +
+        "OR p.user.userId IN (SELECT f.user.userId FROM Friendships f WHERE f.friend.userId = :userId)) " +
+        "AND p.postId < :beforeId ORDER BY p.postId DESC";
+
+    /**
+     * Query to fetch the most recent post IDs of a set of authors, newest first.
+     */
+    public static final String GET_POST_IDS_BY_AUTHORS_QUERY =
+        "SELECT p.postId FROM UserPost p WHERE p.user.userId IN :authorIds ORDER BY p.postId DESC";
+
+    /**
+     * Query to load timeline posts by ID, newest first, with their authors in the same statement
+     * (a timeline page has many distinct authors).
+     */
+    public static final String GET_POSTS_BY_IDS_QUERY =
+        "SELECT p FROM UserPost p LEFT JOIN FETCH p.user WHERE p.postId IN :postIds ORDER BY p.postId DESC";
 
     /**
      * Validates the given post data (content, image URL, and author) 
@@ -0,0 +1,229 @@
+package Utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RequestMetrics – Per-endpoint cost of the REST calls.
+ *
+ * For every endpoint (HTTP method + path template) it keeps a latency histogram and the number
+ * of SQL statements, loaded entities and sent JMS messages. The counters of the call in progress
+ * live in a thread-local scope opened and closed by {@code recources.RequestMetricsFilter};
+ * {@link SqlStatementCounter}, {@link EntityLoadCounter} and the JMS producers report into it.
+ * Work done outside a REST call (MDBs, timers, asynchronous jobs) is counted in the background
+ * totals.
+ *
+ * {@link #writePrometheus(StringBuilder)} renders everything in the Prometheus text format.
+ */
+public final class RequestMetrics {
+
+    private static final RequestMetrics INSTANCE = new RequestMetrics();
+
+    /** Counters of the REST call running on the current thread, null outside a call. */
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /** Statistics keyed by "METHOD path". */
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private final LongAdder backgroundStatements = new LongAdder();
+    private final LongAdder backgroundEntities = new LongAdder();
+    private final LongAdder backgroundMessages = new LongAdder();
+
+    private RequestMetrics() {}
+
+    public static RequestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    // -------------------- Request scope --------------------
+
+    /**
+     * Opens the counters of a REST call on the current thread.
+     */
+    public void begin() {
+        CURRENT.set(new Scope());
+    }
+
+    /**
+     * Closes the counters of the current REST call and records them for its endpoint.
+     *
+     * @param method the HTTP method
+     * @param path the path template of the matched resource method
+     * @param status the response status
+     * @param nanos the time spent in the call
+     */
+    public void end(String method, String path, int status, long nanos) {
+        Scope scope = CURRENT.get();
+        CURRENT.remove();
+        if (scope == null) {
+            return;
+        }
+        endpoints.computeIfAbsent(method + " " + path, k -> new EndpointStats(method, path))
+                 .record(scope, status, nanos);
+    }
+
+    // -------------------- Probes --------------------
+
+    /** Counts one SQL statement. */
+    public void recordStatement() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+        } else {
+            backgroundStatements.increment();
+        }
+    }
+
+    /**
+     * @return the SQL statements counted so far by the REST call on the current thread, 0 outside a call.
+     */
+    public long currentStatements() {
+        Scope scope = CURRENT.get();
+        return scope == null ? 0 : scope.statements;
+    }
+
+    /** Counts one loaded entity. */
+    public void recordEntityLoad() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.entities++;
+        } else {
+            backgroundEntities.increment();
+        }
+    }
+
+    /** Counts one sent JMS message. */
+    public void recordJmsSent() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.messages++;
+        } else {
+            backgroundMessages.increment();
+        }
+    }
+
+    // -------------------- Exposition --------------------
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format (version 0.0.4).
+     *
+     * @param out the buffer to append to
+     */
+    public void writePrometheus(StringBuilder out) {
+        Map<String, EndpointStats> sorted = new TreeMap<>(endpoints);
+
+        out.append("# HELP minisocial_http_request_duration_seconds Latency of the REST calls.\n");
+        out.append("# TYPE minisocial_http_request_duration_seconds histogram\n");
+        for (EndpointStats stats : sorted.values()) {
+            long[] cumulative = stats.latency.cumulativeCounts();
+            for (int i = 0; i < cumulative.length; i++) {
+                String le = i < LatencyHistogram.BOUNDS_SECONDS.length
+                        ? formatDouble(LatencyHistogram.BOUNDS_SECONDS[i]) : "+Inf";
+                out.append("minisocial_http_request_duration_seconds_bucket{").append(stats.labels)
+                   .append(",le=\"").append(le).append("\"} ").append(cumulative[i]).append('\n');
+            }
+            out.append("minisocial_http_request_duration_seconds_sum{").append(stats.labels).append("} ")
+               .append(formatDouble(stats.latency.getSumSeconds())).append('\n');
+            out.append("minisocial_http_request_duration_seconds_count{").append(stats.labels).append("} ")
+               .append(stats.latency.getCount()).append('\n');
+        }
+
+        writeCounter(out, sorted, "minisocial_http_server_errors_total",
+                "REST calls answered with a 5xx status.", s -> s.serverErrors.sum());
+        writeCounter(out, sorted, "minisocial_sql_statements_total",
+                "SQL statements issued by the REST calls.", s -> s.statements.sum());
+        writeGauge(out, sorted, "minisocial_sql_statements_per_request_max",
+                "Largest number of SQL statements issued by a single REST call.", s -> s.maxStatements.get());
+        writeCounter(out, sorted, "minisocial_entities_loaded_total",
+                "Entities loaded by the REST calls.", s -> s.entities.sum());
+        writeCounter(out, sorted, "minisocial_jms_messages_sent_total",
+                "JMS messages sent by the REST calls.", s -> s.messages.sum());
+
+        writeSingle(out, "minisocial_background_sql_statements_total",
+                "SQL statements issued outside REST calls.", backgroundStatements.sum());
+        writeSingle(out, "minisocial_background_entities_loaded_total",
+                "Entities loaded outside REST calls.", backgroundEntities.sum());
+        writeSingle(out, "minisocial_background_jms_messages_sent_total",
+                "JMS messages sent outside REST calls.", backgroundMessages.sum());
+    }
+
+    private interface Value {
+        long of(EndpointStats stats);
+    }
+
+    private static void writeCounter(StringBuilder out, Map<String, EndpointStats> endpoints,
+                                     String name, String help, Value value) {
+        writeSeries(out, endpoints, name, help, "counter", value);
+    }
+
+    private static void writeGauge(StringBuilder out, Map<String, EndpointStats> endpoints,
+                                   String name, String help, Value value) {
+        writeSeries(out, endpoints, name, help, "gauge", value);
+    }
+
+    private static void writeSeries(StringBuilder out, Map<String, EndpointStats> endpoints,
+                                    String name, String help, String type, Value value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (EndpointStats stats : endpoints.values()) {
+            out.append(name).append('{').append(stats.labels).append("} ").append(value.of(stats)).append('\n');
+        }
+    }
+
+    private static void writeSingle(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String formatDouble(double value) {
+        return String.format(Locale.ROOT, "%s", value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // -------------------- State --------------------
+
+    /**
+     * Counters of one REST call; only touched by the thread serving it.
+     */
+    private static final class Scope {
+        long statements;
+        long entities;
+        long messages;
+    }
+
+    /**
+     * Accumulated statistics of one endpoint.
+     */
+    private static final class EndpointStats {
+        private final String labels;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder entities = new LongAdder();
+        private final LongAdder messages = new LongAdder();
+
+        EndpointStats(String method, String path) {
+            this.labels = "method=\"" + escape(method) + "\",path=\"" + escape(path) + "\"";
+        }
+
+        void record(Scope scope, int status, long nanos) {
+            latency.record(nanos);
+            if (status >= 500) {
+                serverErrors.increment();
+            }
+            statements.add(scope.statements);
+            maxStatements.accumulate(scope.statements);
+            entities.add(scope.entities);
+            messages.add(scope.messages);
+        }
+    }
+}
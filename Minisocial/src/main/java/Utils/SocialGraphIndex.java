@@ -0,0 +1,158 @@
+package Utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SocialGraphIndex – In-memory index of the friendship graph.
+ *
+ * Every user maps to a sorted {@code long[]} of friend IDs, so {@link #areFriends(Long, Long)}
+ * is a binary search (O(log d)) instead of loading and scanning the user's friendships.
+ * Adjacency arrays are never modified in place: updates build a new array and swap it in,
+ * so readers see a consistent snapshot without locking.
+ *
+ * The index is filled at startup by {@code service.InMemoryIndexLoader} and kept in sync by
+ * {@link FriendshipUtils#createMutualFriendship} once the friendship has been committed.
+ */
+public final class SocialGraphIndex {
+
+    private static final SocialGraphIndex INSTANCE = new SocialGraphIndex();
+
+    private static final long[] NO_FRIENDS = new long[0];
+
+    /** Sorted friend IDs keyed by user ID. */
+    private final Map<Long, long[]> adjacency = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    private SocialGraphIndex() {}
+
+    public static SocialGraphIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks whether two users are friends. Searches the smaller of the two adjacency arrays.
+     *
+     * @param userId1 the first user
+     * @param userId2 the second user
+     * @return true if the users are friends
+     */
+    public boolean areFriends(Long userId1, Long userId2) {
+        if (userId1 == null || userId2 == null) {
+            return false;
+        }
+        long[] friends1 = getFriends(userId1);
+        long[] friends2 = getFriends(userId2);
+        return friends1.length <= friends2.length
+                ? Arrays.binarySearch(friends1, userId2) >= 0
+                : Arrays.binarySearch(friends2, userId1) >= 0;
+    }
+
+    /**
+     * Returns the friends of a user, sorted ascending. The array is shared and must not be modified.
+     *
+     * @param userId the user
+     * @return the friend IDs, empty if the user has no friends
+     */
+    public long[] getFriends(Long userId) {
+        long[] friends = adjacency.get(userId);
+        return friends == null ? NO_FRIENDS : friends;
+    }
+
+    /**
+     * @param userId the user
+     * @return the number of friends of the user
+     */
+    public int degree(Long userId) {
+        return getFriends(userId).length;
+    }
+
+    /**
+     * Records a (mutual) friendship.
+     *
+     * @param userId1 the first user
+     * @param userId2 the second user
+     */
+    public void addFriendship(long userId1, long userId2) {
+        adjacency.compute(userId1, (id, friends) -> insert(friends, userId2));
+        adjacency.compute(userId2, (id, friends) -> insert(friends, userId1));
+    }
+
+    /**
+     * Merges a batch of friends of one user into the index (used by the startup load).
+     *
+     * @param userId the user
+     * @param sortedFriends friend IDs sorted ascending, without duplicates
+     */
+    public void mergeFriends(long userId, long[] sortedFriends) {
+        adjacency.merge(userId, sortedFriends, SocialGraphIndex::union);
+    }
+
+    /** Marks the index as fully loaded. */
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * @return true once the startup load has completed.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return the IDs of all users with at least one friend.
+     */
+    public long[] getUserIds() {
+        return adjacency.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * @return the number of users with at least one friend.
+     */
+    public int size() {
+        return adjacency.size();
+    }
+
+    /** Empties the index (e.g. before a reload). */
+    public void clear() {
+        adjacency.clear();
+        loaded = false;
+    }
+
+    private static long[] insert(long[] friends, long friendId) {
+        if (friends == null) {
+            return new long[] { friendId };
+        }
+        int pos = Arrays.binarySearch(friends, friendId);
+        if (pos >= 0) {
+            return friends;
+        }
+        pos = -pos - 1;
+        long[] result = new long[friends.length + 1];
+        System.arraycopy(friends, 0, result, 0, pos);
+        result[pos] = friendId;
+        System.arraycopy(friends, pos, result, pos + 1, friends.length - pos);
+        return result;
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            result[n++] = next;
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+}
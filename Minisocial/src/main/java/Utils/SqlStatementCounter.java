@@ -0,0 +1,21 @@
+package Utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * SqlStatementCounter – Hibernate StatementInspector that counts every SQL statement prepared
+ * by the persistence unit and attributes it to the current REST call (see RequestMetrics).
+ * The SQL itself is returned unchanged.
+ *
+ * Registered in persistence.xml through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics.getInstance().recordStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,195 @@
+package Utils;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * TransactionHooks – Helper for running in-memory side effects only once the
+ * surrounding JTA transaction has committed.
+ *
+ * In-memory structures (timelines, counters, indexes) must not observe writes that are
+ * later rolled back. Callers register a callback here instead of mutating the structure
+ * directly from inside the transaction.
+ *
+ * If no transaction is active (or no registry is available, e.g. outside the container)
+ * the callback runs immediately.
+ */
+public class TransactionHooks {
+
+    /** Standard JNDI name of the container's TransactionSynchronizationRegistry. */
+    private static final String REGISTRY_JNDI_NAME = "java:comp/TransactionSynchronizationRegistry";
+
+    private TransactionHooks() {}
+
+    /**
+     * Runs the given action after the current transaction commits successfully.
+     * The action is discarded if the transaction rolls back.
+     *
+     * @param action the side effect to run after commit
+     */
+    public static void afterCommit(Runnable action) {
+        TransactionSynchronizationRegistry registry = lookupRegistry();
+        if (registry == null || registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // nothing to do before completion
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the given action after the current transaction commits, holding a read lock of
+     * {@code cut} from just before the commit until the action has run. A thread holding the
+     * write lock of {@code cut} therefore sees every such transaction either committed with
+     * its action run, or not committed yet.
+     *
+     * All actions registered against the same lock in one transaction share one read lock,
+     * so a writer waiting for the lock cannot block the transaction halfway.
+     *
+     * @param cut the lock taken exclusively by whoever needs a consistent cut
+     * @param action the side effect to run after commit
+     */
+    @SuppressWarnings("unchecked")
+    public static void afterCommitHolding(StampedLock cut, Runnable action) {
+        TransactionSynchronizationRegistry registry = lookupRegistry();
+        if (registry == null || registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            long stamp = cut.readLock();
+            try {
+                action.run();
+            } finally {
+                cut.unlockRead(stamp);
+            }
+            return;
+        }
+
+        List<Runnable> actions = (List<Runnable>) registry.getResource(cut);
+        if (actions != null) {
+            actions.add(action);
+            return;
+        }
+        List<Runnable> registered = new ArrayList<>();
+        registered.add(action);
+        registry.putResource(cut, registered);
+
+        registry.registerInterposedSynchronization(new Synchronization() {
+            private long stamp;
+
+            @Override
+            public void beforeCompletion() {
+                stamp = cut.readLock();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == Status.STATUS_COMMITTED) {
+                        registered.forEach(Runnable::run);
+                    }
+                } finally {
+                    if (stamp != 0) {
+                        cut.unlockRead(stamp);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes the write lock of {@code cut} until the current transaction completes, so no
+     * transaction registered with {@link #afterCommitHolding(StampedLock, Runnable)} against the
+     * same lock commits in between. If the transaction does not commit, {@code onRollback} runs
+     * before the lock is released.
+     * Nothing is locked when no transaction is active.
+     *
+     * @param cut the lock shared by the committing transactions
+     * @param onRollback the compensation to run after a rollback, while the lock is still held
+     */
+    public static void holdExclusive(StampedLock cut, Runnable onRollback) {
+        TransactionSynchronizationRegistry registry = lookupRegistry();
+        if (registry == null || registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return;
+        }
+
+        long stamp = cut.writeLock();
+        try {
+            registry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // nothing to do before completion
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status != Status.STATUS_COMMITTED) {
+                            onRollback.run();
+                        }
+                    } finally {
+                        cut.unlockWrite(stamp);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            cut.unlockWrite(stamp);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the given action if the current transaction does not commit.
+     * Nothing happens when no transaction is active.
+     *
+     * @param action the compensation to run after a rollback
+     */
+    public static void afterRollback(Runnable action) {
+        TransactionSynchronizationRegistry registry = lookupRegistry();
+        if (registry == null || registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return;
+        }
+
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // nothing to do before completion
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Looks up the TransactionSynchronizationRegistry.
+     *
+     * @return the registry, or null when running outside a container.
+     */
+    private static TransactionSynchronizationRegistry lookupRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(REGISTRY_JNDI_NAME);
+        } catch (NamingException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package Utils;
+
+import dtos.UserSummaryDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UserSearchIndex – In-memory trigram index over userName, firstName, lastName and email.
+ *
+ * Every indexed user gets a dense document number; each trigram of the lower-cased fields maps to
+ * an append-only, ascending list of document numbers. Fields are also indexed with boundary
+ * padding ("^^j", "^jo"), so one- and two-character queries are prefix lookups. A query intersects
+ * the posting lists of its trigrams (smallest first), verifies the candidates against the fields
+ * and keeps the best {@code limit} matches in a bounded heap: exact matches rank first, then
+ * prefixes, word starts and plain substrings, with userName weighted highest.
+ *
+ * Short queries and popular names match a large share of all users, so the best {@link #MAX_LIMIT}
+ * matches of the recent queries are kept together with the document number they were computed up
+ * to. The next search of a query only scores the documents indexed since, unless one of the kept
+ * matches has died in the meantime. The first search of a query still scores all its candidates.
+ *
+ * Updates never modify a document: a changed profile gets a new document and the old one is
+ * marked dead, so readers need no locks. Dead documents are dropped when the index is rebuilt
+ * (at startup). The index is filled by {@code service.InMemoryIndexLoader} and kept current by
+ * {@code UserService.register} and {@code manageProfile} after commit.
+ */
+public final class UserSearchIndex {
+
+    /** Number of queries whose best matches are kept (least recently used are dropped). */
+    private static final int CACHED_QUERIES = Integer.getInteger("minisocial.search.cachedQueries", 10_000);
+
+    private static final UserSearchIndex INSTANCE = new UserSearchIndex();
+
+    /** Default and maximum number of results of a search. */
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private static final char BOUNDARY = '^';
+
+    /** Field weights: userName, firstName, lastName, email. */
+    private static final int[] FIELD_WEIGHTS = { 4, 3, 3, 2 };
+
+    /** Posting lists keyed by packed trigram. */
+    private final Map<Long, Postings> postings = new ConcurrentHashMap<>();
+
+    /** Best matches of the recent queries, keyed by normalized query. */
+    private final ConcurrentLruCache<String, CachedQuery> cachedQueries = new ConcurrentLruCache<>(CACHED_QUERIES);
+
+    /** Current document number of each user. */
+    private final Map<Long, Integer> documentOfUser = new ConcurrentHashMap<>();
+
+    private volatile Document[] documents = new Document[1024];
+    private volatile int documentCount;
+
+    private volatile boolean loaded;
+
+    private UserSearchIndex() {}
+
+    public static UserSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param limit the requested number of results, may be null
+     * @return the limit clamped to [1, MAX_LIMIT], DEFAULT_LIMIT when absent
+     */
+    public static int limit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Adds or replaces a user.
+     *
+     * @param user the current profile of the user
+     */
+    public synchronized void index(UserSummaryDTO user) {
+        if (user == null || user.getUserId() == null) {
+            return;
+        }
+        Integer previous = documentOfUser.get(user.getUserId());
+        if (previous != null) {
+            documents[previous].alive = false;
+        }
+
+        Document document = new Document(user);
+        int number = documentCount;
+        if (number == documents.length) {
+            documents = Arrays.copyOf(documents, number * 2);
+        }
+        documents[number] = document;
+        documentCount = number + 1;
+
+        Set<Long> trigrams = new HashSet<>();
+        for (String field : document.fields) {
+            addTrigrams(field, trigrams, true);
+        }
+        for (Long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new Postings()).append(number);
+        }
+        documentOfUser.put(user.getUserId(), number);
+    }
+
+    /**
+     * Searches users whose userName, firstName, lastName or email contains the query
+     * (or starts with it, for queries shorter than three characters).
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of results
+     * @return the best matches, best first
+     */
+    public List<UserSummaryDTO> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> trigrams = new HashSet<>();
+        if (q.length() < 3) {
+            // Prefix lookup on the padded leading trigram
+            String padded = q.length() == 1 ? "" + BOUNDARY + BOUNDARY + q : BOUNDARY + q;
+            trigrams.add(pack(padded, 0));
+        } else {
+            addTrigrams(q, trigrams, false);
+        }
+
+        int[][] lists = new int[trigrams.size()][];
+        int[] sizes = new int[trigrams.size()];
+        int i = 0;
+        for (Long trigram : trigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            sizes[i] = list.size;
+            lists[i] = list.numbers;
+            i++;
+        }
+        sortBySize(lists, sizes);
+
+        List<Match> matches = bestMatches(q, lists, sizes);
+        return toUsers(matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    /**
+     * Returns the best {@link #MAX_LIMIT} matches of a query, best first, continuing from the
+     * last search of the same query when it is still cached.
+     *
+     * Only documents below the watermark are scored: every document below it has all its
+     * trigrams appended (documents are indexed one at a time, in ascending order), so the next
+     * search can start at the watermark without missing or scoring a document twice.
+     */
+    private List<Match> bestMatches(String q, int[][] lists, int[] sizes) {
+        int watermark = Integer.MAX_VALUE;
+        for (int i = 0; i < lists.length; i++) {
+            watermark = Math.min(watermark, sizes[i] == 0 ? 0 : lists[i][sizes[i] - 1] + 1);
+        }
+
+        CachedQuery previous = cachedQueries.get(q);
+        PriorityQueue<Match> best = new PriorityQueue<>(MAX_LIMIT + 1, Match.WORST_FIRST);
+        int from = 0;
+        if (previous != null) {
+            boolean lost = false;
+            for (Match match : previous.matches) {
+                lost |= !match.document.alive;
+            }
+            if (!lost && previous.watermark >= watermark) {
+                return previous.matches;
+            }
+            // If a kept match died and the next best one is unknown, score everything again
+            if (!lost || previous.matches.size() < MAX_LIMIT) {
+                for (Match match : previous.matches) {
+                    if (match.document.alive) {
+                        best.add(match);
+                    }
+                }
+                from = previous.watermark;
+            }
+        }
+
+        Document[] docs = documents;
+        int[] smallest = lists[0];
+        int start = Arrays.binarySearch(smallest, 0, sizes[0], from);
+        for (int k = start < 0 ? -start - 1 : start; k < sizes[0]; k++) {
+            int number = smallest[k];
+            if (number >= watermark) {
+                break;
+            }
+            if (!containsAll(lists, sizes, number)) {
+                continue;
+            }
+            Document document = docs[number];
+            if (document == null || !document.alive) {
+                continue;
+            }
+            int score = document.score(q);
+            if (score > 0) {
+                best.add(new Match(document, score));
+                if (best.size() > MAX_LIMIT) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<Match> matches = bestFirst(best);
+        cachedQueries.put(q, new CachedQuery(Math.max(watermark, from), matches));
+        return matches;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return the number of users currently indexed
+     */
+    public int size() {
+        return documentOfUser.size();
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static List<Match> bestFirst(PriorityQueue<Match> best) {
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(Match.WORST_FIRST.reversed());
+        return matches;
+    }
+
+    private static List<UserSummaryDTO> toUsers(List<Match> matches) {
+        List<UserSummaryDTO> results = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            results.add(match.document.user);
+        }
+        return results;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects the trigrams of a text, optionally with the boundary-padded leading trigrams.
+     */
+    private static void addTrigrams(String text, Set<Long> out, boolean padded) {
+        if (text.isEmpty()) {
+            return;
+        }
+        String value = padded ? "" + BOUNDARY + BOUNDARY + text : text;
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            out.add(pack(value, i));
+        }
+    }
+
+    /** Packs three characters into one key. */
+    private static long pack(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    private static void sortBySize(int[][] lists, int[] sizes) {
+        for (int i = 1; i < sizes.length; i++) {
+            for (int j = i; j > 0 && sizes[j] < sizes[j - 1]; j--) {
+                int size = sizes[j]; sizes[j] = sizes[j - 1]; sizes[j - 1] = size;
+                int[] list = lists[j]; lists[j] = lists[j - 1]; lists[j - 1] = list;
+            }
+        }
+    }
+
+    private static boolean containsAll(int[][] lists, int[] sizes, int number) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i], 0, sizes[i], number) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append-only ascending list of document numbers. Readers read {@link #size} before
+     * {@link #numbers}; the array they then see always holds at least that many entries.
+     */
+    private static final class Postings {
+        private volatile int[] numbers = new int[4];
+        private volatile int size;
+
+        synchronized void append(int number) {
+            int[] current = numbers;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+                numbers = current;
+            }
+            current[size] = number;
+            size = size + 1;
+        }
+    }
+
+    /**
+     * Best matches of a query among the documents below {@code watermark}.
+     */
+    private static final class CachedQuery {
+        private final int watermark;
+        private final List<Match> matches;
+
+        CachedQuery(int watermark, List<Match> matches) {
+            this.watermark = watermark;
+            this.matches = Collections.unmodifiableList(matches);
+        }
+    }
+
+    /**
+     * One indexed version of a user.
+     */
+    private static final class Document {
+        private final UserSummaryDTO user;
+        private final String[] fields;
+        private volatile boolean alive = true;
+
+        Document(UserSummaryDTO user) {
+            this.user = user;
+            this.fields = new String[] {
+                normalize(user.getUserName()),
+                normalize(user.getFirstName()),
+                normalize(user.getLastName()),
+                normalize(user.getEmail())
+            };
+        }
+
+        /**
+         * Scores the best matching field: exact 100, prefix 60, word start 40, substring 10,
+         * multiplied by the field weight. 0 if no field contains the query.
+         */
+        int score(String q) {
+            int best = 0;
+            for (int i = 0; i < fields.length; i++) {
+                String field = fields[i];
+                int position = field.indexOf(q);
+                if (position < 0) {
+                    continue;
+                }
+                int score;
+                if (field.length() == q.length()) {
+                    score = 100;
+                } else if (position == 0) {
+                    score = 60;
+                } else if (!Character.isLetterOrDigit(field.charAt(position - 1))) {
+                    score = 40;
+                } else {
+                    score = 10;
+                }
+                best = Math.max(best, score * FIELD_WEIGHTS[i]);
+            }
+            return best;
+        }
+    }
+
+    /**
+     * A scored candidate.
+     */
+    private static final class Match {
+        /** Lowest score first; among equal scores, the longer user name (then higher ID) first. */
+        static final Comparator<Match> WORST_FIRST = Comparator
+                .comparingInt((Match m) -> m.score)
+                .thenComparing(m -> -m.document.fields[0].length())
+                .thenComparing(m -> -m.document.user.getUserId());
+
+        private final Document document;
+        private final int score;
+
+        Match(Document document, int score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+}
@@ -35,16 +35,29 @@ public class UserUtils {
         "SELECT u FROM User u WHERE u.userName = :userName AND u.password = :password";
 
     /**
-     * Query to retrieve a user by their unique userId.
+     * Projection of the public profile columns of a user (no entity, no lazy collections).
      */
-    public static final String GET_USER_BY_ID_QUERY = 
-        "SELECT u FROM User u WHERE u.userId = :userId";
+    private static final String SELECT_USER_SUMMARY = 
+        "SELECT new dtos.UserSummaryDTO(u.userId, u.userName, u.firstName, u.lastName, u.email, u.bio, u.role) " +
+        "FROM User u ";
 
     /**
-     * Query to fetch all users from the database.
+     * Query to retrieve the summary of a user by their unique userId.
      */
-    public static final String GET_ALL_USERS_QUERY = 
-        "SELECT u FROM User u";
+    public static final String GET_USER_SUMMARY_BY_ID_QUERY = 
+        SELECT_USER_SUMMARY + "WHERE u.userId = :userId";
+
+    /**
+     * Query to fetch the summaries of all users, in ID order.
+     */
+    public static final String GET_ALL_USER_SUMMARIES_QUERY = 
+        SELECT_USER_SUMMARY + "ORDER BY u.userId";
+
+    /**
+     * Query to fetch the IDs of all users.
+     */
+    public static final String GET_ALL_USER_IDS_QUERY = 
+        "SELECT u.userId FROM User u";
 
     /**
      * Query to check if an email is already taken by another user.
@@ -56,13 +69,13 @@ public class UserUtils {
      * Query to search for users by matching username pattern.
      */
     public static final String SEARCH_BY_USERNAME_QUERY = 
-        "SELECT u FROM User u WHERE u.userName LIKE :userName";
+        SELECT_USER_SUMMARY + "WHERE u.userName LIKE :userName";
 
     /**
      * Query to search for users by matching email pattern.
      */
     public static final String SEARCH_BY_EMAIL_QUERY = 
-        "SELECT u FROM User u WHERE u.email LIKE :email";
+        SELECT_USER_SUMMARY + "WHERE u.email LIKE :email";
 
     // ============================== Utility Methods ==============================
 
@@ -0,0 +1,142 @@
+package dtos;
+
+import javax.json.bind.annotation.JsonbTransient;
+
+/**
+ * BulkOutcomeDTO is the result of one item of a bulk accept/reject call, for friend requests
+ * and group join requests alike. Only id, outcome and userId are serialized; the receiver
+ * fields carry what the friend request notifications need and stay on the server.
+ */
+public class BulkOutcomeDTO {
+
+    /** The item was accepted or approved. */
+    public static final String ACCEPTED = "accepted";
+
+    /** The item was rejected. */
+    public static final String REJECTED = "rejected";
+
+    /** No pending item with this ID exists (unknown, or already answered). */
+    public static final String NOT_PENDING = "not_pending";
+
+    /** The ID appeared earlier in the same call. */
+    public static final String DUPLICATE = "duplicate";
+
+    // ID of the item as sent by the client
+    private Long id;
+
+    // One of the outcome constants above
+    private String outcome;
+
+    // User to notify about the outcome (requester or member), null if nothing changed
+    private Long userId;
+
+    // Receiver who answered an applied friend request (the acceptor), null otherwise
+    @JsonbTransient
+    private Long receiverId;
+
+    // Display name of the receiver, used in the requester's notification
+    @JsonbTransient
+    private String receiverName;
+
+    // ➡️ Constructors
+
+    /**
+     * Default constructor.
+     */
+    public BulkOutcomeDTO() {}
+
+    /**
+     * Constructs an outcome.
+     *
+     * @param id the ID of the item.
+     * @param outcome the outcome of the item.
+     * @param userId the user the item concerns, or null.
+     */
+    public BulkOutcomeDTO(Long id, String outcome, Long userId) {
+        this.id = id;
+        this.outcome = outcome;
+        this.userId = userId;
+    }
+
+    // ➡️ Getters and Setters
+
+    /**
+     * Retrieves the ID of the item.
+     *
+     * @return the ID as sent by the client.
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Sets the ID of the item.
+     *
+     * @param id the ID to set.
+     */
+    public void setId(Long id) { this.id = id; }
+
+    /**
+     * Retrieves the outcome of the item.
+     *
+     * @return one of ACCEPTED, REJECTED, NOT_PENDING or DUPLICATE.
+     */
+    public String getOutcome() { return outcome; }
+
+    /**
+     * Sets the outcome of the item.
+     *
+     * @param outcome the outcome to set.
+     */
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+
+    /**
+     * Retrieves the user to notify about the outcome.
+     *
+     * @return the requester or member, or null if nothing changed.
+     */
+    public Long getUserId() { return userId; }
+
+    /**
+     * Sets the user to notify about the outcome.
+     *
+     * @param userId the user ID to set.
+     */
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    /**
+     * Retrieves the receiver who answered a friend request. Not serialized.
+     *
+     * @return the receiver ID, or null if the item is not an applied friend request.
+     */
+    public Long getReceiverId() { return receiverId; }
+
+    /**
+     * Sets the receiver who answered a friend request.
+     *
+     * @param receiverId the receiver ID to set.
+     */
+    public void setReceiverId(Long receiverId) { this.receiverId = receiverId; }
+
+    /**
+     * Retrieves the display name of the receiver. Not serialized.
+     *
+     * @return the receiver name, or null if the item is not an applied friend request.
+     */
+    public String getReceiverName() { return receiverName; }
+
+    /**
+     * Sets the display name of the receiver.
+     *
+     * @param receiverName the receiver name to set.
+     */
+    public void setReceiverName(String receiverName) { this.receiverName = receiverName; }
+
+    /**
+     * Checks whether the item changed state. Not serialized (it follows from the outcome).
+     *
+     * @return true if the item was accepted or rejected.
+     */
+    @JsonbTransient
+    public boolean isApplied() {
+        return ACCEPTED.equals(outcome) || REJECTED.equals(outcome);
+    }
+}
@@ -0,0 +1,87 @@
+package dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BulkRespondDTO is the request body of the bulk accept/reject endpoints.
+ * It carries the action to apply and the IDs of the items it applies to
+ * (friend request IDs, or user IDs of pending group members).
+ */
+public class BulkRespondDTO {
+
+    /** Maximum number of IDs accepted in one bulk call. */
+    public static final int MAX_ITEMS = Integer.getInteger("minisocial.bulk.maxItems", 500);
+
+    // "accept"/"approve" or "reject"
+    private String action;
+
+    // IDs of the items to respond to
+    private List<Long> ids;
+
+    // ➡️ Constructors
+
+    /**
+     * Default constructor.
+     */
+    public BulkRespondDTO() {}
+
+    // ➡️ Getters and Setters
+
+    /**
+     * Retrieves the action to apply.
+     *
+     * @return "accept", "approve" or "reject".
+     */
+    public String getAction() { return action; }
+
+    /**
+     * Sets the action to apply.
+     *
+     * @param action the action to set.
+     */
+    public void setAction(String action) { this.action = action; }
+
+    /**
+     * Retrieves the IDs of the items.
+     *
+     * @return the IDs.
+     */
+    public List<Long> getIds() { return ids; }
+
+    /**
+     * Sets the IDs of the items.
+     *
+     * @param ids the IDs to set.
+     */
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    // ➡️ Validation
+
+    /**
+     * @return true if the action accepts/approves the items.
+     */
+    public boolean isApprove() {
+        return "accept".equalsIgnoreCase(action) || "approve".equalsIgnoreCase(action);
+    }
+
+    /**
+     * Validates the request body.
+     *
+     * @return a list of error messages, empty if the body is valid.
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (!isApprove() && !"reject".equalsIgnoreCase(action)) {
+            errors.add("Action must be 'accept', 'approve' or 'reject'.");
+        }
+        if (ids == null || ids.isEmpty()) {
+            errors.add("At least one ID is required.");
+        } else if (ids.size() > MAX_ITEMS) {
+            errors.add("At most " + MAX_ITEMS + " IDs can be sent in one call.");
+        } else if (ids.contains(null)) {
+            errors.add("IDs must not be null.");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,91 @@
+package dtos;
+
+import java.util.List;
+import java.util.function.Function;
+
+import Utils.PageCursor;
+
+/**
+ * PageDTO is a Data Transfer Object (DTO) that represents one page of a list endpoint.
+ * It carries the items of the page and the opaque cursor of the next page
+ * (null when there are no more items).
+ *
+ * @param <T> the type of the items.
+ */
+public class PageDTO<T> {
+
+    // Items of the current page
+    private List<T> items;
+
+    // Cursor to request the next page, null on the last page
+    private String next;
+
+    // ➡️ Constructors
+
+    /**
+     * Default constructor.
+     */
+    public PageDTO() {}
+
+    /**
+     * Constructs a page.
+     *
+     * @param items the items of the page.
+     * @param next the cursor of the next page, or null.
+     */
+    public PageDTO(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    // ➡️ Getters and Setters
+
+    /**
+     * Retrieves the items of the page.
+     *
+     * @return the items.
+     */
+    public List<T> getItems() { return items; }
+
+    /**
+     * Sets the items of the page.
+     *
+     * @param items the items to set.
+     */
+    public void setItems(List<T> items) { this.items = items; }
+
+    /**
+     * Retrieves the cursor of the next page.
+     *
+     * @return the next cursor, or null on the last page.
+     */
+    public String getNext() { return next; }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param next the next cursor to set.
+     */
+    public void setNext(String next) { this.next = next; }
+
+    // ➡️ Conversion Methods
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code limit + 1}.
+     * The extra row only signals that another page exists and is not returned.
+     *
+     * @param rows the fetched rows, at most limit + 1.
+     * @param limit the page size.
+     * @param cursorOf extracts the keyset cursor of a row.
+     * @param mapper converts the rows of the page to DTOs.
+     * @return the page.
+     */
+    public static <E, T> PageDTO<T> of(List<E> rows, int limit,
+                                       Function<E, PageCursor> cursorOf,
+                                       Function<List<E>, List<T>> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? cursorOf.apply(pageRows.get(limit - 1)).encode() : null;
+        return new PageDTO<>(mapper.apply(pageRows), next);
+    }
+}
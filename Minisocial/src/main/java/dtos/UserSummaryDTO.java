@@ -0,0 +1,175 @@
+package dtos;
+
+import enums.RoleEnum;
+import models.User;
+
+/**
+ * UserSummaryDTO is a Data Transfer Object (DTO) with the public profile columns of a user.
+ * It is built directly by JPQL constructor expressions (see UserUtils), so reading it loads
+ * neither a managed User entity nor any of its lazy collections.
+ */
+public class UserSummaryDTO {
+
+    // Unique identifier of the user
+    private Long userId;
+
+    // Login name of the user
+    private String userName;
+
+    // First name of the user
+    private String firstName;
+
+    // Last name of the user
+    private String lastName;
+
+    // Email address of the user
+    private String email;
+
+    // Short biography of the user
+    private String bio;
+
+    // Role of the user (user or admin)
+    private RoleEnum role;
+
+    // ➡️ Constructors
+
+    /**
+     * Default constructor.
+     */
+    public UserSummaryDTO() {}
+
+    /**
+     * Constructor used by the JPQL constructor expressions.
+     *
+     * @param userId the user ID.
+     * @param userName the user name.
+     * @param firstName the first name.
+     * @param lastName the last name.
+     * @param email the email address.
+     * @param bio the biography.
+     * @param role the role.
+     */
+    public UserSummaryDTO(Long userId, String userName, String firstName, String lastName,
+                          String email, String bio, RoleEnum role) {
+        this.userId = userId;
+        this.userName = userName;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.bio = bio;
+        this.role = role;
+    }
+
+    // ➡️ Getters and Setters
+
+    /**
+     * Retrieves the user ID.
+     *
+     * @return the user ID.
+     */
+    public Long getUserId() { return userId; }
+
+    /**
+     * Sets the user ID.
+     *
+     * @param userId the user ID to set.
+     */
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    /**
+     * Retrieves the user name.
+     *
+     * @return the user name.
+     */
+    public String getUserName() { return userName; }
+
+    /**
+     * Sets the user name.
+     *
+     * @param userName the user name to set.
+     */
+    public void setUserName(String userName) { this.userName = userName; }
+
+    /**
+     * Retrieves the first name.
+     *
+     * @return the first name.
+     */
+    public String getFirstName() { return firstName; }
+
+    /**
+     * Sets the first name.
+     *
+     * @param firstName the first name to set.
+     */
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    /**
+     * Retrieves the last name.
+     *
+     * @return the last name.
+     */
+    public String getLastName() { return lastName; }
+
+    /**
+     * Sets the last name.
+     *
+     * @param lastName the last name to set.
+     */
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    /**
+     * Retrieves the email address.
+     *
+     * @return the email address.
+     */
+    public String getEmail() { return email; }
+
+    /**
+     * Sets the email address.
+     *
+     * @param email the email address to set.
+     */
+    public void setEmail(String email) { this.email = email; }
+
+    /**
+     * Retrieves the biography.
+     *
+     * @return the biography.
+     */
+    public String getBio() { return bio; }
+
+    /**
+     * Sets the biography.
+     *
+     * @param bio the biography to set.
+     */
+    public void setBio(String bio) { this.bio = bio; }
+
+    /**
+     * Retrieves the role.
+     *
+     * @return the role.
+     */
+    public RoleEnum getRole() { return role; }
+
+    /**
+     * Sets the role.
+     *
+     * @param role the role to set.
+     */
+    public void setRole(RoleEnum role) { this.role = role; }
+
+    // ➡️ Static Factory Method
+
+    /**
+     * Converts a User entity to a UserSummaryDTO.
+     *
+     * @param user the User entity to convert.
+     * @return the corresponding UserSummaryDTO.
+     */
+    public static UserSummaryDTO fromUser(User user) {
+        return new UserSummaryDTO(user.getUserId(), user.getUserName(), user.getFirstName(),
+                user.getLastName(), user.getEmail(), user.getBio(), user.getRole());
+    }
+}
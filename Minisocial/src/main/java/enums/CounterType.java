@@ -0,0 +1,9 @@
+package enums;
+
+/**
+ * Kinds of engagement counted per post by the engagement counters.
+ */
+public enum CounterType {
+    LIKES,
+    COMMENTS
+}
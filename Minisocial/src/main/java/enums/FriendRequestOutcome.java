@@ -0,0 +1,13 @@
+package enums;
+
+/**
+ * Result of sending a friend request.
+ */
+public enum FriendRequestOutcome {
+    /** A new pending request was created. */
+    SENT,
+    /** The receiver had already asked the requester; that request was accepted instead. */
+    ACCEPTED,
+    /** A request between the two users is already pending, or they are already friends. */
+    DUPLICATE
+}
@@ -3,5 +3,6 @@ package enums;
 public enum FriendshipStatus {
 	PENDING,
     ACCEPTED,
-    REJECTED
+    REJECTED,
+    EXPIRED
 }
@@ -0,0 +1,25 @@
+package enums;
+
+/**
+ * Effective permission level of a user in a group, as resolved by the membership authorizer.
+ */
+public enum MembershipLevel {
+    NONE,
+    PENDING,
+    MEMBER,
+    ADMIN;
+
+    /**
+     * @return true if the user is an approved member (admins included).
+     */
+    public boolean isMember() {
+        return this == MEMBER || this == ADMIN;
+    }
+
+    /**
+     * @return true if the user administers the group.
+     */
+    public boolean isAdmin() {
+        return this == ADMIN;
+    }
+}
@@ -0,0 +1,81 @@
+package messaging;
+
+import java.time.Instant;
+
+/**
+ * ActivityLogEventCodec – Compact binary codec for {@link ActivityLogEvent}.
+ *
+ * Layout (version 1):
+ *   version byte, presence flags byte, [user id varint], interned action, description string,
+ *   [timestamp epoch seconds varint, nanos varint].
+ */
+public final class ActivityLogEventCodec implements EventCodec<ActivityLogEvent> {
+
+    public static final ActivityLogEventCodec INSTANCE = new ActivityLogEventCodec();
+
+    private static final int VERSION = 1;
+
+    private static final int HAS_USER = 1;
+    private static final int HAS_TIMESTAMP = 1 << 1;
+
+    /**
+     * Interned actions. Append only: the index of an entry is its wire code.
+     */
+    private static final String[] ACTIONS = {
+        "Created a Post",
+        "LIKED",
+        "friend added",
+        "POSTED",
+        "FRIEND_ADDED"
+    };
+
+    private ActivityLogEventCodec() {}
+
+    @Override
+    public String name() {
+        return "activity-log-bin-v" + VERSION;
+    }
+
+    @Override
+    public byte[] encode(ActivityLogEvent event) {
+        BinaryFormat.Writer out = new BinaryFormat.Writer();
+        out.writeByte(VERSION);
+
+        int flags = 0;
+        if (event.getUserId() != null) flags |= HAS_USER;
+        if (event.getTimestamp() != null) flags |= HAS_TIMESTAMP;
+        out.writeByte(flags);
+
+        if (event.getUserId() != null) out.writeSignedVarLong(event.getUserId());
+        out.writeInterned(event.getAction(), ACTIONS);
+        out.writeString(event.getDescription());
+        if (event.getTimestamp() != null) {
+            out.writeSignedVarLong(event.getTimestamp().getEpochSecond());
+            out.writeVarLong(event.getTimestamp().getNano());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public ActivityLogEvent decode(byte[] bytes) {
+        BinaryFormat.Reader in = new BinaryFormat.Reader(bytes);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported activity log payload version " + version + ".");
+        }
+
+        int flags = in.readByte();
+        Long userId = (flags & HAS_USER) != 0 ? in.readSignedVarLong() : null;
+        String action = in.readInterned(ACTIONS);
+        String description = in.readString();
+
+        ActivityLogEvent event = new ActivityLogEvent(userId, action, description);
+        if ((flags & HAS_TIMESTAMP) != 0) {
+            long seconds = in.readSignedVarLong();
+            event.setTimestamp(Instant.ofEpochSecond(seconds, in.readVarLong()));
+        } else {
+            event.setTimestamp(null);
+        }
+        return event;
+    }
+}
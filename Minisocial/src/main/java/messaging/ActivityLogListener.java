@@ -1,35 +1,65 @@
 package messaging;
 
-import models.ActivityLog;
-import service.ActivityLogService;
+import service.ActivityLogBatchWriter;
 
 import javax.ejb.ActivationConfigProperty;
 import javax.ejb.MessageDriven;
 import javax.inject.Inject;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.jms.ObjectMessage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Consumes activity log events and hands them to the batch writer.
+ *
+ * Events arrive as BytesMessages encoded with {@link ActivityLogEventCodec}; legacy ObjectMessages
+ * sent before the codec was introduced are still accepted.
+ *
+ * The listener waits until the event's batch has committed before returning, so the message
+ * (received in the container transaction) is only acknowledged once the row is written. If the
+ * batch fails or the writer is saturated, the exception rolls the delivery back and the broker
+ * redelivers the message. maxSession is raised so enough deliveries wait concurrently to fill a batch.
+ */
 @MessageDriven(
     activationConfig = {
         @ActivationConfigProperty(propertyName = "destinationType", propertyValue = "javax.jms.Queue"),
-        @ActivationConfigProperty(propertyName = "destinationLookup", propertyValue = "java:jboss/exported/jms/queue/ActivityLogQueue")
+        @ActivationConfigProperty(propertyName = "destinationLookup", propertyValue = "java:jboss/exported/jms/queue/ActivityLogQueue"),
+        @ActivationConfigProperty(propertyName = "maxSession", propertyValue = "64")
     }
 )
 public class ActivityLogListener implements MessageListener {
 
+    /** Upper bound on how long a delivery waits for its batch to commit. */
+    private static final long COMMIT_TIMEOUT_SECONDS = 30;
+
     @Inject
-    private ActivityLogService activityLogService;
+    private ActivityLogBatchWriter batchWriter;
 
     @Override
     public void onMessage(Message message) {
+        if (!(message instanceof BytesMessage) && !(message instanceof ObjectMessage)) {
+            return;
+        }
+
         try {
-            if (message instanceof ObjectMessage) {
-                ActivityLogEvent event = (ActivityLogEvent) ((ObjectMessage) message).getObject();
-                activityLogService.logActivity(event);
-            }
-        } catch (Exception e) {
+            ActivityLogEvent event = message instanceof BytesMessage
+                    ? ActivityLogEventCodec.INSTANCE.decode(message.getBody(byte[].class))
+                    : (ActivityLogEvent) ((ObjectMessage) message).getObject();
+            batchWriter.submit(event).get(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (JMSException | ClassCastException | IllegalArgumentException e) {
+            // Poison message: redelivering would not help
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for activity log batch.", e);
+        } catch (ExecutionException | TimeoutException e) {
+            // Roll back the delivery so the message is redelivered
+            throw new IllegalStateException("Activity log batch was not committed.", e);
         }
     }
 }
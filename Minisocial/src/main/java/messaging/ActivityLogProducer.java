@@ -1,11 +1,13 @@
 package messaging;
 
+import Utils.RequestMetrics;
+
 import javax.annotation.Resource;
 import javax.ejb.Singleton;
 import javax.inject.Inject;
+import javax.jms.BytesMessage;
 import javax.jms.JMSContext;
 import javax.jms.JMSProducer;
-import javax.jms.ObjectMessage;
 import javax.jms.Queue;
 
 @Singleton
@@ -19,9 +21,12 @@ public class ActivityLogProducer {
 
     public void sendActivityLog(ActivityLogEvent logEvent) {
         try {
-            ObjectMessage message = context.createObjectMessage(logEvent);
+            BytesMessage message = context.createBytesMessage();
+            message.writeBytes(ActivityLogEventCodec.INSTANCE.encode(logEvent));
+            message.setStringProperty(EventCodec.CODEC_PROPERTY, ActivityLogEventCodec.INSTANCE.name());
             JMSProducer producer = context.createProducer();
             producer.send(activityLogQueue, message);
+            RequestMetrics.getInstance().recordJmsSent();
         } catch (Exception e) {
             e.printStackTrace();
         }
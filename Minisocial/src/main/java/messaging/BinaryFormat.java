@@ -0,0 +1,153 @@
+package messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * BinaryFormat – Low-level primitives shared by the binary event codecs.
+ *
+ * Integers are written as unsigned LEB128 varints (zig-zag encoded when they may be negative),
+ * strings as a varint length followed by UTF-8 bytes, and strings from a known vocabulary as
+ * a varint code into an interned table.
+ */
+final class BinaryFormat {
+
+    private BinaryFormat() {}
+
+    /**
+     * Growable byte buffer used to encode one payload.
+     */
+    static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int size;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        /** Writes a nullable string: varint (length + 1), 0 meaning null, then the UTF-8 bytes. */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Writes a nullable string from a vocabulary: 0 for null, 1 followed by the literal
+         * string when it is not in the table, or index + 2 when it is.
+         */
+        void writeInterned(String value, String[] table) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            for (int i = 0; i < table.length; i++) {
+                if (table[i].equals(value)) {
+                    writeVarLong(i + 2L);
+                    return;
+                }
+            }
+            writeVarLong(1);
+            writeString(value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Cursor over one encoded payload.
+     */
+    static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            if (buffer == null) {
+                throw new IllegalArgumentException("Empty payload.");
+            }
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint.");
+        }
+
+        long readSignedVarLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            int byteCount = Math.toIntExact(length - 1);
+            require(byteCount);
+            String value = new String(buffer, position, byteCount, StandardCharsets.UTF_8);
+            position += byteCount;
+            return value;
+        }
+
+        String readInterned(String[] table) {
+            long code = readVarLong();
+            if (code == 0) {
+                return null;
+            }
+            if (code == 1) {
+                return readString();
+            }
+            if (code - 2 >= table.length) {
+                throw new IllegalArgumentException("Unknown interned code " + code + ".");
+            }
+            return table[(int) (code - 2)];
+        }
+
+        private void require(int count) {
+            if (count < 0 || position + count > buffer.length) {
+                throw new IllegalArgumentException("Truncated payload.");
+            }
+        }
+    }
+}
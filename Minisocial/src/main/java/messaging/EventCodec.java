@@ -0,0 +1,39 @@
+package messaging;
+
+/**
+ * EventCodec – Converts a messaging event to and from the bytes of a JMS {@code BytesMessage}.
+ *
+ * Implementations write fields explicitly instead of relying on Java serialization, so payloads
+ * are small, decoding needs no reflection, and the format does not depend on class versions.
+ *
+ * @param <T> the type of event handled by the codec.
+ */
+public interface EventCodec<T> {
+
+    /**
+     * Name of the JMS string property carrying the codec (and format version) of a message.
+     */
+    String CODEC_PROPERTY = "codec";
+
+    /**
+     * @return the codec identifier stored in {@link #CODEC_PROPERTY}.
+     */
+    String name();
+
+    /**
+     * Encodes an event.
+     *
+     * @param event the event to encode.
+     * @return the encoded bytes.
+     */
+    byte[] encode(T event);
+
+    /**
+     * Decodes an event.
+     *
+     * @param bytes the bytes produced by {@link #encode(Object)}.
+     * @return the decoded event.
+     * @throws IllegalArgumentException if the bytes are not a valid payload of this codec.
+     */
+    T decode(byte[] bytes);
+}
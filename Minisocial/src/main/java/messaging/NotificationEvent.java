@@ -22,6 +22,12 @@ public class NotificationEvent implements Serializable {
     /** The message associated with the event */
     private String message;
 
+    /** ID of the entity the event is about (e.g., the liked post), used to coalesce similar events */
+    private Long referenceId;
+
+    /** Display name of the source user, used to build aggregated messages */
+    private String sourceName;
+
     /** Default constructor (required for deserialization) */
     public NotificationEvent() {}
 
@@ -40,6 +46,23 @@ public class NotificationEvent implements Serializable {
         this.message = message;
     }
 
+    /**
+     * Constructor for events that may be coalesced with other events about the same entity.
+     * 
+     * @param sourceUserId ID of the source user triggering the event
+     * @param targetUserId ID of the target user receiving the notification
+     * @param eventType Type of the event (e.g., POST_LIKED)
+     * @param message The message to send with the notification
+     * @param referenceId ID of the entity the event is about (e.g., the post ID)
+     * @param sourceName Display name of the source user
+     */
+    public NotificationEvent(Long sourceUserId, Long targetUserId, String eventType, String message,
+                             Long referenceId, String sourceName) {
+        this(sourceUserId, targetUserId, eventType, message);
+        this.referenceId = referenceId;
+        this.sourceName = sourceName;
+    }
+
     /** 
      * Gets the source user ID (who triggered the event).
      * 
@@ -112,4 +135,40 @@ public class NotificationEvent implements Serializable {
         this.message = message;
     }
 
+    /** 
+     * Gets the ID of the entity the event is about.
+     * 
+     * @return The reference ID, or null.
+     */
+    public Long getReferenceId() {
+        return referenceId;
+    }
+
+    /** 
+     * Sets the ID of the entity the event is about.
+     * 
+     * @param referenceId The reference ID.
+     */
+    public void setReferenceId(Long referenceId) {
+        this.referenceId = referenceId;
+    }
+
+    /** 
+     * Gets the display name of the source user.
+     * 
+     * @return The source name, or null.
+     */
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    /** 
+     * Sets the display name of the source user.
+     * 
+     * @param sourceName The source name.
+     */
+    public void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+    }
+
 }
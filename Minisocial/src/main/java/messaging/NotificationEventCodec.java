@@ -0,0 +1,81 @@
+package messaging;
+
+/**
+ * NotificationEventCodec – Compact binary codec for {@link NotificationEvent}.
+ *
+ * Layout (version 2):
+ *   version byte, presence flags byte, [source user id varint], [target user id varint],
+ *   [reference id varint], interned event type, message string, source name string.
+ * Version 1 payloads (without reference id and source name) are still decoded.
+ */
+public final class NotificationEventCodec implements EventCodec<NotificationEvent> {
+
+    public static final NotificationEventCodec INSTANCE = new NotificationEventCodec();
+
+    private static final int VERSION = 2;
+
+    private static final int HAS_SOURCE = 1;
+    private static final int HAS_TARGET = 1 << 1;
+    private static final int HAS_REFERENCE = 1 << 2;
+
+    /**
+     * Interned event types. Append only: the index of an entry is its wire code.
+     */
+    private static final String[] EVENT_TYPES = {
+        "FRIEND_REQUEST_RECEIVED",
+        "GROUP_JOIN_REQUEST",
+        "GROUP_JOIN_RESPONSE",
+        "GROUP_LEFT",
+        "COMMENT_ADDED",
+        "POST_LIKED",
+        "FRIEND_REQUEST_ACCEPTED"
+    };
+
+    private NotificationEventCodec() {}
+
+    @Override
+    public String name() {
+        return "notification-bin-v" + VERSION;
+    }
+
+    @Override
+    public byte[] encode(NotificationEvent event) {
+        BinaryFormat.Writer out = new BinaryFormat.Writer();
+        out.writeByte(VERSION);
+
+        int flags = 0;
+        if (event.getSourceUserId() != null) flags |= HAS_SOURCE;
+        if (event.getTargetUserId() != null) flags |= HAS_TARGET;
+        if (event.getReferenceId() != null) flags |= HAS_REFERENCE;
+        out.writeByte(flags);
+
+        if (event.getSourceUserId() != null) out.writeSignedVarLong(event.getSourceUserId());
+        if (event.getTargetUserId() != null) out.writeSignedVarLong(event.getTargetUserId());
+        if (event.getReferenceId() != null) out.writeSignedVarLong(event.getReferenceId());
+        out.writeInterned(event.getEventType(), EVENT_TYPES);
+        out.writeString(event.getMessage());
+        out.writeString(event.getSourceName());
+        return out.toByteArray();
+    }
+
+    @Override
+    public NotificationEvent decode(byte[] bytes) {
+        BinaryFormat.Reader in = new BinaryFormat.Reader(bytes);
+        int version = in.readByte();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported notification payload version " + version + ".");
+        }
+
+        int flags = in.readByte();
+        NotificationEvent event = new NotificationEvent();
+        if ((flags & HAS_SOURCE) != 0) event.setSourceUserId(in.readSignedVarLong());
+        if ((flags & HAS_TARGET) != 0) event.setTargetUserId(in.readSignedVarLong());
+        if ((flags & HAS_REFERENCE) != 0) event.setReferenceId(in.readSignedVarLong());
+        event.setEventType(in.readInterned(EVENT_TYPES));
+        event.setMessage(in.readString());
+        if (version >= 2) {
+            event.setSourceName(in.readString());
+        }
+        return event;
+    }
+}
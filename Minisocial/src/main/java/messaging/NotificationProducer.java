@@ -1,13 +1,16 @@
 package messaging;
 
+import Utils.RequestMetrics;
+
 import javax.annotation.Resource;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 import javax.inject.Inject;
 import javax.jms.JMSContext;
 import javax.jms.JMSProducer;
-import javax.jms.ObjectMessage;
+import javax.jms.BytesMessage;
 import javax.jms.Topic;
+import java.util.List;
 
 /**
  * NotificationProducer – Responsible for sending notification events to a JMS topic.
@@ -33,7 +36,8 @@ public class NotificationProducer {
     /**
      * Sends a NotificationEvent to the JMS Topic.
      * 
-     * This method creates an ObjectMessage containing the NotificationEvent and sends it to the notificationTopic.
+     * This method encodes the NotificationEvent with the binary {@link NotificationEventCodec} into a BytesMessage
+     * and sends it to the notificationTopic.
      * The notification contains details like the source and target users, event type, and message.
      * 
      * @param event The NotificationEvent to be sent.
@@ -44,10 +48,13 @@ public class NotificationProducer {
             JMSProducer producer = context.createProducer();
             
           
-            ObjectMessage message = context.createObjectMessage(event); 
+            BytesMessage message = context.createBytesMessage();
+            message.writeBytes(NotificationEventCodec.INSTANCE.encode(event));
+            message.setStringProperty(EventCodec.CODEC_PROPERTY, NotificationEventCodec.INSTANCE.name());
             
          
             producer.send(notificationTopic, message);
+            RequestMetrics.getInstance().recordJmsSent();
             
             System.out.println("Notification sent: " + event.getMessage());
             System.out.printf("Sent message: %s\n", event); 
@@ -56,4 +63,32 @@ public class NotificationProducer {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Sends a batch of NotificationEvents to the JMS Topic with one producer.
+     * 
+     * The messages are sent in the transaction of this call, so the broker receives the batch
+     * with a single commit instead of one per message. Used by the bulk accept/reject end points.
+     * 
+     * @param events The NotificationEvents to be sent.
+     */
+    public void sendNotifications(List<NotificationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            JMSProducer producer = context.createProducer();
+            for (NotificationEvent event : events) {
+                BytesMessage message = context.createBytesMessage();
+                message.writeBytes(NotificationEventCodec.INSTANCE.encode(event));
+                message.setStringProperty(EventCodec.CODEC_PROPERTY, NotificationEventCodec.INSTANCE.name());
+                producer.send(notificationTopic, message);
+                RequestMetrics.getInstance().recordJmsSent();
+            }
+            System.out.println("Notifications sent: " + events.size());
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -3,6 +3,7 @@ package messaging;
 import javax.ejb.ActivationConfigProperty;
 import javax.ejb.MessageDriven;
 import javax.inject.Inject;
+import javax.jms.BytesMessage;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 import javax.jms.ObjectMessage;
@@ -13,7 +14,7 @@ import service.NotificationService;
  * NotificationTopicListener – Listens for incoming notification messages from a JMS Topic.
  * 
  * This class is a Message-Driven Bean (MDB) that listens for messages sent to the "NotificationTopic" JMS topic.
- * It processes incoming `NotificationEvent` messages and delegates them to the `NotificationService` to create notifications.
+ * It decodes incoming `NotificationEvent` messages and delegates them to the `NotificationService` to create notifications.
  * 
  * Key Responsibilities:
  *   - Listens for messages on the JMS Topic and processes them.
@@ -35,20 +36,25 @@ public class NotificationTopicListener implements MessageListener {
     /**
      * Processes incoming messages from the JMS topic.
      * 
-     * This method is triggered when a new message arrives on the "NotificationTopic". If the message is an
-     * instance of `ObjectMessage`, it extracts the `NotificationEvent` and passes it to the `NotificationService`
-     * to create a notification.
+     * This method is triggered when a new message arrives on the "NotificationTopic". A `BytesMessage` is decoded
+     * with the binary `NotificationEventCodec`; a legacy `ObjectMessage` (sent before the codec was introduced)
+     * is still accepted. The resulting `NotificationEvent` is passed to the `NotificationService`.
      * 
      * @param message The JMS message that contains the notification event.
      */
     public void onMessage(Message message) {
         try {
-            // ✅ Check if the message is of type ObjectMessage
-            if (message instanceof ObjectMessage) {
-                // Extract the NotificationEvent from the message
-                NotificationEvent event = (NotificationEvent) ((ObjectMessage) message).getObject();
-                
-                // Pass the event to NotificationService to create the notification
+            NotificationEvent event = null;
+
+            // ✅ Decode the binary payload, or fall back to a legacy ObjectMessage
+            if (message instanceof BytesMessage) {
+                event = NotificationEventCodec.INSTANCE.decode(message.getBody(byte[].class));
+            } else if (message instanceof ObjectMessage) {
+                event = (NotificationEvent) ((ObjectMessage) message).getObject();
+            }
+
+            // Pass the event to NotificationService to create the notification
+            if (event != null) {
                 notificationService.createNotification(event);
             }
         } catch (Exception e) {
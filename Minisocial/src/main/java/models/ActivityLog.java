@@ -2,11 +2,16 @@ package models;
 
 import javax.persistence.*;
 import java.time.Instant;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 @Entity
 public class ActivityLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_log_seq")
+    @GenericGenerator(name = "activity_log_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "activity_log_seq"))
     private Long id;
 
     private Long userId;
@@ -2,6 +2,9 @@ package models;
 
 import javax.persistence.*;
 import java.util.Date;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 /**
  * The Comment class represents a comment on a post, either a UserPost or a GroupPost.
@@ -15,10 +18,12 @@ public class Comment {
 
     /**
      * The unique identifier for the comment.
-     * This field is automatically generated by the database.
+     * This field is assigned from a pooled database sequence.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @GenericGenerator(name = "comment_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "comment_seq"))
     @Column(name = "comment_id")
     private int commentId;
 
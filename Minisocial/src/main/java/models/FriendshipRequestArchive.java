@@ -0,0 +1,89 @@
+package models;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.Date;
+import enums.FriendshipStatus;
+
+/**
+ * Compact history of a friendship request that is no longer pending.
+ *
+ * Rows are moved here from {@link FriendshipRequests} by service.FriendRequestSweeper,
+ * so the live request table only keeps what is pending or recently decided.
+ * The row keeps the original request ID and plain user IDs: there are no foreign keys
+ * and no pending_pair column, so archiving never locks or touches the User rows.
+ */
+@Entity
+@Table(name = "friendship_request_archive",
+       indexes = {
+           @Index(name = "idx_friendship_request_archive_requester", columnList = "requester_id"),
+           @Index(name = "idx_friendship_request_archive_receiver", columnList = "receiver_id")
+       })
+public class FriendshipRequestArchive {
+
+    /** Primary key: the ID the request had in FriendshipRequests. */
+    @Id
+    @Column(name = "request_id")
+    private int requestId;
+
+    /** ID of the user who sent the request. */
+    @Column(name = "requester_id")
+    private Long requesterId;
+
+    /** ID of the user who received the request. */
+    @Column(name = "receiver_id")
+    private Long receiverId;
+
+    /** Final status of the request (ACCEPTED, REJECTED, EXPIRED). */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private FriendshipStatus status;
+
+    /** The date when the request was created. */
+    @Temporal(TemporalType.DATE)
+    @Column(name = "created_on")
+    private Date createdOn;
+
+    /** When the request was moved to the archive. */
+    @Column(name = "archived_at")
+    private Instant archivedAt;
+
+    /** Default constructor. */
+    public FriendshipRequestArchive() {}
+
+    public FriendshipRequestArchive(int requestId, Long requesterId, Long receiverId,
+                                    FriendshipStatus status, Date createdOn, Instant archivedAt) {
+        this.requestId = requestId;
+        this.requesterId = requesterId;
+        this.receiverId = receiverId;
+        this.status = status;
+        this.createdOn = createdOn;
+        this.archivedAt = archivedAt;
+    }
+
+    // === Getters ===
+
+    public int getRequestId() {
+        return requestId;
+    }
+
+    public Long getRequesterId() {
+        return requesterId;
+    }
+
+    public Long getReceiverId() {
+        return receiverId;
+    }
+
+    public FriendshipStatus getStatus() {
+        return status;
+    }
+
+    public Date getCreatedOn() {
+        return createdOn;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -9,15 +9,30 @@ import enums.FriendshipStatus;
  * 
  * This entity maps the relationship of friend requests:
  *  One user (requester) sends requests to others (receiver).
- *  Tracks status (PENDING, ACCEPTED, REJECTED) and timestamp.
+ *  Tracks status (PENDING, ACCEPTED, REJECTED, EXPIRED) and timestamp.
  * 
  * Associations:
  *  Many requests can be sent by one requester.
  *  Many requests can be received by one receiver.
+ * 
+ * While a request is PENDING, pending_pair holds the unordered pair of user IDs
+ * ("lowerId:higherId"); otherwise it is null. Its unique index allows at most one pending
+ * request per pair of users, in either direction.
+ * 
+ * Requests that are no longer pending are moved to {@link FriendshipRequestArchive} by
+ * service.FriendRequestSweeper, which also expires pending requests older than the TTL.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = FriendshipRequests.UK_PENDING_PAIR, columnNames = "pending_pair"),
+       indexes = {
+           @Index(name = "idx_friendship_requests_receiver_status", columnList = "receiver_id, status"),
+           @Index(name = "idx_friendship_requests_status_timestamp", columnList = "status, timestamp")
+       })
 public class FriendshipRequests {
 
+    /** Unique constraint: at most one pending request per pair of users. */
+    public static final String UK_PENDING_PAIR = "uk_friendship_requests_pending_pair";
+
     /** Primary key: Unique ID of the friendship request. */
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,7 +48,7 @@ public class FriendshipRequests {
     @JoinColumn(name = "receiver_id")
     private User receiver;
 
-    /** Current status of the request (PENDING, ACCEPTED, REJECTED). */
+    /** Current status of the request (PENDING, ACCEPTED, REJECTED, EXPIRED). */
     @Enumerated(EnumType.STRING)
     private FriendshipStatus status;
 
@@ -41,6 +56,10 @@ public class FriendshipRequests {
     @Temporal(TemporalType.DATE)
     private Date timestamp;
 
+    /** Unordered user pair while the request is pending, null afterwards (unique). */
+    @Column(name = "pending_pair", length = 41)
+    private String pendingPair;
+
     /** Default constructor. */
     public FriendshipRequests() {}
 
@@ -86,6 +105,29 @@ public class FriendshipRequests {
         this.timestamp = timestamp;
     }
 
+    public String getPendingPair() {
+        return pendingPair;
+    }
+
+    /**
+     * Keeps pending_pair in step with the status, so accepting or rejecting a request
+     * frees the pair for a new request.
+     */
+    @PrePersist
+    @PreUpdate
+    void updatePendingPair() {
+        pendingPair = status == FriendshipStatus.PENDING && requester != null && receiver != null
+                ? pendingPairOf(requester.getUserId(), receiver.getUserId())
+                : null;
+    }
+
+    /**
+     * @return the pending_pair value of two users, the same for both directions.
+     */
+    public static String pendingPairOf(long userId1, long userId2) {
+        return Math.min(userId1, userId2) + ":" + Math.max(userId1, userId2);
+    }
+
     /** Returns a string representation of the friendship request. */
     @Override
     public String toString() {
@@ -2,32 +2,43 @@ package models;
 
 import javax.persistence.*;
 import java.util.Date;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 /**
  * Represents a confirmed friendship between two users.
  * 
- * This entity models a bidirectional friendship relationship:
- *  One user adds another as a friend.
+ * This entity models a bidirectional friendship relationship with a single row per pair:
+ *  The row is stored in canonical order, user = lower user ID, friend = higher user ID.
  *  Tracks the friendship creation date.
  * 
+ * Lookups go through the unique (user_id, friend_id) index for friends with a higher ID
+ * and through the (friend_id, user_id) index for friends with a lower ID.
+ * 
  * Associations:
- *  Many friendships can be initiated by one user.
- *  Many friendships can refer to the same friend.
+ *  Many friendships can refer to the same user on either side.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_friendships_pair", columnNames = { "user_id", "friend_id" }),
+       indexes = @Index(name = "idx_friendships_friend_user", columnList = "friend_id, user_id"))
+@Check(constraints = "user_id < friend_id")
 public class Friendships {
 
     /** Primary key: Unique ID of the friendship record. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friendship_seq")
+    @GenericGenerator(name = "friendship_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "friendship_seq"))
     private int friendship_id;
 
-    /** The user who added the friend. */
+    /** The user with the lower ID. */
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
 
-    /** The friend that was added. */
+    /** The user with the higher ID. */
     @ManyToOne
     @JoinColumn(name = "friend_id")
     private User friend;
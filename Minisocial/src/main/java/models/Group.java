@@ -5,6 +5,9 @@ import dtos.GroupAdmins;
 
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import Utils.CacheRegions;
 
 /**
  *  Represents a social group within the platform.
@@ -19,6 +22,8 @@ import java.util.Set;
  * - Has many {@link GroupAdmins} (administrators)
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.GROUPS)
 @Table(name = "Groups") // ✅ Avoid SQL reserved keyword conflict
 public class Group {
 
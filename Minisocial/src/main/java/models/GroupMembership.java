@@ -3,6 +3,12 @@ package models;
 import javax.persistence.*;
 import java.util.Date;
 import enums.GroupMemberShipStatusEnum;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import Utils.CacheRegions;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 /**
  * GroupMembership – Entity representing the association of a User with a Group.
@@ -11,14 +17,19 @@ import enums.GroupMemberShipStatusEnum;
  * including their role, membership status, and join date.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.GROUP_MEMBERSHIPS)
+@Table(indexes = @Index(name = "idx_membership_user_group", columnList = "user_id, group_id"))
 public class GroupMembership {
 
     /**
      * The unique identifier for the GroupMembership record.
-     * Primary key, auto-generated by the database.
+     * Primary key, assigned from a pooled database sequence.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_membership_seq")
+    @GenericGenerator(name = "group_membership_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "group_membership_seq"))
     private Long id;
 
     /**
@@ -2,18 +2,34 @@ package models;
 
 import javax.persistence.*;
 import java.util.Date;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 /**
  * Represents a 'Like' entity for a post or group post in the system.
  * This class models the user's interaction with posts, either as a UserPost or GroupPost.
  */
 @Entity
-@Table(name = "likes") // Table name set to plural to match naming conventions.
+@Table(name = "likes", // Table name set to plural to match naming conventions.
+       uniqueConstraints = {
+           // A user can like a post only once; the indexes also serve the existence probes.
+           @UniqueConstraint(name = Like.UK_USER_POST, columnNames = {"user_id", "post_id"}),
+           @UniqueConstraint(name = Like.UK_USER_GROUP_POST, columnNames = {"user_id", "group_post_id"})
+       })
 public class Like {
 
+    /** Unique constraint: one like per user and UserPost. */
+    public static final String UK_USER_POST = "uk_likes_user_post";
+
+    /** Unique constraint: one like per user and GroupPost. */
+    public static final String UK_USER_GROUP_POST = "uk_likes_user_group_post";
+
     // Unique identifier for the Like
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "like_seq")
+    @GenericGenerator(name = "like_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "like_seq"))
     @Column(name = "like_id") // Column name set to 'like_id' to follow naming conventions.
     private int likeId;
 
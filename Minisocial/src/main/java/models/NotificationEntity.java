@@ -2,6 +2,9 @@ package models;
 
 import javax.persistence.*;
 import java.time.Instant;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 /**
  *Represents a notification entry in the system.
@@ -13,12 +16,15 @@ import java.time.Instant;
  * - Belongs to {@link User} (recipient of the notification)
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications",
+       indexes = @Index(name = "idx_notifications_target_id", columnList = "targetUserId, notificationId"))
 public class NotificationEntity {
 
     /** Primary key: Unique identifier for the notification. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @GenericGenerator(name = "notification_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "notification_seq"))
     private Long notificationId;
 
     /** ID of the user who receives the notification. */
@@ -40,12 +46,15 @@ public class NotificationEntity {
     /** Reference to a related entity (e.g., postId, commentId, groupId). */
     private Long referenceId;
 
-    /** Time stamp when the notification was created. */
+    /** Time stamp of the latest event of the notification (moves forward when events are coalesced into it). */
     private Instant timestamp;
 
     /** Status indicating whether the notification has been read. */
     private Boolean isRead = false;
 
+    /** Number of events coalesced into this notification (e.g., likes on the same post). */
+    private Integer aggregateCount = 1;
+
     /** The user entity associated with this notification. */
     @ManyToOne
     @JoinColumn(name = "userId")
@@ -147,4 +156,14 @@ public class NotificationEntity {
     public void setIsRead(Boolean isRead) {
         this.isRead = isRead;
     }
+
+    /** Returns the number of events coalesced into this notification. */
+    public Integer getAggregateCount() {
+        return aggregateCount;
+    }
+
+    /** Sets the number of events coalesced into this notification. */
+    public void setAggregateCount(Integer aggregateCount) {
+        this.aggregateCount = aggregateCount;
+    }
 }
@@ -4,6 +4,9 @@ import java.util.Date;
 import java.util.Set;
 
 import javax.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import Utils.PooledSequenceGenerator;
 
 /**
  * Abstract Entity: Post
@@ -26,7 +29,9 @@ public abstract class Post {
 
     /** Primary Key: Unique identifier for each post */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @GenericGenerator(name = "post_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "post_seq"))
     private int postId;
 
     /** Date when the post was published */
@@ -48,10 +53,10 @@ public abstract class Post {
     @OneToMany(mappedBy = "post")
     private Set<Like> likes;
 
-    /** Cached count of likes for performance optimization */
+    /** Legacy cached count of likes; live counts are kept in post_counters (see PostCounter) */
     protected int likesCount;
 
-    /** Cached count of comments for performance optimization */
+    /** Legacy cached count of comments; live counts are kept in post_counters (see PostCounter) */
     protected int commentsCount;
 
     // ====================  Getters & Setters ====================
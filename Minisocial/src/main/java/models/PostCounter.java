@@ -0,0 +1,89 @@
+package models;
+
+import javax.persistence.*;
+
+import enums.CounterType;
+
+/**
+ * PostCounter – Entity holding one shard of an engagement counter of a post.
+ * 
+ * The total number of likes (or comments) of a post is the sum of its shards.
+ * Spreading a counter over several rows lets concurrent flushes increment different
+ * rows with an atomic {@code UPDATE ... SET n = n + :delta} instead of all of them
+ * locking the same row.
+ */
+@Entity
+@Table(name = "post_counters",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"post_id", "counter_type", "shard"}),
+       indexes = @Index(name = "idx_post_counters_post", columnList = "post_id, counter_type"))
+public class PostCounter {
+
+    /** Primary Key: Unique identifier for each counter shard */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID of the counted post (UserPost or GroupPost) */
+    @Column(name = "post_id", nullable = false)
+    private int postId;
+
+    /** What is being counted */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "counter_type", length = 16, nullable = false)
+    private CounterType counterType;
+
+    /** Shard number, from 0 to the number of shards - 1 */
+    @Column(nullable = false)
+    private int shard;
+
+    /** Partial count held by this shard */
+    @Column(nullable = false)
+    private long n;
+
+    public PostCounter() {}
+
+    public PostCounter(int postId, CounterType counterType, int shard, long n) {
+        this.postId = postId;
+        this.counterType = counterType;
+        this.shard = shard;
+        this.n = n;
+    }
+
+    // ====================  Getters & Setters ====================
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public void setPostId(int postId) {
+        this.postId = postId;
+    }
+
+    public CounterType getCounterType() {
+        return counterType;
+    }
+
+    public void setCounterType(CounterType counterType) {
+        this.counterType = counterType;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public void setN(long n) {
+        this.n = n;
+    }
+}
@@ -6,6 +6,9 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 import enums.RoleEnum;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import Utils.CacheRegions;
 
 /**
  * 🧑‍💼 User Entity – Relationships Summary 🍙
@@ -26,6 +29,8 @@ import enums.RoleEnum;
  */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
 public class User {
 
     // 🔑 Primary Key
@@ -116,7 +121,7 @@ public class User {
     @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private Set<UserPost> userPosts;
 
-    // 👫 7️⃣ User ↔ Friendships (Confirmed friends)
+    // 👫 7️⃣ User ↔ Friendships (Confirmed friends with a higher user ID; see FriendshipUtils.getAllFriendsOfUser)
     @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private Set<Friendships> friendships;
 
@@ -1,6 +1,7 @@
 package recources;
 
 import models.ActivityLog;
+import service.ActivityLogBatchWriter;
 import service.ActivityLogService;
 
 import javax.inject.Inject;
@@ -15,6 +16,9 @@ public class ActivityLogResource {
     @Inject
     private ActivityLogService activityLogService;
 
+    @Inject
+    private ActivityLogBatchWriter batchWriter;
+
     /**
      * GET /activity-log/user/{userId}
      * Fetches recent activity logs for the given user.
@@ -35,11 +39,21 @@ public class ActivityLogResource {
 
     /**
      * GET /activity-log
-     * Fetches all recent activity logs (useful for admin monitoring).
+     * Streams all activity logs, newest first (useful for admin monitoring and exports).
      */
     @GET
     public Response getAllLogs() {
-        List<ActivityLog> logs = activityLogService.getAllLogs();
-        return Response.ok(logs).build();
+        StreamingOutput body = out -> activityLogService.writeAllLogs(out);
+        return Response.ok(body, MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * GET /activity-log/metrics
+     * Returns throughput and backpressure counters of the batched activity log writer.
+     */
+    @GET
+    @Path("/metrics")
+    public Response getWriterMetrics() {
+        return Response.ok(batchWriter.getMetrics()).build();
     }
 }
@@ -0,0 +1,47 @@
+package recources;
+
+import service.CacheMetricsService;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.*;
+
+@Path("/cache")
+@Produces(MediaType.APPLICATION_JSON)
+public class CacheResource {
+
+    @Inject
+    private CacheMetricsService cacheMetricsService;
+
+    /**
+     * GET /cache/metrics
+     * Returns hit/miss statistics per second-level cache region.
+     */
+    @GET
+    @Path("/metrics")
+    public Response getMetrics() {
+        return Response.ok(cacheMetricsService.getMetrics()).build();
+    }
+
+    /**
+     * POST /cache/metrics/reset
+     * Resets the cache statistics.
+     */
+    @POST
+    @Path("/metrics/reset")
+    public Response resetMetrics() {
+        cacheMetricsService.resetMetrics();
+        return Response.ok("Cache statistics reset.").build();
+    }
+
+    /**
+     * POST /cache/evict
+     * Evicts every entry from the second-level cache.
+     */
+    @POST
+    @Path("/evict")
+    public Response evictAll() {
+        cacheMetricsService.evictAll();
+        return Response.ok("Second-level cache cleared.").build();
+    }
+}
@@ -10,7 +10,9 @@ import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 
+import Utils.PageCursor;
 import dtos.CommentDTO;
+import dtos.PageDTO;
 import messaging.NotificationEvent;
 import messaging.NotificationProducer;
 
@@ -61,7 +63,9 @@ public class CommentResource {
                 commenter.getUserId(),
                 author.getUserId(),
                 "COMMENT_ADDED",
-                message
+                message,
+                (long) postId,
+                commenter.getFirstName()
             );
             notificationProducer.sendNotification(event);
         }
@@ -100,7 +104,9 @@ public class CommentResource {
                 commenter.getUserId(),
                 author.getUserId(),
                 "COMMENT_ADDED",
-                message
+                message,
+                (long) postId,
+                commenter.getFirstName()
             );
             notificationProducer.sendNotification(event);
         }
@@ -160,59 +166,74 @@ public class CommentResource {
     }
 
     /**
-     * Retrieves the list of comments for a UserPost.
+     * Retrieves one page of comments for a UserPost, newest first.
      * @param postId the ID of the UserPost.
-     * @return a Response containing the list of comments or a message if no comments exist.
+     * @param cursor the opaque cursor returned as "next" by the previous page (omit for the first page).
+     * @param limit the maximum number of comments in the page.
+     * @return a Response containing the page of comments or a message if no comments exist.
      */
     @GET
     @Path("/userpost/{postId}")
-    public Response getCommentsForUserPost(@PathParam("postId") int postId) {
+    public Response getCommentsForUserPost(@PathParam("postId") int postId,
+                                           @QueryParam("cursor") String cursor,
+                                           @QueryParam("limit") Integer limit) {
         // Delegating the logic to the common handler method for retrieving comments
-        return handleGetComments(postId, null, "userpost");
+        return handleGetComments(postId, null, "userpost", cursor, limit);
     }
 
     /**
-     * Retrieves the list of comments for a GroupPost.
+     * Retrieves one page of comments for a GroupPost, newest first.
      * @param postId the ID of the GroupPost.
      * @param groupId the ID of the group associated with the post.
-     * @return a Response containing the list of comments or a message if no comments exist.
+     * @param cursor the opaque cursor returned as "next" by the previous page (omit for the first page).
+     * @param limit the maximum number of comments in the page.
+     * @return a Response containing the page of comments or a message if no comments exist.
      */
     @GET
     @Path("/grouppost/{postId}/{groupId}")
     public Response getCommentsForGroupPost(@PathParam("postId") int postId,
-                                            @PathParam("groupId") Long groupId) {
+                                            @PathParam("groupId") Long groupId,
+                                            @QueryParam("cursor") String cursor,
+                                            @QueryParam("limit") Integer limit) {
    
-        return handleGetComments(postId, groupId, "grouppost");
+        return handleGetComments(postId, groupId, "grouppost", cursor, limit);
     }
 
     /**
      * Common handler method for getting comments for either UserPost or GroupPost.
-     * This method fetches the list of comments, converts them to DTOs, and returns them.
+     * This method fetches one page of comments as DTOs and returns it.
      * @param postId the ID of the post.
      * @param groupId the ID of the group (nullable for UserPost).
      * @param type the type of post (either "userpost" or "grouppost").
-     * @return a Response containing the list of CommentDTO objects or a message if no comments exist.
+     * @param cursor the opaque cursor of the page (nullable for the first page).
+     * @param limit the requested page size (nullable for the default).
+     * @return a Response containing the page of CommentDTO objects or a message if no comments exist.
      */
-    private Response handleGetComments(int postId, Long groupId, String type) {
+    private Response handleGetComments(int postId, Long groupId, String type, String cursor, Integer limit) {
         try {
-            // Fetching the list of comments from the service layer
-            List<Comment> comments;
+            PageCursor pageCursor = PageCursor.decode(cursor);
+
+            // Fetching the page of comments from the service layer
+            PageDTO<CommentDTO> comments;
             if ("userpost".equals(type)) {
-                comments = commentService.getCommentsForUserPost(postId);
+                comments = commentService.getCommentsForUserPost(postId, pageCursor, PageCursor.limit(limit));
             } else {
-                comments = commentService.getCommentsForGroupPost(postId, groupId);
+                comments = commentService.getCommentsForGroupPost(postId, groupId, pageCursor, PageCursor.limit(limit));
             }
 
          
-            if (comments.isEmpty()) {
+            if (comments.getItems().isEmpty() && pageCursor.isFirst()) {
                 return Response.status(Response.Status.OK)
                                .entity("No comments for this post.")
                                .build();
             }
 
       
-            List<CommentDTO> dtos = CommentDTO.fromCommentList(comments);
-            return Response.ok(dtos).build();
+            return Response.ok(comments).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity(e.getMessage())
+                           .build();
         } catch (Exception e) {
             e.printStackTrace();
    
@@ -1,5 +1,9 @@
 package recources;
 
+import Utils.FriendSuggestionEngine;
+import dtos.BulkOutcomeDTO;
+import dtos.BulkRespondDTO;
+import enums.FriendRequestOutcome;
 import enums.FriendshipStatus;
 import messaging.ActivityLogEvent;
 import messaging.ActivityLogProducer;
@@ -7,12 +11,14 @@ import messaging.NotificationEvent;
 import messaging.NotificationProducer;
 import models.FriendshipRequests;
 import models.User;
+import service.FriendRequestSweeper;
 import service.FriendshipService;
 import service.UserService;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -45,36 +51,59 @@ public class FriendshipResource {
     /** Producer for sending notification events */
     @Inject
     private NotificationProducer notificationProducer;
+
+    /** Background job expiring stale requests and archiving closed ones */
+    @Inject
+    private FriendRequestSweeper requestSweeper;
+    
+    /** Producer for sending activity log events */
+    @Inject
+    private ActivityLogProducer activityLogProducer;
     
     /**
      * Get suggested friends for a user.
      * 
-     * This method returns a list of users who are recommended as potential friends for the given user.
+     * This method returns the users who are recommended as potential friends for the given user,
+     * ranked by the number of mutual friends (best first).
      * 
      * @param userId The ID of the user requesting friend suggestions.
+     * @param limit The maximum number of suggestions (optional).
      * @return Response containing the list of suggested friends or a message if no suggestions exist.
      */
-    @Inject
-    private ActivityLogProducer activityLogProducer;
-    
-    
     @GET
     @Path("/{userId}/suggestions")
-    public Response getSuggestedFriends(@PathParam("userId") Long userId) {
+    public Response getSuggestedFriends(@PathParam("userId") Long userId, @QueryParam("limit") Integer limit) {
         User user = userService.getUserById(userId);
         if (user == null) {
             return Response.status(Response.Status.NOT_FOUND).entity("User not found.").build();
         }
 
-        List<User> suggestedUsers = friendshipService.suggestFriends(userId);
-        if (suggestedUsers.isEmpty()) {
+        int max = FriendSuggestionEngine.MAX_SUGGESTIONS;
+        int effectiveLimit = (limit == null || limit <= 0) ? max : Math.min(limit, max);
+
+        List<Map<String, Object>> suggestedInfos = friendshipService.suggestFriends(userId, effectiveLimit);
+        if (suggestedInfos.isEmpty()) {
             return Response.ok("No friend suggestions found.").build();
         }
 
-        List<Map<String, Object>> suggestedInfos = friendshipService.mapFriendInfos(suggestedUsers);
         return Response.ok(suggestedInfos).build();
     }
 
+    /**
+     * Precompute friend suggestions for all users.
+     * 
+     * Ranks friends-of-friends for every user in parallel and caches the results,
+     * e.g. after a restart or a bulk import.
+     * 
+     * @return Response containing the number of users processed.
+     */
+    @POST
+    @Path("/suggestions/precompute")
+    public Response precomputeSuggestions() {
+        int processed = friendshipService.precomputeSuggestions();
+        return Response.ok("Friend suggestions precomputed for " + processed + " users.").build();
+    }
+
     /**
      * Send a friend request from one user to another.
      * 
@@ -101,13 +130,28 @@ public class FriendshipResource {
                            .entity("🚫 You can't send a friend request to yourself.").build();
         }
 
-        boolean success = friendshipService.sendFriendRequest(requester, receiver);
-        if (!success) {
+        FriendRequestOutcome outcome = friendshipService.sendFriendRequest(requester, receiver);
+        if (outcome == FriendRequestOutcome.DUPLICATE) {
             return Response.status(Response.Status.BAD_REQUEST)
                            .entity("Friend request already exists or users are already friends.")
                            .build();
         }
 
+        if (outcome == FriendRequestOutcome.ACCEPTED) {
+            // The receiver had already sent a request: accepted in the same transaction
+            String message = requester.getFirstName() + " " + requester.getLastName() + " accepted your friend request.";
+            notificationProducer.sendNotification(new NotificationEvent(
+                requester.getUserId(),
+                receiver.getUserId(),
+                "FRIEND_REQUEST_ACCEPTED",
+                message
+            ));
+            activityLogProducer.sendActivityLog(
+                new ActivityLogEvent(requester.getUserId(), "friend added", "")
+            );
+            return Response.ok("Friend request accepted: " + receiver.getUserName() + " had already sent you one.").build();
+        }
+
         // Send a notification to the receiver about the new friend request
         String message = requester.getFirstName() + " " + requester.getLastName() + " sent you a friend request.";
         NotificationEvent event = new NotificationEvent(
@@ -155,6 +199,78 @@ public class FriendshipResource {
                                  .build();
     }
 
+    /**
+     * Accept or reject many pending friend requests at once.
+     * 
+     * The body lists the request IDs and the action ("accept" or "reject"). All requests are
+     * answered in one transaction, and the requesters of accepted requests are notified with
+     * one batched publish.
+     * 
+     * @param body The action and the IDs of the friend requests.
+     * @return Response containing one outcome per request ID.
+     */
+    @POST
+    @Path("/requests/bulk")
+    public Response respondToRequestsInBulk(BulkRespondDTO body) {
+        List<String> errors = body == null ? List.of("Request body is required.") : body.validate();
+        if (!errors.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(errors).build();
+        }
+
+        List<BulkOutcomeDTO> outcomes = friendshipService.respondToRequests(body.getIds(), body.isApprove());
+
+        if (body.isApprove()) {
+            List<NotificationEvent> events = new ArrayList<>();
+            for (BulkOutcomeDTO outcome : outcomes) {
+                if (outcome.isApplied()) {
+                    NotificationEvent event = new NotificationEvent(
+                        outcome.getReceiverId(),
+                        outcome.getUserId(),
+                        "FRIEND_REQUEST_ACCEPTED",
+                        outcome.getReceiverName() + " accepted your friend request."
+                    );
+                    event.setSourceName(outcome.getReceiverName());
+                    events.add(event);
+                }
+            }
+            notificationProducer.sendNotifications(events);
+        }
+
+        return Response.ok(outcomes).build();
+    }
+
+    /**
+     * Start a sweep of the friend requests.
+     * 
+     * Expires pending requests older than the TTL and moves accepted, rejected and expired
+     * requests to the archive, in chunks and in the background (it also runs every night).
+     * 
+     * @return Response containing the report of the started (or already running) sweep.
+     */
+    @POST
+    @Path("/requests/sweep")
+    public Response sweepRequests() {
+        FriendRequestSweeper.Report report = requestSweeper.start();
+        return Response.status(Response.Status.ACCEPTED).entity(report).build();
+    }
+
+    /**
+     * Get the report of the running or last sweep of the friend requests.
+     * 
+     * @return Response containing the rows expired and archived, the chunks and the duration.
+     */
+    @GET
+    @Path("/requests/sweep")
+    public Response getSweepReport() {
+        FriendRequestSweeper.Report report = requestSweeper.getLastSweep();
+        if (report == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                           .entity("No friend request sweep has run since the server started.")
+                           .build();
+        }
+        return Response.ok(report).build();
+    }
+
     /**
      * Reject a pending friend request.
      * 
@@ -9,10 +9,13 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import dtos.BulkOutcomeDTO;
+import dtos.BulkRespondDTO;
 import messaging.NotificationEvent;
 import messaging.NotificationProducer;
 import models.User;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -113,6 +116,41 @@ public class GroupMembershipResource {
         return Response.ok(result).build();
     }
 
+    /**
+     * End point to approve or reject many pending join requests of a group at once.
+     * 
+     * @param groupId ID of the group where the requests were made.
+     * @param body The action ("approve" or "reject") and the IDs of the requesting users.
+     * @return Response containing one outcome per user ID, or an error message.
+     */
+    @POST
+    @Path("/{groupId}/respond/bulk")
+    public Response respondToRequestsInBulk(@PathParam("groupId") Long groupId, BulkRespondDTO body) {
+        List<String> errors = body == null ? List.of("Request body is required.") : body.validate();
+        if (!errors.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(errors).build();
+        }
+
+        Object result = service.respondToRequests(groupId, body.getIds(), body.isApprove());
+        if (result instanceof List && !((List<?>) result).isEmpty() && ((List<?>) result).get(0) instanceof String) {
+            return Response.status(Response.Status.NOT_FOUND).entity(result).build();
+        }
+
+        // One batched publish for every user whose request was answered
+        String msg = body.isApprove() ? "Your request to join the group has been approved." :
+                                        "Your request to join the group was rejected.";
+        List<NotificationEvent> events = new ArrayList<>();
+        for (Object item : (List<?>) result) {
+            BulkOutcomeDTO outcome = (BulkOutcomeDTO) item;
+            if (outcome.isApplied()) {
+                events.add(new NotificationEvent(null, outcome.getUserId(), "GROUP_JOIN_RESPONSE", msg));
+            }
+        }
+        notificationProducer.sendNotifications(events);
+
+        return Response.ok(result).build();
+    }
+
     /**
      * Endpoint to leave a group.
      * 
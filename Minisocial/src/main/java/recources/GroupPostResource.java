@@ -1,12 +1,13 @@
 package recources;
 
-import java.util.List;
 import javax.inject.Inject;
 import javax.persistence.PersistenceException;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 
+import Utils.PageCursor;
 import dtos.GroupPostDTO;
+import dtos.PageDTO;
 import models.Group;
 import models.GroupPost;
 import service.GroupPostService;
@@ -94,17 +95,24 @@ public class GroupPostResource {
     }
 
     /**
-     * Retrieves all group posts for a specific group.
+     * Retrieves one page of group posts for a specific group, newest first.
      * 
      * @param userid The ID of the User which will view the group time line and should be a member 
      * @param groupId The ID of the group whose posts are being retrieved
-     * @return A response containing a list of group posts or an error message
+     * @param cursor The opaque cursor returned as "next" by the previous page (omit for the first page)
+     * @param limit The maximum number of posts in the page
+     * @return A response containing a page of group posts or an error message
      */
     @GET
     @Path("/grouptimeline/{userId}/{groupId}")
     public Response getAllGroupPostsByGroup(@PathParam("userId") Long userId, 
-                                             @PathParam("groupId") Long groupId) {
+                                             @PathParam("groupId") Long groupId,
+                                             @QueryParam("cursor") String cursor,
+                                             @QueryParam("limit") Integer limit) {
         try {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+
+
             // Check if Group Exists
             Group group = groupPostService.findGroupById(groupId);
             if (group == null) {
@@ -123,9 +131,9 @@ public class GroupPostResource {
             }
 
             // Retrieve the posts
-            List<GroupPostDTO> groupPosts = groupPostService.getAllGroupPosts(groupId);
+            PageDTO<GroupPostDTO> groupPosts = groupPostService.getAllGroupPosts(groupId, pageCursor, PageCursor.limit(limit));
 
-            if (groupPosts == null || groupPosts.isEmpty()) {
+            if (groupPosts == null || (groupPosts.getItems().isEmpty() && pageCursor.isFirst())) {
                 return Response.status(Response.Status.NOT_FOUND)
                                .entity("No posts found for group with ID: " + groupId)
                                .build();
@@ -136,6 +144,10 @@ public class GroupPostResource {
                            .entity(groupPosts)
                            .build();
 
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity(e.getMessage())
+                           .build();
         } catch (Exception e) {
             e.printStackTrace();
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
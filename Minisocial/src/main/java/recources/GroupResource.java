@@ -1,6 +1,7 @@
 package recources;
 
 import models.GroupMembership;
+import service.GroupDeletionPipeline;
 import service.GroupService;
 import service.GroupService.GroupCreationResult;
 
@@ -111,7 +112,20 @@ public class GroupResource {
         if (response.containsKey("errors")) {
             return Response.status(Response.Status.BAD_REQUEST).entity(response).build();
         }
-        return Response.ok(response).build();
+        // Deletion runs in the background; progress is polled at /groups/{groupId}/deletion
+        return Response.status(Response.Status.ACCEPTED).entity(response).build();
+    }
+
+    @GET
+    @Path("/{groupId}/deletion")
+    public Response getDeletionProgress(@PathParam("groupId") Long groupId) {
+        GroupDeletionPipeline.Progress progress = groupService.getDeletionProgress(groupId);
+        if (progress == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                           .entity("No deletion was started for group " + groupId + ".")
+                           .build();
+        }
+        return Response.ok(progress).build();
     }
 
     @DELETE
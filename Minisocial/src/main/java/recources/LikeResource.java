@@ -10,7 +10,9 @@ import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 
+import Utils.PageCursor;
 import dtos.LikeDTO;
+import dtos.PageDTO;
 import messaging.ActivityLogEvent;
 import messaging.ActivityLogProducer;
 import messaging.NotificationEvent;
@@ -81,7 +83,9 @@ public class LikeResource {
                     liker.getUserId(),
                     author.getUserId(),
                     "POST_LIKED",
-                    message
+                    message,
+                    (long) postId,
+                    liker.getFirstName()
                 );
                 notificationProducer.sendNotification(event);
             }
@@ -154,19 +158,24 @@ public class LikeResource {
 
     // Get Likes for a UserPost (with DTO Mapping)
     /**
-     * Retrieves all likes for a specific UserPost.
+     * Retrieves one page of likes for a specific UserPost, newest first.
      *
      * @param postId the ID of the UserPost to fetch likes for
-     * @return a Response containing the list of likes or an error message
+     * @param cursor the opaque cursor returned as "next" by the previous page (omit for the first page)
+     * @param limit the maximum number of likes in the page
+     * @return a Response containing the page of likes or an error message
      */
     @GET
     @Path("/userpost/{postId}")
-    public Response getLikesForUserPost(@PathParam("postId") int postId) {
+    public Response getLikesForUserPost(@PathParam("postId") int postId,
+                                        @QueryParam("cursor") String cursor,
+                                        @QueryParam("limit") Integer limit) {
         try {
+            PageCursor pageCursor = PageCursor.decode(cursor);
           
-            List<Like> likes = likeService.getLikesForUserPost(postId);
+            PageDTO<LikeDTO> likes = likeService.getLikesForUserPost(postId, pageCursor, PageCursor.limit(limit));
 
-            if (likes.isEmpty()) {
+            if (likes.getItems().isEmpty() && pageCursor.isFirst()) {
                 // Return message if no likes exist for the post
                 return Response.status(Response.Status.OK)
                                .entity("No likes for this user post.")
@@ -174,11 +183,12 @@ public class LikeResource {
             }
 
            
-            List<LikeDTO> likeDTOs = LikeDTO.fromLikeList(likes);
-
-           
-            return Response.ok(likeDTOs).build();
+            return Response.ok(likes).build();
 
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity(e.getMessage())
+                           .build();
         } catch (Exception e) {
             // Log and return failure response in case of error
             e.printStackTrace();
@@ -190,32 +200,38 @@ public class LikeResource {
 
     // Get Likes for a GroupPost (with DTO Mapping)
     /**
-     * Retrieves all likes for a specific GroupPost within a group.
+     * Retrieves one page of likes for a specific GroupPost within a group, newest first.
      *
      * @param groupId the ID of the group containing the post
      * @param postId  the ID of the GroupPost to fetch likes for
-     * @return a Response containing the list of likes or an error message
+     * @param cursor  the opaque cursor returned as "next" by the previous page (omit for the first page)
+     * @param limit   the maximum number of likes in the page
+     * @return a Response containing the page of likes or an error message
      */
     @GET
     @Path("/group/{groupId}/{postId}")
-    public Response getLikesForGroupPost(@PathParam("groupId") Long groupId, @PathParam("postId") int postId) {
+    public Response getLikesForGroupPost(@PathParam("groupId") Long groupId, @PathParam("postId") int postId,
+                                         @QueryParam("cursor") String cursor,
+                                         @QueryParam("limit") Integer limit) {
         try {
+            PageCursor pageCursor = PageCursor.decode(cursor);
         
-            List<Like> likes = likeService.getLikesForGroupPost(postId, groupId);
+            PageDTO<LikeDTO> likes = likeService.getLikesForGroupPost(postId, groupId, pageCursor, PageCursor.limit(limit));
 
-            if (likes.isEmpty()) {
+            if (likes.getItems().isEmpty() && pageCursor.isFirst()) {
              
                 return Response.status(Response.Status.OK)
                                .entity("No likes for this group post.")
                                .build();
             }
 
-          
-            List<LikeDTO> likeDTOs = LikeDTO.fromLikeList(likes);
-
          
-            return Response.ok(likeDTOs).build();
+            return Response.ok(likes).build();
 
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity(e.getMessage())
+                           .build();
         } catch (Exception e) {
           
             e.printStackTrace();
@@ -0,0 +1,37 @@
+package recources;
+
+import Utils.RequestMetrics;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.*;
+
+/**
+ * MetricsResource – Exposes the per-endpoint request metrics for Prometheus to scrape.
+ * 
+ * Key Responsibilities:
+ *   - Renders the latency histograms and the SQL statement, loaded entity and JMS message counts
+ *     collected by RequestMetricsFilter (see Utils.RequestMetrics), per endpoint.
+ *   - Reports the work done outside REST calls (MDBs, timers, asynchronous jobs) as background totals.
+ * 
+ * The queries of streamed exports run while the response body is written; they are counted for
+ * their endpoint, not as background work.
+ */
+@Path("/metrics")
+public class MetricsResource {
+
+    /** Content type of the Prometheus text exposition format. */
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * GET /metrics
+     * Returns the per-endpoint latency histograms and SQL statement, loaded entity and
+     * JMS message counts in the Prometheus text format.
+     */
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public Response getMetrics() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        RequestMetrics.getInstance().writePrometheus(out);
+        return Response.ok(out.toString()).build();
+    }
+}
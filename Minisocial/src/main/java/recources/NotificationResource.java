@@ -1,11 +1,15 @@
 package recources;
 
+import Utils.PageCursor;
+import dtos.PageDTO;
 import models.NotificationEntity;
+import service.NotificationInbox;
 import service.NotificationService;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,13 +28,17 @@ public class NotificationResource {
     private NotificationService notificationService;
 
     /**
-     * End point to retrieve notifications for a specific user.
+     * End point to retrieve one page of notifications for a specific user, newest first.
      * 
      * @param userId the ID of the user whose notifications are to be fetched.
-     * @return a list of notifications for the user, or an error response if no notifications exist.
+     * @param cursor the opaque cursor returned as "next" by the previous page (omit for the first page).
+     * @param limit the maximum number of notifications in the page.
+     * @return a page of notifications for the user, or an error response if no notifications exist.
      */
     @GET
-    public Response getUserNotifications(@QueryParam("userId") Long userId) {
+    public Response getUserNotifications(@QueryParam("userId") Long userId,
+                                         @QueryParam("cursor") String cursor,
+                                         @QueryParam("limit") Integer limit) {
         // Check if userId is provided
         if (userId == null) {
             return Response.status(Response.Status.BAD_REQUEST)
@@ -38,11 +46,22 @@ public class NotificationResource {
                            .build();
         }
 
+        // Decode the page position
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity(e.getMessage())
+                           .build();
+        }
+
         // Retrieve notifications for the user
-        List<NotificationEntity> notifications = notificationService.getNotificationsForUser(userId);
+        PageDTO<NotificationEntity> notifications =
+                notificationService.getNotificationsForUser(userId, pageCursor, PageCursor.limit(limit));
 
         // Return appropriate response based on whether notifications were found
-        if (notifications.isEmpty()) {
+        if (notifications.getItems().isEmpty() && pageCursor.isFirst()) {
             return Response.status(Response.Status.NO_CONTENT).build();
         }
 
@@ -62,4 +81,61 @@ public class NotificationResource {
         notificationService.markAsRead(id);
         return Response.ok("Notification marked as read.").build();
     }
+
+    /**
+     * End point to mark all notifications of a user as read (single bulk update).
+     * 
+     * @param userId the ID of the user.
+     * @return the number of notifications marked as read.
+     */
+    @POST
+    @Path("/{userId}/read-all")
+    public Response markAllAsRead(@PathParam("userId") Long userId) {
+        int updated = notificationService.markAllAsRead(userId);
+        return Response.ok(Collections.singletonMap("updated", updated)).build();
+    }
+
+    /**
+     * End point to mark the notifications of a user up to a given notification ID as read (single bulk update).
+     * 
+     * @param userId the ID of the user.
+     * @param notificationId the highest notification ID to mark as read.
+     * @return the number of notifications marked as read.
+     */
+    @POST
+    @Path("/{userId}/read-up-to/{notificationId}")
+    public Response markAsReadUpTo(@PathParam("userId") Long userId,
+                                   @PathParam("notificationId") Long notificationId) {
+        int updated = notificationService.markAsReadUpTo(userId, notificationId);
+        return Response.ok(Collections.singletonMap("updated", updated)).build();
+    }
+
+    /**
+     * End point to retrieve the unread notification count (badge) of a user.
+     * 
+     * @param userId the ID of the user.
+     * @return the unread count.
+     */
+    @GET
+    @Path("/{userId}/unread-count")
+    public Response getUnreadCount(@PathParam("userId") Long userId) {
+        long unread = notificationService.getUnreadCount(userId);
+        return Response.ok(Collections.singletonMap("unread", unread)).build();
+    }
+
+    /**
+     * End point to retrieve the most recent notifications of a user.
+     * 
+     * @param userId the ID of the user.
+     * @param limit the maximum number of notifications (at most the inbox size).
+     * @return the recent notifications, newest first.
+     */
+    @GET
+    @Path("/{userId}/recent")
+    public Response getRecentNotifications(@PathParam("userId") Long userId,
+                                           @QueryParam("limit") Integer limit) {
+        int size = limit != null ? limit : NotificationInbox.RECENT_SIZE;
+        List<NotificationEntity> recent = notificationService.getRecentNotifications(userId, size);
+        return Response.ok(recent).build();
+    }
 }
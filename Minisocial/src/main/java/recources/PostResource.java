@@ -1,28 +1,37 @@
 package recources;
 
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 
+import Utils.PageCursor;
+import dtos.PageDTO;
 import dtos.UserPostDTO;
+import enums.CounterType;
 import messaging.ActivityLogEvent;
 import messaging.ActivityLogProducer;
 import models.UserPost;
+import service.EngagementCounterService;
 import service.PostService;
 
 /**
- * PostResource  RESTful API for handling user posts
+ * PostResource – RESTful API for handling user posts
  * 
  * This resource provides end points for creating, editing, deleting, and retrieving user posts
  * as well as retrieving a user's time line. It interacts with the PostService for business logic.
  * 
  * End points:
- *   - GET /posts/time line/{userId}  Get the user's time line of posts
- *   - GET /posts/{userId}  Get all posts made by a specific user
- *   - POST /posts/createPost/{userId}  Create a new post for a user
- *   - PUT /posts/edit/{userId}/{postId}  Edit an existing post
- *   - DELETE /posts/delete/{userId}/{postId}  Delete a specific post
+ *   - GET /posts/time line/{userId}?cursor=&limit= – Get a page of the user's time line of posts
+ *   - POST /posts/timeline/rebuild – Rebuild all precomputed time lines
+ *   - POST /posts/timeline/rebuild/{userId} – Rebuild one user's precomputed time line
+ *   - GET /posts/counts/{postId} – Get the like and comment counts of a post
+ *   - POST /posts/counts/reconcile – Recompute all like and comment counts
+ *   - GET /posts/{userId}?cursor=&limit= – Get a page of the posts made by a specific user
+ *   - POST /posts/createPost/{userId} – Create a new post for a user
+ *   - PUT /posts/edit/{userId}/{postId} – Edit an existing post
+ *   - DELETE /posts/delete/{userId}/{postId} – Delete a specific post
  */
 
 @Path("/posts")
@@ -35,26 +44,34 @@ public class PostResource {
     PostService postService;
 
     /**
-     * GET /posts/time line/{userId} - Retrieves the time line of posts for a specific user.
+     * GET /posts/time line/{userId}?cursor=&limit= - Retrieves one page of the time line of posts for a specific user.
      * 
      * @param userId The ID of the user whose time line is being fetched.
-     * @return A Response containing the list of user posts or an error message.
+     * @param cursor The opaque cursor returned as "next" by the previous page (omit for the first page).
+     * @param limit The maximum number of posts in the page.
+     * @return A Response containing a page of user posts or an error message.
      */
 
     
     @Inject
     private ActivityLogProducer activityLogProducer;
+
+    @Inject
+    private EngagementCounterService counterService;
     
 
     @GET
     @Path("/timeline/{userId}")
-    public Response getUserTimeline(@PathParam("userId") Long userId) {
+    public Response getUserTimeline(@PathParam("userId") Long userId,
+                                    @QueryParam("cursor") String cursor,
+                                    @QueryParam("limit") Integer limit) {
         try {
+            PageCursor pageCursor = PageCursor.decode(cursor);
             
-            List<UserPostDTO> userPosts = postService.getUserTimeline(userId);
+            PageDTO<UserPostDTO> userPosts = postService.getUserTimeline(userId, pageCursor, PageCursor.limit(limit));
 
             
-            if (userPosts == null || userPosts.isEmpty()) {
+            if (userPosts == null || (userPosts.getItems().isEmpty() && pageCursor.isFirst())) {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity("No posts found for the user with ID: " + userId)
                         .build();
@@ -64,6 +81,10 @@ public class PostResource {
             return Response.status(Response.Status.OK)
                     .entity(userPosts)
                     .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .build();
         } catch (Exception e) {
             e.printStackTrace();
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -73,20 +94,115 @@ public class PostResource {
     }
 
     /**
-     * GET /posts/{userId} - Retrieves all posts made by a specific user.
+     * POST /posts/timeline/rebuild - Rebuilds the precomputed time lines of all users from the database.
+     * 
+     * @return A Response containing the number of rebuilt time lines or an error message.
+     */
+    @POST
+    @Path("/timeline/rebuild")
+    public Response rebuildAllTimelines() {
+        try {
+            int rebuilt = postService.rebuildAllTimelines();
+            return Response.status(Response.Status.OK)
+                    .entity("Rebuilt " + rebuilt + " timelines.")
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("An error occurred while rebuilding the timelines.")
+                    .build();
+        }
+    }
+
+    /**
+     * POST /posts/timeline/rebuild/{userId} - Rebuilds the precomputed time line of a specific user.
+     * 
+     * @param userId The ID of the user whose time line is rebuilt.
+     * @return A Response containing a success or error message.
+     */
+    @POST
+    @Path("/timeline/rebuild/{userId}")
+    public Response rebuildTimeline(@PathParam("userId") Long userId) {
+        try {
+            long[] postIds = postService.rebuildTimeline(userId);
+            return Response.status(Response.Status.OK)
+                    .entity("Rebuilt timeline for user " + userId + " with " + postIds.length + " posts.")
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("An error occurred while rebuilding the timeline.")
+                    .build();
+        }
+    }
+
+    /**
+     * GET /posts/counts/{postId} - Retrieves the like and comment counts of a post (user or group post).
+     * 
+     * @param postId The ID of the post.
+     * @return A Response containing the counts or an error message.
+     */
+    @GET
+    @Path("/counts/{postId}")
+    public Response getPostCounts(@PathParam("postId") int postId) {
+        try {
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("postId", postId);
+            counts.put("likes", counterService.getCount(postId, CounterType.LIKES));
+            counts.put("comments", counterService.getCount(postId, CounterType.COMMENTS));
+
+            return Response.status(Response.Status.OK)
+                    .entity(counts)
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("An error occurred while fetching the post counts.")
+                    .build();
+        }
+    }
+
+    /**
+     * POST /posts/counts/reconcile - Recomputes all like and comment counts from the likes and comments tables.
+     * 
+     * @return A Response containing a success or error message.
+     */
+    @POST
+    @Path("/counts/reconcile")
+    public Response reconcileCounts() {
+        try {
+            counterService.reconcile();
+            return Response.status(Response.Status.OK)
+                    .entity("Post counters reconciled.")
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("An error occurred while reconciling the post counters.")
+                    .build();
+        }
+    }
+
+    /**
+     * GET /posts/{userId}?cursor=&limit= - Retrieves one page of the posts made by a specific user.
      * 
      * @param userId The ID of the user whose posts are being fetched.
-     * @return A Response containing the list of user posts or an error message.
+     * @param cursor The opaque cursor returned as "next" by the previous page (omit for the first page).
+     * @param limit The maximum number of posts in the page.
+     * @return A Response containing a page of user posts or an error message.
      */
     @GET
     @Path("/{userId}")
-    public Response getAllPostsByUser(@PathParam("userId") Long userId) {
+    public Response getAllPostsByUser(@PathParam("userId") Long userId,
+                                      @QueryParam("cursor") String cursor,
+                                      @QueryParam("limit") Integer limit) {
         try {
+            PageCursor pageCursor = PageCursor.decode(cursor);
             
-            List<UserPostDTO> userPosts = postService.getAllPostsByUser(userId);
+            PageDTO<UserPostDTO> userPosts = postService.getAllPostsByUser(userId, pageCursor, PageCursor.limit(limit));
 
             
-            if (userPosts == null || userPosts.isEmpty()) {
+            if (userPosts == null || (userPosts.getItems().isEmpty() && pageCursor.isFirst())) {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity("No posts found for the user with ID: " + userId)
                         .build();
@@ -96,6 +212,10 @@ public class PostResource {
             return Response.status(Response.Status.OK)
                     .entity(userPosts)
                     .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .build();
         } catch (Exception e) {
             e.printStackTrace();
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
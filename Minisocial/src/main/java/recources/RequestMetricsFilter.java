@@ -0,0 +1,126 @@
+package recources;
+
+import Utils.RequestMetrics;
+
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * RequestMetricsFilter – Measures every REST call and attributes its SQL statements, loaded
+ * entities and sent JMS messages to the matched endpoint (see Utils.RequestMetrics).
+ *
+ * Endpoints are identified by their path template (e.g. {@code /likes/user-post/{postId}}),
+ * so the number of series stays bounded. Calls that match no resource method are grouped
+ * under "unmatched".
+ *
+ * Calls with a response entity are closed only once the entity has been written: a
+ * {@code StreamingOutput} (the user and activity log exports) runs its queries while it is
+ * written, after the response filters, and those statements belong to the endpoint. Their
+ * latency therefore includes the writing of the response body.
+ */
+@Provider
+public class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String START_PROPERTY = "minisocial.metrics.start";
+
+    /** Endpoint and status of a call whose entity is still to be written. */
+    private static final String PENDING_PROPERTY = "minisocial.metrics.pending";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(START_PROPERTY, System.nanoTime());
+        RequestMetrics.getInstance().begin();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object start = request.getProperty(START_PROPERTY);
+        if (!(start instanceof Long)) {
+            return;
+        }
+        if (response.hasEntity()) {
+            request.setProperty(PENDING_PROPERTY, new PendingCall(request.getMethod(), pathTemplate(), response.getStatus()));
+            return;
+        }
+        long nanos = System.nanoTime() - (Long) start;
+        RequestMetrics.getInstance().end(request.getMethod(), pathTemplate(), response.getStatus(), nanos);
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object start = context.getProperty(START_PROPERTY);
+        Object pending = context.getProperty(PENDING_PROPERTY);
+        if (!(start instanceof Long) || !(pending instanceof PendingCall)) {
+            context.proceed();
+            return;
+        }
+        context.removeProperty(PENDING_PROPERTY);
+        try {
+            context.proceed();
+        } finally {
+            PendingCall call = (PendingCall) pending;
+            long nanos = System.nanoTime() - (Long) start;
+            RequestMetrics.getInstance().end(call.method, call.path, call.status, nanos);
+        }
+    }
+
+    /**
+     * Builds the path template from the @Path annotations of the matched resource class and method.
+     */
+    private String pathTemplate() {
+        Class<?> resourceClass = resourceInfo != null ? resourceInfo.getResourceClass() : null;
+        Method resourceMethod = resourceInfo != null ? resourceInfo.getResourceMethod() : null;
+        if (resourceClass == null || resourceMethod == null) {
+            return "unmatched";
+        }
+
+        StringBuilder template = new StringBuilder();
+        appendSegment(template, resourceClass.getAnnotation(Path.class));
+        appendSegment(template, resourceMethod.getAnnotation(Path.class));
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static void appendSegment(StringBuilder template, Path path) {
+        if (path == null) {
+            return;
+        }
+        String value = path.value();
+        while (value.startsWith("/")) {
+            value = value.substring(1);
+        }
+        while (value.endsWith("/")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        if (!value.isEmpty()) {
+            template.append('/').append(value);
+        }
+    }
+
+    /**
+     * What the response filter knew of a call whose entity is still to be written.
+     */
+    private static final class PendingCall {
+        private final String method;
+        private final String path;
+        private final int status;
+
+        PendingCall(String method, String path, int status) {
+            this.method = method;
+            this.path = path;
+            this.status = status;
+        }
+    }
+}
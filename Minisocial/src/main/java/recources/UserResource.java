@@ -3,6 +3,8 @@ package recources;
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
+import Utils.UserSearchIndex;
+import dtos.UserSummaryDTO;
 import models.User;
 import service.UserService;
 
@@ -76,24 +78,39 @@ public class UserResource {
     @GET
     @Path("/allUsers")
     public Response getAllUsers() {
-        List<String> users = userService.getAllUsers();
-        return Response.ok(users).build();
+        // Streamed: users are written while they are read instead of being collected first
+        StreamingOutput body = out -> userService.writeAllUsers(out);
+        return Response.ok(body, MediaType.APPLICATION_JSON).build();
     }
 
     @GET
     @Path("/allUsers/{userId}")
     public Response getUserById(@PathParam("userId") Long userId) {
-        List<String> userStrings = userService.getUserStringById(userId);
+        UserSummaryDTO user = userService.getUserSummaryById(userId);
 
-        if (userStrings.contains("User not found")) {
+        if (user == null) {
             return Response.status(Response.Status.NOT_FOUND)
-                           .entity(userStrings.get(0))
+                           .entity("User not found")
                            .build();
         }
 
-        return Response.ok(userStrings.get(0)).build();
+        return Response.ok(user).build();
     }
     
+    @GET
+    @Path("/search")
+    public Response search(@QueryParam("q") String query, @QueryParam("limit") Integer limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                           .entity("Search query must not be empty.")
+                           .build();
+        }
+
+        // Type-ahead search: an empty list rather than 404 when nothing matches
+        List<UserSummaryDTO> result = userService.searchUsers(query, UserSearchIndex.limit(limit));
+        return Response.ok(result).build();
+    }
+
     @GET
     @Path("/search/username")
     public Response searchByUsername(@QueryParam("q") String query) {
@@ -103,7 +120,7 @@ public class UserResource {
                            .build();
         }
 
-        List<String> result = userService.searchUsersByUsername(query);
+        List<UserSummaryDTO> result = userService.searchUsersByUsername(query);
 
         if (result.isEmpty()) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -123,7 +140,7 @@ public class UserResource {
                            .build();
         }
 
-        List<String> result = userService.searchUsersByEmail(query);
+        List<UserSummaryDTO> result = userService.searchUsersByEmail(query);
 
         if (result.isEmpty()) {
             return Response.status(Response.Status.NOT_FOUND)
@@ -0,0 +1,240 @@
+package service;
+
+import messaging.ActivityLogEvent;
+import models.ActivityLog;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ActivityLogBatchWriter – Batching sink for activity log events.
+ *
+ * Instead of one insert and one commit per JMS message, events are put in a bounded
+ * buffer and written by a single flusher with a JDBC batch insert, one transaction per
+ * batch. A batch is flushed as soon as it holds {@link #BATCH_SIZE} events or
+ * {@link #FLUSH_INTERVAL_MS} milliseconds after its first event arrived.
+ *
+ * {@link #submit(ActivityLogEvent)} returns a future that completes once the event's batch
+ * has committed; the listener waits for it before returning, so a JMS message is only
+ * acknowledged after its row is durable. When the buffer is full, submitters wait
+ * (backpressure) and are rejected after {@link #SUBMIT_TIMEOUT_MS}, which rolls back the
+ * message so the broker redelivers it later.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ActivityLogBatchWriter {
+
+    /** Maximum number of events per batch. */
+    public static final int BATCH_SIZE = Integer.getInteger("minisocial.activityLog.batchSize", 50);
+
+    /** Maximum time an event waits for its batch to fill up. */
+    public static final long FLUSH_INTERVAL_MS = Long.getLong("minisocial.activityLog.flushIntervalMs", 50L);
+
+    /** Capacity of the buffer between listeners and the flusher. */
+    private static final int BUFFER_CAPACITY = Integer.getInteger("minisocial.activityLog.bufferCapacity", 10_000);
+
+    /** How long a submitter waits for room in a full buffer before giving up. */
+    private static final long SUBMIT_TIMEOUT_MS = 5_000L;
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    private final BlockingQueue<PendingEvent> buffer = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+
+    private volatile boolean running;
+    private Future<?> flusher;
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long lastBatchSize;
+    private volatile long lastFlushMillis;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = executor.submit(this::runFlusher);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.cancel(true);
+        }
+        // Not written: fail them so their messages are rolled back and redelivered
+        List<PendingEvent> leftovers = new ArrayList<>();
+        buffer.drainTo(leftovers);
+        leftovers.forEach(p -> p.done.completeExceptionally(new IllegalStateException("Activity log writer stopped.")));
+    }
+
+    /**
+     * Queues an event for the next batch.
+     *
+     * @param event the activity to log.
+     * @return a future completed when the event's batch has committed.
+     * @throws IllegalStateException if the buffer stayed full for too long.
+     */
+    public CompletableFuture<Void> submit(ActivityLogEvent event) {
+        PendingEvent pending = new PendingEvent(event);
+        try {
+            if (!buffer.offer(pending)) {
+                backpressureWaits.incrementAndGet();
+                if (!buffer.offer(pending, SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    rejected.incrementAndGet();
+                    throw new IllegalStateException("Activity log buffer is full.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing an activity log.", e);
+        }
+        enqueued.incrementAndGet();
+        return pending.done;
+    }
+
+    /**
+     * Flusher loop: collects up to BATCH_SIZE events or waits FLUSH_INTERVAL_MS, then writes them.
+     * Runs on the managed executor outside any transaction; each batch is written in its own
+     * transaction through the business proxy.
+     */
+    private void runFlusher() {
+        ActivityLogBatchWriter self = sessionContext.getBusinessObject(ActivityLogBatchWriter.class);
+        List<PendingEvent> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (running) {
+            try {
+                PendingEvent first = buffer.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    buffer.drainTo(batch, BATCH_SIZE - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= BATCH_SIZE || remaining <= 0) {
+                        break;
+                    }
+                    PendingEvent next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(self, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch and completes its futures.
+     */
+    private void flush(ActivityLogBatchWriter self, List<PendingEvent> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            List<ActivityLogEvent> events = new ArrayList<>(batch.size());
+            batch.forEach(p -> events.add(p.event));
+            self.writeBatch(events);
+
+            written.addAndGet(batch.size());
+            batch.forEach(p -> p.done.complete(null));
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            batch.forEach(p -> p.done.completeExceptionally(e));
+        }
+        batches.incrementAndGet();
+        lastBatchSize = batch.size();
+        lastFlushMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Inserts a batch of events in a new transaction.
+     * IDs come from the pooled activity_log_seq sequence, so the flush sends the rows as
+     * JDBC batches of hibernate.jdbc.batch_size instead of one insert per row.
+     *
+     * @param events the events to insert.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void writeBatch(List<ActivityLogEvent> events) {
+        for (ActivityLogEvent event : events) {
+            ActivityLog log = new ActivityLog();
+            log.setUserId(event.getUserId());
+            log.setAction(event.getAction());
+            log.setDescription(event.getDescription());
+            log.setTimestamp(event.getTimestamp());
+            em.persist(log);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * @return counters describing throughput and backpressure of the writer.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("bufferSize", buffer.size());
+        metrics.put("bufferCapacity", BUFFER_CAPACITY);
+        metrics.put("enqueued", enqueued.get());
+        metrics.put("written", written.get());
+        metrics.put("failed", failed.get());
+        metrics.put("batches", batches.get());
+        metrics.put("lastBatchSize", lastBatchSize);
+        metrics.put("lastFlushMillis", lastFlushMillis);
+        metrics.put("backpressureWaits", backpressureWaits.get());
+        metrics.put("rejected", rejected.get());
+        return metrics;
+    }
+
+    /**
+     * An event waiting in the buffer and the future of its batch commit.
+     */
+    private static final class PendingEvent {
+        private final ActivityLogEvent event;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingEvent(ActivityLogEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package service;
 
+import Utils.JsonStreamWriter;
 import messaging.ActivityLogEvent;
 import models.ActivityLog;
 
+import java.io.OutputStream;
 import java.util.List;
 
 import javax.ejb.Stateless;
@@ -32,11 +34,30 @@ public class ActivityLogService {
             .getResultList();
     }
 
-    public List<ActivityLog> getAllLogs() {
-        return em.createQuery(
-            "SELECT a FROM ActivityLog a ORDER BY a.timestamp DESC",
-            ActivityLog.class)
-            .getResultList();
+    /**
+     * Streams all activity logs, newest first, as a JSON array to the given output.
+     * Rows are read through a cursor and written one by one, so memory use does not grow with the table.
+     *
+     * @param out the response output stream.
+     * @return the number of logs written.
+     */
+    public long writeAllLogs(OutputStream out) {
+        return JsonStreamWriter.writeArray(out,
+            em.createQuery("SELECT a FROM ActivityLog a ORDER BY a.timestamp DESC", ActivityLog.class)
+                .setHint(JsonStreamWriter.HINT_FETCH_SIZE, JsonStreamWriter.CLEAR_INTERVAL)
+                .getResultStream(),
+            em,
+            (json, log) -> {
+                // Same properties and order as the JSON-B serialization of ActivityLog
+                json.writeStartObject();
+                JsonStreamWriter.writeIfPresent(json, "action", log.getAction());
+                JsonStreamWriter.writeIfPresent(json, "description", log.getDescription());
+                JsonStreamWriter.writeIfPresent(json, "id", log.getId());
+                JsonStreamWriter.writeIfPresent(json, "timestamp",
+                        log.getTimestamp() != null ? log.getTimestamp().toString() : null);
+                JsonStreamWriter.writeIfPresent(json, "userId", log.getUserId());
+                json.writeEnd();
+            });
     }
 
 }
@@ -0,0 +1,101 @@
+package service;
+
+import models.Group;
+import models.GroupMembership;
+import models.User;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service exposing second-level cache statistics per region.
+ *
+ * Hit/miss/put counts show whether lookups are served from the cache; the entity load
+ * counts show how many times each cached entity still had to be read from the database.
+ * They are only collected while Hibernate statistics are enabled
+ * ({@code -Dhibernate.generate_statistics=true}, see persistence.xml).
+ */
+@Stateless
+public class CacheMetricsService {
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    /**
+     * Collects the statistics of every cache region and of the cached entities.
+     *
+     * @return a map with "regions" (minisocial.users, minisocial.groups, ...), "queryCache" and
+     *         "entityLoads" sections; the counters stay at 0 unless hibernate.generate_statistics is set.
+     */
+    public Map<String, Object> getMetrics() {
+        Statistics statistics = statistics();
+
+        // Report the regions as Hibernate names them, with the region prefix
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            if (regionStatistics == null) {
+                regionStatistics = statistics.getQueryRegionStatistics(region);
+            }
+            regions.put(region, toMap(regionStatistics));
+        }
+
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+
+        Map<String, Object> entityLoads = new LinkedHashMap<>();
+        for (Class<?> entity : new Class<?>[] { User.class, Group.class, GroupMembership.class }) {
+            entityLoads.put(entity.getSimpleName(),
+                    statistics.getEntityStatistics(entity.getName()).getLoadCount());
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        metrics.put("regions", regions);
+        metrics.put("queryCache", queryCache);
+        metrics.put("entityLoads", entityLoads);
+        return metrics;
+    }
+
+    /**
+     * Resets all statistics, e.g. before measuring a scenario.
+     */
+    public void resetMetrics() {
+        statistics().clear();
+    }
+
+    /**
+     * Evicts every entry of every region.
+     */
+    public void evictAll() {
+        em.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    private Statistics statistics() {
+        return em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static Map<String, Object> toMap(CacheRegionStatistics region) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (region == null) {
+            return values;
+        }
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        values.put("hits", hits);
+        values.put("misses", misses);
+        values.put("puts", region.getPutCount());
+        values.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        values.put("elementsInMemory", region.getElementCountInMemory());
+        return values;
+    }
+}
@@ -2,11 +2,17 @@ package service;
 
 import Utils.CommentUtils;
 import Utils.LikeUtils;
+import Utils.PageCursor;
+import dtos.CommentDTO;
+import dtos.PageDTO;
+import enums.CounterType;
 import models.*;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 import java.util.Date;
 import java.util.List;
@@ -22,6 +28,18 @@ public class CommentService {
     @PersistenceContext(unitName = "hello")
     private EntityManager em;
 
+    // Comment counters of posts (replaces read-modify-write on Post.commentsCount)
+    @Inject
+    private EngagementCounterService counterService;
+
+    // Cached group permission checks
+    @Inject
+    private MembershipAuthorizer authorizer;
+
+    // Groups being deleted accept no new content
+    @Inject
+    private GroupDeletionPipeline deletionPipeline;
+
     /**
      * Finds a user by their ID.
      * 
@@ -53,41 +71,48 @@ public class CommentService {
     }
 
     /**
-     * Retrieves all friendships for a given user.
-     * 
-     * @param user the user whose friendships are to be retrieved.
-     * @return a list of Friendships associated with the user.
-     */
-    public List<Friendships> getAllFriendshipsForUser(User user) {
-        TypedQuery<Friendships> query = em.createQuery(LikeUtils.GET_ALL_FRIENDS_QUERY, Friendships.class);
-        query.setParameter("userId", user.getUserId());
-        return query.getResultList();
-    }
-
-    /**
-     * Retrieves comments for a specific UserPost.
+     * Retrieves one page of comments for a specific UserPost, newest first.
      * 
      * @param postId the ID of the UserPost.
-     * @return a list of comments associated with the given UserPost.
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of comments in the page.
+     * @return a page of comments associated with the given UserPost.
      */
-    public List<Comment> getCommentsForUserPost(int postId) {
-        TypedQuery<Comment> query = em.createQuery(CommentUtils.GET_COMMENTS_BY_USER_POST_QUERY, Comment.class);
+    public PageDTO<CommentDTO> getCommentsForUserPost(int postId, PageCursor cursor, int limit) {
+        TypedQuery<Comment> query = em.createQuery(CommentUtils.GET_COMMENTS_BY_USER_POST_PAGE_QUERY, Comment.class);
         query.setParameter("postId", postId);
-        return query.getResultList();
+        return fetchCommentPage(query, cursor, limit);
     }
 
     /**
-     * Retrieves comments for a specific GroupPost.
+     * Retrieves one page of comments for a specific GroupPost, newest first.
      * 
      * @param postId the ID of the GroupPost.
      * @param groupId the ID of the group to which the post belongs.
-     * @return a list of comments associated with the given GroupPost.
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of comments in the page.
+     * @return a page of comments associated with the given GroupPost.
      */
-    public List<Comment> getCommentsForGroupPost(int postId, Long groupId) {
-        TypedQuery<Comment> query = em.createQuery(CommentUtils.GET_COMMENTS_BY_GROUP_POST_QUERY, Comment.class);
+    public PageDTO<CommentDTO> getCommentsForGroupPost(int postId, Long groupId, PageCursor cursor, int limit) {
+        TypedQuery<Comment> query = em.createQuery(CommentUtils.GET_COMMENTS_BY_GROUP_POST_PAGE_QUERY, Comment.class);
         query.setParameter("postId", postId);
         query.setParameter("groupId", groupId);
-        return query.getResultList();
+        return fetchCommentPage(query, cursor, limit);
+    }
+
+    /**
+     * Binds the keyset parameters of a comment page query and runs it.
+     * One extra row is fetched to find out whether a next page exists.
+     */
+    private PageDTO<CommentDTO> fetchCommentPage(TypedQuery<Comment> query, PageCursor cursor, int limit) {
+        query.setParameter("beforeTs", cursor.getTimestampAsDate(), TemporalType.TIMESTAMP);
+        query.setParameter("beforeId", cursor.getIntId());
+        query.setMaxResults(limit + 1);
+
+        List<Comment> comments = query.getResultList();
+        return PageDTO.of(comments, limit,
+                c -> PageCursor.of(c.getTimestamp(), c.getCommentId()),
+                CommentDTO::fromCommentList);
     }
 
     /**
@@ -105,9 +130,6 @@ public class CommentService {
             return List.of("User not found");
         }
 
-        // Get all friendships for the user
-        List<Friendships> friendships = getAllFriendshipsForUser(user);
-
         // Ensure post exists
         UserPost post = findUserPostById(postId);
         if (post == null) {
@@ -126,16 +148,16 @@ public class CommentService {
         comment.setTimestamp(new Date());
         comment.setPost(post);
 
-        List<String> errors = CommentUtils.validateComment(comment, friendships);
+        List<String> errors = CommentUtils.validateComment(comment);
         if (!errors.isEmpty()) {
             return errors;  // Return validation errors
         }
 
-        // Update the comments count
-        post.setCommentsCount(post.getCommentsCount() + 1);
-        em.merge(post);
         em.persist(comment);
 
+        // Update the comments count
+        counterService.increment(postId, CounterType.COMMENTS, 1);
+
         return List.of();  // Success
     }
 
@@ -155,6 +177,10 @@ public class CommentService {
         GroupPost groupPost = findGroupPostById(postId);
         if (groupPost == null) return List.of("GroupPost not found");
 
+        if (deletionPipeline.isDeleting(groupPost.getGroup().getGroupId())) {
+            return List.of("This group is being deleted.");
+        }
+
         // Create and validate the comment
         Comment comment = new Comment();
         comment.setCreator(user);
@@ -162,11 +188,11 @@ public class CommentService {
         comment.setTimestamp(new Date());
         comment.setGroupPost(groupPost);
 
-        // Update comments count
-        groupPost.setCommentsCount(groupPost.getCommentsCount() + 1);
-        em.merge(groupPost);
         em.persist(comment);
 
+        // Update comments count
+        counterService.increment(postId, CounterType.COMMENTS, 1);
+
         return List.of();  // Success
     }
 
@@ -182,11 +208,6 @@ public class CommentService {
             return false;
         }
 
-        TypedQuery<GroupMembership> query = em.createQuery(LikeUtils.CHECK_GROUP_MEMBERSHIP_QUERY, GroupMembership.class);
-        query.setParameter("userId", user.getUserId());
-        query.setParameter("groupId", groupId);
-
-        List<GroupMembership> memberships = query.getResultList();
-        return !memberships.isEmpty();
+        return authorizer.isMember(user.getUserId(), groupId);
     }
 }
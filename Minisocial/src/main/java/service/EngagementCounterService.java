@@ -0,0 +1,281 @@
+package service;
+
+import Utils.CounterUtils;
+import Utils.TransactionHooks;
+import enums.CounterType;
+import models.PostCounter;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * EngagementCounterService – Like and comment counters of posts.
+ *
+ * Writers never touch the Post row. A committed like or comment is added to a striped
+ * in-memory {@link LongAdder} for its post; a scheduled flush drains the accumulated
+ * deltas and applies each one to a randomly chosen shard of the {@code post_counters}
+ * table with an atomic {@code UPDATE ... SET n = n + :delta}. A post liked a thousand
+ * times between two flushes costs one UPDATE.
+ *
+ * The count of a post is the sum of its shards plus the deltas not flushed yet.
+ * A nightly reconciliation recomputes every counter from the Like and comments tables,
+ * repairing drift (e.g. deltas lost when the server stops between two flushes). It walks the
+ * post IDs in ranges of {@link #RECONCILE_RANGE}, each range in its own transaction that
+ * replaces the shards of the range with set-based {@code INSERT ... SELECT} counts.
+ *
+ * Transactions that record a delta hold a read lock of {@link #commitCut} while they commit
+ * and add their delta. A range transaction takes it exclusively until it completes, and drains
+ * the pending deltas of its posts under it, so each like or comment is either in the counts with
+ * its delta drained, or committed afterwards with its delta left pending; none is counted twice.
+ * Those commits wait for one range at a time.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class EngagementCounterService {
+
+    /** Number of rows each counter is spread over. */
+    private static final int SHARDS = Integer.getInteger("minisocial.counters.shards", 8);
+
+    /** Number of post IDs recounted per reconciliation transaction. */
+    private static final int RECONCILE_RANGE = Integer.getInteger("minisocial.counters.reconcileRange", 10_000);
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    /** Recounts of one range of post IDs into the counter table, by counter type. */
+    private static final Map<CounterType, List<String>> RECOUNT_QUERIES = new EnumMap<>(CounterType.class);
+
+    static {
+        RECOUNT_QUERIES.put(CounterType.LIKES, Arrays.asList(
+                CounterUtils.INSERT_LIKE_COUNTS_BY_USER_POST_QUERY,
+                CounterUtils.INSERT_LIKE_COUNTS_BY_GROUP_POST_QUERY));
+        RECOUNT_QUERIES.put(CounterType.COMMENTS, Arrays.asList(
+                CounterUtils.INSERT_COMMENT_COUNTS_BY_USER_POST_QUERY,
+                CounterUtils.INSERT_COMMENT_COUNTS_BY_GROUP_POST_QUERY));
+    }
+
+    /** Deltas not flushed yet, keyed by {@link #key(int, CounterType)}. */
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Writers share the read lock; the flush takes the write lock only to drop drained
+     * accumulators, so no increment can land in an accumulator that was just removed.
+     */
+    private final ReadWriteLock pruneLock = new ReentrantReadWriteLock();
+
+    /**
+     * Shared by committing writers, taken exclusively by the reconciliation for one consistent
+     * cut of the committed rows and the pending deltas.
+     */
+    private final StampedLock commitCut = new StampedLock();
+
+    /**
+     * Records a change of a post counter once the current transaction commits.
+     *
+     * @param postId the ID of the post (UserPost or GroupPost).
+     * @param counterType what is being counted.
+     * @param delta the change, usually +1.
+     */
+    public void increment(int postId, CounterType counterType, long delta) {
+        long key = key(postId, counterType);
+        TransactionHooks.afterCommitHolding(commitCut, () -> add(key, delta));
+    }
+
+    /**
+     * Returns the current value of a post counter.
+     *
+     * @param postId the ID of the post.
+     * @param counterType what is being counted.
+     * @return the flushed total plus the deltas still pending.
+     */
+    public long getCount(int postId, CounterType counterType) {
+        Number flushed = em.createQuery(CounterUtils.SUM_SHARDS_QUERY, Number.class)
+                .setParameter("postId", postId)
+                .setParameter("counterType", counterType)
+                .getSingleResult();
+
+        LongAdder unflushed = pending.get(key(postId, counterType));
+        return flushed.longValue() + (unflushed == null ? 0 : unflushed.sum());
+    }
+
+    /**
+     * Drains the pending deltas and applies them to the counter table.
+     * If the transaction rolls back, the drained deltas are put back.
+     *
+     * @return the number of counters written.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/5", persistent = false)
+    public synchronized int flush() {
+        Map<Long, Long> drained = drain();
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        TransactionHooks.afterRollback(() -> drained.forEach(this::add));
+
+        for (Map.Entry<Long, Long> entry : drained.entrySet()) {
+            applyDelta(postIdOf(entry.getKey()), counterTypeOf(entry.getKey()), entry.getValue());
+        }
+        prune();
+        return drained.size();
+    }
+
+    /**
+     * Recomputes every counter from the Like and comments tables, one range of post IDs per
+     * transaction. Executes outside any transaction; flushes may run between two ranges.
+     */
+    @Schedule(hour = "2", minute = "17", second = "0", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void reconcile() {
+        EngagementCounterService self = sessionContext.getBusinessObject(EngagementCounterService.class);
+        int lastPostId = self.getLastCountedPostId();
+        for (long fromId = 0; fromId <= lastPostId; fromId += RECONCILE_RANGE) {
+            self.reconcileRange((int) fromId, (int) Math.min(fromId + RECONCILE_RANGE - 1, lastPostId));
+        }
+    }
+
+    /**
+     * @return the highest ID of a post or of a counted post, 0 if there is none.
+     */
+    public int getLastCountedPostId() {
+        Number lastPost = em.createQuery(CounterUtils.MAX_POST_ID_QUERY, Number.class).getSingleResult();
+        Number lastCounted = em.createQuery(CounterUtils.MAX_COUNTED_POST_ID_QUERY, Number.class).getSingleResult();
+        return Math.max(lastPost == null ? 0 : lastPost.intValue(), lastCounted == null ? 0 : lastCounted.intValue());
+    }
+
+    /**
+     * Recomputes the counters of the posts with IDs from {@code fromId} to {@code toId}, in a new
+     * transaction holding {@link #commitCut} exclusively until it completes.
+     * The pending deltas of those posts are drained and dropped: they belong to rows the counts
+     * already include. If the transaction rolls back, they are put back.
+     *
+     * @param fromId the first post ID of the range.
+     * @param toId the last post ID of the range.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public synchronized void reconcileRange(int fromId, int toId) {
+        Map<Long, Long> drained = new HashMap<>();
+        TransactionHooks.holdExclusive(commitCut, () -> drained.forEach(this::add));
+        drained.putAll(drain(fromId, toId));
+
+        em.createQuery(CounterUtils.DELETE_SHARDS_BY_POST_RANGE_QUERY)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+        // User posts and group posts share one ID space, so the counts never collide
+        for (Map.Entry<CounterType, List<String>> recount : RECOUNT_QUERIES.entrySet()) {
+            for (String insertQuery : recount.getValue()) {
+                em.createQuery(insertQuery)
+                        .setParameter("counterType", recount.getKey())
+                        .setParameter("fromId", fromId)
+                        .setParameter("toId", toId)
+                        .executeUpdate();
+            }
+        }
+        prune();
+    }
+
+    /**
+     * Takes the accumulated deltas out of the accumulators.
+     *
+     * @return the non-zero deltas by counter key.
+     */
+    private Map<Long, Long> drain() {
+        return drain(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Takes the accumulated deltas of the posts in an ID range out of their accumulators.
+     *
+     * @return the non-zero deltas by counter key.
+     */
+    private Map<Long, Long> drain(int fromId, int toId) {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            int postId = postIdOf(entry.getKey());
+            if (postId < fromId || postId > toId) {
+                continue;
+            }
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                drained.put(entry.getKey(), delta);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Adds a delta to the accumulator of a counter.
+     */
+    private void add(long key, long delta) {
+        pruneLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        } finally {
+            pruneLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops accumulators that are back to zero so idle posts do not stay in memory.
+     */
+    private void prune() {
+        pruneLock.writeLock().lock();
+        try {
+            pending.values().removeIf(adder -> adder.sum() == 0);
+        } finally {
+            pruneLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a delta to a random shard, creating the shard row if it does not exist yet.
+     */
+    private void applyDelta(int postId, CounterType counterType, long delta) {
+        int shard = ThreadLocalRandom.current().nextInt(SHARDS);
+        int updated = em.createQuery(CounterUtils.INCREMENT_SHARD_QUERY)
+                .setParameter("delta", delta)
+                .setParameter("postId", postId)
+                .setParameter("counterType", counterType)
+                .setParameter("shard", shard)
+                .executeUpdate();
+
+        if (updated == 0) {
+            em.persist(new PostCounter(postId, counterType, shard, delta));
+        }
+    }
+
+    private static long key(int postId, CounterType counterType) {
+        return ((long) postId << 8) | counterType.ordinal();
+    }
+
+    private static int postIdOf(long key) {
+        return (int) (key >>> 8);
+    }
+
+    private static CounterType counterTypeOf(long key) {
+        return CounterType.values()[(int) (key & 0xFF)];
+    }
+}
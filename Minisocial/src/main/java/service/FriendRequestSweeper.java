@@ -0,0 +1,236 @@
+package service;
+
+import Utils.FriendshipUtils;
+import Utils.TransactionHooks;
+import enums.FriendshipStatus;
+import models.FriendshipRequestArchive;
+
+import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FriendRequestSweeper – Keeps the FriendshipRequests table down to the requests that still matter.
+ *
+ * A sweep runs two stages, each in chunks of at most {@link #CHUNK_SIZE} requests:
+ * <ol>
+ *   <li>pending requests created more than {@link #TTL_DAYS} days ago are marked EXPIRED,
+ *       which also frees their pending_pair for a new request;</li>
+ *   <li>accepted, rejected and expired requests are copied to friendship_request_archive
+ *       and deleted from FriendshipRequests.</li>
+ * </ol>
+ * Every chunk selects a slice of IDs and runs in its own transaction, so no lock is held
+ * across chunks and a large backlog never turns into one long transaction. A failed sweep
+ * can simply run again: chunks that committed are not repeated.
+ *
+ * The sweep runs every night and can be started by hand; the report of the last sweep
+ * (rows per stage, chunks and duration) is kept in memory.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class FriendRequestSweeper {
+
+    /** Age in days after which a pending request expires. */
+    private static final int TTL_DAYS = Integer.getInteger("minisocial.friendRequest.ttlDays", 30);
+
+    /** Maximum number of requests expired or archived per transaction. */
+    private static final int CHUNK_SIZE = Integer.getInteger("minisocial.friendRequest.sweepChunkSize", 500);
+
+    /** Statuses of the requests that are moved to the archive. */
+    private static final List<FriendshipStatus> CLOSED_STATUSES =
+            Arrays.asList(FriendshipStatus.ACCEPTED, FriendshipStatus.REJECTED, FriendshipStatus.EXPIRED);
+
+    /** Lifecycle of a sweep. */
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    /** Report of the running or last finished sweep. */
+    private final AtomicReference<Report> lastSweep = new AtomicReference<>();
+
+    /**
+     * Nightly sweep.
+     */
+    @Schedule(hour = "4", minute = "0", second = "0", persistent = false)
+    public void scheduledSweep() {
+        start();
+    }
+
+    /**
+     * Starts a sweep in the background, unless one is already running.
+     *
+     * @return the report of the (new or running) sweep.
+     */
+    public Report start() {
+        Report report = new Report();
+        Report current = lastSweep.updateAndGet(existing ->
+                existing != null && existing.getStatus() == Status.RUNNING ? existing : report);
+        if (current == report) {
+            sessionContext.getBusinessObject(FriendRequestSweeper.class).run(report);
+        }
+        return current;
+    }
+
+    /**
+     * @return the report of the running or last sweep, or null if none ran since the server started.
+     */
+    public Report getLastSweep() {
+        return lastSweep.get();
+    }
+
+    /**
+     * Runs both stages. Executes outside any transaction; each chunk gets its own.
+     */
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void run(Report report) {
+        FriendRequestSweeper self = sessionContext.getBusinessObject(FriendRequestSweeper.class);
+        Date cutoff = Date.from(report.startedAt.minus(Duration.ofDays(TTL_DAYS)));
+        try {
+            int processed;
+            do {
+                processed = self.expireChunk(cutoff, report);
+                report.chunks.incrementAndGet();
+            } while (processed >= CHUNK_SIZE);
+
+            do {
+                processed = self.archiveChunk();
+                report.archived.addAndGet(processed);
+                report.chunks.incrementAndGet();
+            } while (processed >= CHUNK_SIZE);
+
+            report.status = Status.COMPLETED;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            report.error = e.getMessage();
+            report.status = Status.FAILED;
+        } finally {
+            report.finishedAt = Instant.now();
+            System.out.println("Friend request sweep " + report.status + ": " + report.expired + " expired, "
+                    + report.archived + " archived in " + report.chunks + " chunks, "
+                    + report.getDurationMs() + " ms.");
+        }
+    }
+
+    /**
+     * Expires one chunk of stale pending requests in a new transaction.
+     * Requests accepted or rejected meanwhile are skipped, so fewer rows than selected may expire;
+     * the stage goes on as long as full chunks are selected.
+     *
+     * @param cutoff requests created before this date expire.
+     * @param report the report to which the expired requests are added once the chunk commits.
+     * @return the number of requests selected; fewer than the chunk size means the stage is done.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int expireChunk(Date cutoff, Report report) {
+        List<Integer> ids = em.createQuery(FriendshipUtils.GET_STALE_PENDING_REQUEST_IDS_QUERY, Integer.class)
+                .setParameter("status", FriendshipStatus.PENDING)
+                .setParameter("cutoff", cutoff, TemporalType.DATE)
+                .setMaxResults(CHUNK_SIZE)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Guarded by status: a request accepted meanwhile is left alone
+        int expired = em.createQuery(FriendshipUtils.UPDATE_PENDING_REQUESTS_STATUS_QUERY)
+                .setParameter("newStatus", FriendshipStatus.EXPIRED)
+                .setParameter("requestIds", ids)
+                .setParameter("status", FriendshipStatus.PENDING)
+                .executeUpdate();
+        TransactionHooks.afterCommit(() -> report.expired.addAndGet(expired));
+        return ids.size();
+    }
+
+    /**
+     * Moves one chunk of closed requests to the archive in a new transaction.
+     *
+     * @return the number of requests archived; fewer than the chunk size means the stage is done.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int archiveChunk() {
+        List<Object[]> rows = em.createQuery(FriendshipUtils.GET_CLOSED_REQUESTS_QUERY, Object[].class)
+                .setParameter("statuses", CLOSED_STATUSES)
+                .setMaxResults(CHUNK_SIZE)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // The archive IDs are assigned, so the inserts go out as JDBC batches
+        Instant archivedAt = Instant.now();
+        List<Integer> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Integer) row[0]);
+            em.persist(new FriendshipRequestArchive((Integer) row[0], (Long) row[1], (Long) row[2],
+                    (FriendshipStatus) row[3], (Date) row[4], archivedAt));
+        }
+        em.flush();
+        em.clear();
+
+        em.createQuery(FriendshipUtils.DELETE_REQUESTS_BY_IDS_QUERY)
+                .setParameter("requestIds", ids)
+                .executeUpdate();
+        return ids.size();
+    }
+
+    /**
+     * Report of one sweep, readable while it runs.
+     */
+    public static class Report {
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong expired = new AtomicLong();
+        private final AtomicLong archived = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private volatile Status status = Status.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Report() {}
+
+        public Status getStatus() { return status; }
+
+        public Instant getStartedAt() { return startedAt; }
+
+        public Instant getFinishedAt() { return finishedAt; }
+
+        public String getError() { return error; }
+
+        /** @return the number of pending requests expired so far. */
+        public long getExpired() { return expired.get(); }
+
+        /** @return the number of requests moved to the archive so far. */
+        public long getArchived() { return archived.get(); }
+
+        /** @return the number of chunks (transactions) run so far. */
+        public long getChunks() { return chunks.get(); }
+
+        /** @return the time the sweep took, or has taken so far. */
+        public long getDurationMs() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return Duration.between(startedAt, end).toMillis();
+        }
+    }
+}
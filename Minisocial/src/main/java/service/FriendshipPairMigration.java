@@ -0,0 +1,65 @@
+package service;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * FriendshipPairMigration – Moves friendship rows written in both directions to the
+ * single-row canonical layout (user_id = lower user ID, friend_id = higher user ID).
+ *
+ * Runs at startup before the in-memory indexes are loaded and does nothing once every row
+ * is canonical. The steps are ordered so no intermediate state collides with the
+ * uk_friendships_pair constraint:
+ * <ol>
+ *   <li>self friendships are deleted;</li>
+ *   <li>duplicate rows of the same (user_id, friend_id) keep only the lowest ID;</li>
+ *   <li>reversed rows whose canonical twin exists are deleted;</li>
+ *   <li>the remaining reversed rows are flipped into canonical order.</li>
+ * </ol>
+ */
+@Singleton
+@Startup
+public class FriendshipPairMigration {
+
+    private static final String COUNT_NON_CANONICAL_SQL =
+        "SELECT COUNT(*) FROM Friendships WHERE user_id >= friend_id";
+
+    private static final String DELETE_SELF_SQL =
+        "DELETE FROM Friendships WHERE user_id = friend_id";
+
+    private static final String DELETE_DUPLICATES_SQL =
+        "DELETE FROM Friendships WHERE friendship_id NOT IN " +
+        "(SELECT MIN(d.friendship_id) FROM Friendships d GROUP BY d.user_id, d.friend_id)";
+
+    private static final String DELETE_REVERSED_TWINS_SQL =
+        "DELETE FROM Friendships r WHERE r.user_id > r.friend_id AND EXISTS " +
+        "(SELECT 1 FROM Friendships c WHERE c.user_id = r.friend_id AND c.friend_id = r.user_id)";
+
+    private static final String FLIP_REVERSED_SQL =
+        "UPDATE Friendships SET user_id = friend_id, friend_id = user_id WHERE user_id > friend_id";
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    /**
+     * Dedupes and flips the friendship rows if any row is not in canonical order.
+     */
+    @PostConstruct
+    public void migrate() {
+        long nonCanonical = ((Number) em.createNativeQuery(COUNT_NON_CANONICAL_SQL).getSingleResult()).longValue();
+        if (nonCanonical == 0) {
+            return;
+        }
+
+        int self = em.createNativeQuery(DELETE_SELF_SQL).executeUpdate();
+        int duplicates = em.createNativeQuery(DELETE_DUPLICATES_SQL).executeUpdate();
+        int twins = em.createNativeQuery(DELETE_REVERSED_TWINS_SQL).executeUpdate();
+        int flipped = em.createNativeQuery(FLIP_REVERSED_SQL).executeUpdate();
+
+        System.out.println("Friendships migrated to one row per pair: " + twins + " mirrored rows and "
+                + (self + duplicates) + " self/duplicate rows deleted, " + flipped + " rows flipped.");
+    }
+}
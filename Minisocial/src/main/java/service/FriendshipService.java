@@ -1,15 +1,25 @@
 package service;
 
+import dtos.BulkOutcomeDTO;
+import enums.FriendRequestOutcome;
 import enums.FriendshipStatus;
 import models.FriendshipRequests;
 import models.User;
+import Utils.FriendSuggestionEngine;
 import Utils.FriendshipUtils;
+import Utils.PersistenceUtils;
+import Utils.TransactionHooks;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.HashMap;
 
@@ -28,24 +38,63 @@ public class FriendshipService {
     private EntityManager em;
 
     /**
-     * Suggests potential friends for the given user.
+     * Precomputed timelines, dropped when a new friendship changes their content.
+     */
+    @Inject
+    private TimelineStore timelineStore;
+
+    /**
+     * Suggests potential friends for the given user, ranked by the number of mutual friends.
      * 
      * @param userId the ID of the user for whom friends are being suggested.
-     * @return a list of suggested friends.
+     * @param limit the maximum number of suggestions.
+     * @return the suggested friends' information, each with a "mutualFriends" count.
      */
-    public List<User> suggestFriends(Long userId) {
-        return FriendshipUtils.suggestFriends(em, userId);
+    public List<Map<String, Object>> suggestFriends(Long userId, int limit) {
+        return FriendshipUtils.suggestFriends(em, userId, limit).entrySet().stream().map(entry -> {
+            Map<String, Object> info = mapFriendInfo(entry.getKey());
+            info.put("mutualFriends", entry.getValue());
+            return info;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Precomputes and caches friend suggestions for every user (fork/join in memory).
+     * 
+     * @return the number of users processed.
+     */
+    public int precomputeSuggestions() {
+        return FriendSuggestionEngine.getInstance().precomputeAll();
     }
 
     /**
      * Sends a friendship request from one user to another.
+     * If the receiver already asked the requester, that pending request is accepted in the same
+     * transaction instead, and the users become friends.
      * 
      * @param requester the user sending the friend request.
      * @param receiver the user receiving the friend request.
-     * @return true if the request was successfully sent, false otherwise.
+     * @return SENT, ACCEPTED, or DUPLICATE if a request is already pending or the users are friends.
      */
-    public boolean sendFriendRequest(User requester, User receiver) {
-        return FriendshipUtils.sendFriendRequest(em, requester, receiver);
+    public FriendRequestOutcome sendFriendRequest(User requester, User receiver) {
+        try {
+            if (FriendshipUtils.insertPendingRequest(em, requester, receiver)) {
+                return FriendRequestOutcome.SENT;
+            }
+        } catch (PersistenceException e) {
+            // A concurrent request for the same pair won; the container rolls this transaction back
+            if (PersistenceUtils.isUniqueViolation(e, FriendshipRequests.UK_PENDING_PAIR)) {
+                return FriendRequestOutcome.DUPLICATE;
+            }
+            throw e;
+        }
+
+        FriendshipRequests pending = FriendshipUtils.findPendingRequest(em, requester, receiver);
+        if (pending != null && pending.getRequester().getUserId().equals(receiver.getUserId())
+                && acceptFriendRequest(pending)) {
+            return FriendRequestOutcome.ACCEPTED;
+        }
+        return FriendRequestOutcome.DUPLICATE;
     }
 
     /**
@@ -59,11 +108,88 @@ public class FriendshipService {
             request.setStatus(FriendshipStatus.ACCEPTED);
             FriendshipUtils.createMutualFriendship(em, request.getRequester(), request.getReceiver());
             em.merge(request);
+
+            Long requesterId = request.getRequester().getUserId();
+            Long receiverId = request.getReceiver().getUserId();
+            TransactionHooks.afterCommit(() -> {
+                timelineStore.invalidate(requesterId);
+                timelineStore.invalidate(receiverId);
+            });
             return true;
         }
         return false;
     }
 
+    /**
+     * Accepts or rejects many friendship requests in one transaction.
+     * The pending request rows are locked with one query and loaded with their users by another
+     * (so the users are not locked), their status is changed with one set-based UPDATE, and the
+     * friendships of accepted requests are inserted as one JDBC batch.
+     * 
+     * @param requestIds the IDs of the requests, in the order of the returned outcomes.
+     * @param accept true to accept the requests, false to reject them.
+     * @return one outcome per ID; userId is the requester to notify, receiverId and receiverName
+     *         the user who answered the request.
+     */
+    public List<BulkOutcomeDTO> respondToRequests(List<Long> requestIds, boolean accept) {
+        List<Integer> ids = requestIds.stream().map(Long::intValue).distinct().collect(Collectors.toList());
+
+        // Lock the pending request rows first; the users are read afterwards without locks
+        List<Integer> lockedIds = ((List<?>) em.createNativeQuery(FriendshipUtils.LOCK_PENDING_REQUESTS_BY_IDS_SQL)
+                .setParameter("requestIds", ids)
+                .setParameter("status", FriendshipStatus.PENDING.name())
+                .getResultList())
+                .stream()
+                .map(id -> ((Number) id).intValue())
+                .collect(Collectors.toList());
+
+        Map<Integer, FriendshipRequests> pending = new HashMap<>();
+        if (!lockedIds.isEmpty()) {
+            em.createQuery(FriendshipUtils.FIND_REQUESTS_WITH_USERS_BY_IDS_QUERY, FriendshipRequests.class)
+                    .setParameter("requestIds", lockedIds)
+                    .getResultList()
+                    .forEach(r -> pending.put(r.getFriendshipRequestId(), r));
+        }
+
+        if (!pending.isEmpty()) {
+            em.createQuery(FriendshipUtils.UPDATE_PENDING_REQUESTS_STATUS_QUERY)
+                    .setParameter("newStatus", accept ? FriendshipStatus.ACCEPTED : FriendshipStatus.REJECTED)
+                    .setParameter("requestIds", new ArrayList<>(pending.keySet()))
+                    .setParameter("status", FriendshipStatus.PENDING)
+                    .executeUpdate();
+
+            if (accept) {
+                Set<Long> affectedUsers = new HashSet<>();
+                for (FriendshipRequests request : pending.values()) {
+                    FriendshipUtils.createMutualFriendship(em, request.getRequester(), request.getReceiver());
+                    affectedUsers.add(request.getRequester().getUserId());
+                    affectedUsers.add(request.getReceiver().getUserId());
+                }
+                TransactionHooks.afterCommit(() -> affectedUsers.forEach(timelineStore::invalidate));
+            }
+        }
+
+        List<BulkOutcomeDTO> outcomes = new ArrayList<>(requestIds.size());
+        Set<Integer> seen = new HashSet<>();
+        for (Long requestId : requestIds) {
+            FriendshipRequests request = pending.get(requestId.intValue());
+            if (!seen.add(requestId.intValue())) {
+                outcomes.add(new BulkOutcomeDTO(requestId, BulkOutcomeDTO.DUPLICATE, null));
+            } else if (request == null) {
+                outcomes.add(new BulkOutcomeDTO(requestId, BulkOutcomeDTO.NOT_PENDING, null));
+            } else {
+                BulkOutcomeDTO outcome = new BulkOutcomeDTO(requestId,
+                        accept ? BulkOutcomeDTO.ACCEPTED : BulkOutcomeDTO.REJECTED,
+                        request.getRequester().getUserId());
+                User receiver = request.getReceiver();
+                outcome.setReceiverId(receiver.getUserId());
+                outcome.setReceiverName(receiver.getFirstName() + " " + receiver.getLastName());
+                outcomes.add(outcome);
+            }
+        }
+        return outcomes;
+    }
+
     /**
      * Rejects a pending friendship request.
      * 
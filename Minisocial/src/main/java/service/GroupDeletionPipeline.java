@@ -0,0 +1,303 @@
+package service;
+
+import Utils.CacheRegions;
+import Utils.GroupUtil;
+import models.Group;
+import models.GroupMembership;
+
+import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GroupDeletionPipeline – Deletes a group and everything that belongs to it without loading the object graph.
+ *
+ * The group is torn down stage by stage (likes → comments → posts → admins → memberships → group),
+ * each stage in batches of at most {@link #BATCH_SIZE} IDs: one batch selects a slice of IDs and
+ * deletes them with a bulk statement in its own transaction. No transaction grows with the size of
+ * the group, so deleting a group with a million posts neither times out nor holds locks for long.
+ *
+ * While the pipeline runs, the group accepts no new posts, likes, comments or memberships
+ * (see {@link #isDeleting(Long)}). Writes that passed that check just before the deletion started
+ * are caught by sweeping the content stages again until a sweep finds nothing, before the group
+ * row is removed.
+ *
+ * The pipeline runs asynchronously; its progress is kept in memory and can be polled per group
+ * for {@link #RETAIN_MINUTES} minutes after it finished.
+ * A failed pipeline can simply be started again: every stage only deletes what is still there.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class GroupDeletionPipeline {
+
+    /** Maximum number of IDs deleted per transaction. */
+    private static final int BATCH_SIZE = Integer.getInteger("minisocial.groupDeletion.batchSize", 500);
+
+    /** How long the progress of a finished deletion is kept. */
+    private static final int RETAIN_MINUTES = Integer.getInteger("minisocial.groupDeletion.retainMinutes", 60);
+
+    /** Stages in the order dictated by the foreign keys. */
+    public enum Stage {
+        LIKES, COMMENTS, POSTS, ADMINS, MEMBERSHIPS, GROUP
+    }
+
+    /** Lifecycle of a deletion. */
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    @Inject
+    private MembershipAuthorizer authorizer;
+
+    /** Progress of the deletions started since the server started, by group ID. */
+    private final Map<Long, Progress> deletions = new ConcurrentHashMap<>();
+
+    /**
+     * Starts deleting a group in the background, unless a deletion of that group is already running.
+     *
+     * @param groupId the ID of the group.
+     * @return the progress of the (new or running) deletion.
+     */
+    public Progress start(Long groupId) {
+        prune();
+        Progress progress = new Progress(groupId);
+        Progress current = deletions.compute(groupId, (id, existing) ->
+                existing != null && existing.getStatus() == Status.RUNNING ? existing : progress);
+        if (current == progress) {
+            sessionContext.getBusinessObject(GroupDeletionPipeline.class).run(groupId, progress);
+        }
+        return current;
+    }
+
+    /**
+     * Returns the progress of the last deletion of a group.
+     *
+     * @param groupId the ID of the group.
+     * @return the progress, or null if no deletion was started for it.
+     */
+    public Progress getProgress(Long groupId) {
+        return deletions.get(groupId);
+    }
+
+    /**
+     * Returns whether a deletion of the group is running; services reject writes to such a group.
+     *
+     * @param groupId the ID of the group.
+     * @return true if the group is being deleted.
+     */
+    public boolean isDeleting(Long groupId) {
+        Progress progress = groupId == null ? null : deletions.get(groupId);
+        return progress != null && progress.getStatus() == Status.RUNNING;
+    }
+
+    /**
+     * Runs all stages. Executes outside any transaction; each batch gets its own.
+     */
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void run(Long groupId, Progress progress) {
+        GroupDeletionPipeline self = sessionContext.getBusinessObject(GroupDeletionPipeline.class);
+        try {
+            // Sweep the content again until nothing is left, then remove the group row
+            long swept;
+            do {
+                swept = 0;
+                for (Stage stage : Stage.values()) {
+                    if (stage != Stage.GROUP) {
+                        swept += runStage(self, stage, groupId, progress);
+                    }
+                }
+            } while (swept > 0);
+            runStage(self, Stage.GROUP, groupId, progress);
+            progress.status = Status.COMPLETED;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            progress.error = e.getMessage();
+            progress.status = Status.FAILED;
+        } finally {
+            progress.finishedAt = Instant.now();
+        }
+    }
+
+    /**
+     * Runs one stage batch by batch until it is done.
+     *
+     * @return the number of rows deleted by the stage.
+     */
+    private long runStage(GroupDeletionPipeline self, Stage stage, Long groupId, Progress progress) {
+        progress.stage = stage;
+        long total = 0;
+        int deleted;
+        do {
+            deleted = self.deleteBatch(stage, groupId);
+            progress.deleted.get(stage).addAndGet(deleted);
+            total += deleted;
+        } while (deleted >= BATCH_SIZE);
+        return total;
+    }
+
+    /**
+     * Drops the progress of deletions that finished more than {@link #RETAIN_MINUTES} minutes ago.
+     */
+    private void prune() {
+        Instant cutoff = Instant.now().minus(RETAIN_MINUTES, ChronoUnit.MINUTES);
+        deletions.values().removeIf(p -> p.getFinishedAt() != null && p.getFinishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Deletes one batch of a stage in a new transaction.
+     *
+     * @param stage the stage.
+     * @param groupId the ID of the group.
+     * @return the number of rows deleted; fewer than the batch size means the stage is done.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int deleteBatch(Stage stage, Long groupId) {
+        switch (stage) {
+            case LIKES:
+                return deleteByIds(GroupUtil.GET_GROUP_LIKE_IDS_QUERY, GroupUtil.DELETE_LIKES_BY_IDS_QUERY, groupId);
+            case COMMENTS:
+                return deleteByIds(GroupUtil.GET_GROUP_COMMENT_IDS_QUERY, GroupUtil.DELETE_COMMENTS_BY_IDS_QUERY, groupId);
+            case POSTS:
+                return deletePosts(groupId);
+            case ADMINS:
+                return deleteAdmins(groupId);
+            case MEMBERSHIPS:
+                return deleteMemberships(groupId);
+            case GROUP:
+                return deleteGroupRow(groupId);
+            default:
+                throw new IllegalStateException("Unknown stage " + stage);
+        }
+    }
+
+    /**
+     * Selects up to BATCH_SIZE IDs and deletes them.
+     */
+    private int deleteByIds(String idsQuery, String deleteQuery, Long groupId) {
+        List<?> ids = nextIds(idsQuery, groupId);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        em.createQuery(deleteQuery).setParameter("ids", ids).executeUpdate();
+        return ids.size();
+    }
+
+    /**
+     * Deletes a batch of posts with the likes, comments and counters still attached to them.
+     */
+    private int deletePosts(Long groupId) {
+        List<?> ids = nextIds(GroupUtil.GET_GROUP_POST_IDS_QUERY, groupId);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        em.createQuery(GroupUtil.DELETE_LIKES_BY_POST_IDS_QUERY).setParameter("ids", ids).executeUpdate();
+        em.createQuery(GroupUtil.DELETE_COMMENTS_BY_POST_IDS_QUERY).setParameter("ids", ids).executeUpdate();
+        em.createQuery(GroupUtil.DELETE_COUNTERS_BY_POST_IDS_QUERY).setParameter("ids", ids).executeUpdate();
+        em.createQuery(GroupUtil.DELETE_GROUP_POSTS_BY_IDS_QUERY).setParameter("ids", ids).executeUpdate();
+        return ids.size();
+    }
+
+    /**
+     * Deletes a batch of GroupAdmins rows; once they are gone, the admin join table rows too.
+     */
+    private int deleteAdmins(Long groupId) {
+        int deleted = deleteByIds(GroupUtil.GET_GROUP_ADMIN_IDS_QUERY, GroupUtil.DELETE_GROUP_ADMINS_BY_IDS_QUERY, groupId);
+        if (deleted < BATCH_SIZE) {
+            em.createNativeQuery(GroupUtil.DELETE_ADMIN_JOIN_ROWS_SQL).setParameter(1, groupId).executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes a batch of memberships and drops the cached permissions of the group.
+     */
+    private int deleteMemberships(Long groupId) {
+        int deleted = deleteByIds(GroupUtil.GET_GROUP_MEMBERSHIP_IDS_QUERY, GroupUtil.DELETE_MEMBERSHIPS_BY_IDS_QUERY, groupId);
+        CacheRegions.evictAllAfterCommit(em, GroupMembership.class);
+        authorizer.invalidateGroup(groupId);
+        return deleted;
+    }
+
+    /**
+     * Deletes the group row itself.
+     */
+    private int deleteGroupRow(Long groupId) {
+        Group group = em.find(Group.class, groupId);
+        if (group == null) {
+            return 0;
+        }
+        em.remove(group);
+        CacheRegions.evictAfterCommit(em, Group.class, groupId);
+        return 1;
+    }
+
+    private List<?> nextIds(String idsQuery, Long groupId) {
+        return em.createQuery(idsQuery)
+                .setParameter("groupId", groupId)
+                .setMaxResults(BATCH_SIZE)
+                .getResultList();
+    }
+
+    /**
+     * Progress of one group deletion, readable while the pipeline runs.
+     */
+    public static class Progress {
+        private final Long groupId;
+        private final Instant startedAt = Instant.now();
+        private final Map<Stage, AtomicLong> deleted = new ConcurrentHashMap<>();
+        private volatile Status status = Status.RUNNING;
+        private volatile Stage stage = Stage.LIKES;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Progress(Long groupId) {
+            this.groupId = groupId;
+            for (Stage s : Stage.values()) {
+                deleted.put(s, new AtomicLong());
+            }
+        }
+
+        public Long getGroupId() { return groupId; }
+
+        public Status getStatus() { return status; }
+
+        public Stage getStage() { return stage; }
+
+        public Instant getStartedAt() { return startedAt; }
+
+        public Instant getFinishedAt() { return finishedAt; }
+
+        public String getError() { return error; }
+
+        /**
+         * @return the number of rows deleted so far per stage.
+         */
+        public Map<Stage, Long> getDeleted() {
+            Map<Stage, Long> counts = new EnumMap<>(Stage.class);
+            deleted.forEach((s, count) -> counts.put(s, count.get()));
+            return counts;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package service;
 
+import Utils.CacheRegions;
 import Utils.GroupMembershipUtil;
+import dtos.BulkOutcomeDTO;
 import dtos.GroupMembershipDTO;
 import enums.GroupMemberShipStatusEnum;
 import models.Group;
@@ -10,11 +12,16 @@ import models.User;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +39,14 @@ public class GroupMembershipService {
     @Inject
     private GroupMembershipUtil util;
 
+    // 🔹 Cached permission checks, invalidated on every membership change
+    @Inject
+    private MembershipAuthorizer authorizer;
+
+    // 🔹 Groups being deleted accept no new content
+    @Inject
+    private GroupDeletionPipeline deletionPipeline;
+
     /**
      * Handles a user's request to join a group.
      * 
@@ -55,6 +70,10 @@ public class GroupMembershipService {
         List<String> errors = util.validateJoinRequest(user, group, alreadyMember);
         if (!errors.isEmpty()) return errors;
 
+        if (deletionPipeline.isDeleting(groupId)) {
+            return List.of("This group is being deleted.");
+        }
+
        
         GroupMembership membership = new GroupMembership();
         membership.setUser(user);
@@ -71,6 +90,7 @@ public class GroupMembershipService {
                 : GroupMemberShipStatusEnum.pending);
 
         em.persist(membership);
+        authorizer.invalidate(userId, groupId);
         return GroupMembershipDTO.fromEntity(membership);
     }
 
@@ -96,6 +116,7 @@ public class GroupMembershipService {
         membership.setJoinedDate(new Date());
 
         em.persist(membership);
+        authorizer.invalidate(userId, group.getGroupId());
     }
 
     /**
@@ -113,7 +134,7 @@ public class GroupMembershipService {
 
       
         TypedQuery<GroupMembership> query = em.createQuery(
-                GroupMembershipUtil.FIND_PENDING_MEMBERSHIPS_FOR_GROUP, GroupMembership.class);
+                GroupMembershipUtil.FIND_MEMBERSHIPS_FOR_GROUP_BY_STATUS, GroupMembership.class);
         query.setParameter("groupId", groupId);
         query.setParameter("status", GroupMemberShipStatusEnum.pending);
 
@@ -149,10 +170,62 @@ public class GroupMembershipService {
       
         GroupMembership membership = results.get(0);
         membership.setStatus(approve ? GroupMemberShipStatusEnum.approved : GroupMemberShipStatusEnum.rejected);
+        authorizer.invalidate(userId, groupId);
 
         return GroupMembershipDTO.fromEntity(membership);
     }
 
+    /**
+     * Approves or rejects the pending requests of many users in a group in one transaction.
+     * The pending memberships are locked and loaded with one query and updated with one
+     * set-based UPDATE.
+     * 
+     * @param groupId The ID of the group.
+     * @param userIds The IDs of the users whose requests are responded to, in the order of the returned outcomes.
+     * @param approve A flag indicating whether the requests are approved or rejected.
+     * @return A list of errors if the group does not exist, otherwise one BulkOutcomeDTO per user ID.
+     */
+    public Object respondToRequests(Long groupId, List<Long> userIds, boolean approve) {
+        if (em.find(Group.class, groupId) == null) {
+            return List.of("Group with ID " + groupId + " does not exist.");
+        }
+
+        Map<Long, GroupMembership> pending = new HashMap<>();
+        em.createQuery(GroupMembershipUtil.FIND_PENDING_REQUESTS_FOR_USERS, GroupMembership.class)
+                .setParameter("groupId", groupId)
+                .setParameter("userIds", userIds.stream().distinct().collect(Collectors.toList()))
+                .setParameter("status", GroupMemberShipStatusEnum.pending)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList()
+                .forEach(m -> pending.put(m.getUser().getUserId(), m));
+
+        if (!pending.isEmpty()) {
+            em.createQuery(GroupMembershipUtil.UPDATE_MEMBERSHIP_STATUS_BY_IDS)
+                    .setParameter("newStatus", approve ? GroupMemberShipStatusEnum.approved : GroupMemberShipStatusEnum.rejected)
+                    .setParameter("membershipIds", pending.values().stream().map(GroupMembership::getId).collect(Collectors.toList()))
+                    .setParameter("status", GroupMemberShipStatusEnum.pending)
+                    .executeUpdate();
+
+            // The bulk update bypasses the second-level cache and the managed instances
+            CacheRegions.evictAllAfterCommit(em, GroupMembership.class);
+            pending.keySet().forEach(userId -> authorizer.invalidate(userId, groupId));
+        }
+
+        List<BulkOutcomeDTO> outcomes = new ArrayList<>(userIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long userId : userIds) {
+            if (!seen.add(userId)) {
+                outcomes.add(new BulkOutcomeDTO(userId, BulkOutcomeDTO.DUPLICATE, null));
+            } else if (!pending.containsKey(userId)) {
+                outcomes.add(new BulkOutcomeDTO(userId, BulkOutcomeDTO.NOT_PENDING, null));
+            } else {
+                outcomes.add(new BulkOutcomeDTO(userId,
+                        approve ? BulkOutcomeDTO.ACCEPTED : BulkOutcomeDTO.REJECTED, userId));
+            }
+        }
+        return outcomes;
+    }
+
     /**
      * Allows a user to leave a group by removing their membership.
      * 
@@ -176,6 +249,8 @@ public class GroupMembershipService {
 
     
         em.remove(membership);
+        CacheRegions.evictAfterCommit(em, GroupMembership.class, membership.getId());
+        authorizer.invalidate(userId, groupId);
         return new ArrayList<>();
     }
 }
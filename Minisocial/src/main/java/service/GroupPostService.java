@@ -3,10 +3,10 @@ package service;
 import models.User;
 import models.GroupPost;
 import models.Group;
-import models.GroupMembership;
+import Utils.PageCursor;
 import Utils.PostFactory;
 import dtos.GroupPostDTO;
-import enums.GroupMemberShipStatusEnum;
+import dtos.PageDTO;
 import Utils.GroupPostUtil;
 
 import javax.ejb.Stateless;
@@ -30,6 +30,13 @@ public class GroupPostService {
     @Inject
     private GroupService groupService;
 
+    @Inject
+    private MembershipAuthorizer authorizer;
+
+    // Groups being deleted accept no new content
+    @Inject
+    private GroupDeletionPipeline deletionPipeline;
+
     
     // Method to create a GroupPost for a user within a group
     /**
@@ -56,8 +63,15 @@ public class GroupPostService {
             return "Group with ID " + groupId + " does not exist.";
         }
 
+        if (deletionPipeline.isDeleting(groupId)) {
+            return "Group with ID " + groupId + " is being deleted.";
+        }
+
        
         List<String> validationErrors = GroupPostUtil.validateGroupPost(post.getContent(), post.getImageUrl(), user, group);
+        if (!authorizer.isMember(userId, groupId)) {
+            validationErrors.add("You must be a member of the group to post in it.");
+        }
         if (!validationErrors.isEmpty()) {
             return "GroupPost validation failed: " + String.join(", ", validationErrors);
         }
@@ -83,19 +97,25 @@ public class GroupPostService {
     }
 
     /**
-     * Retrieves all group posts associated with a specific group.
+     * Retrieves one page of group posts associated with a specific group, newest first.
      * 
      * @param groupId The ID of the group whose posts are being retrieved.
-     * @return A list of GroupPostDTO objects representing the posts in the group.
+     * @param cursor The position after which the page starts.
+     * @param limit The maximum number of posts in the page.
+     * @return A page of GroupPostDTO objects representing the posts in the group.
      */
-    public List<GroupPostDTO> getAllGroupPosts(Long groupId) {
+    public PageDTO<GroupPostDTO> getAllGroupPosts(Long groupId, PageCursor cursor, int limit) {
 
-        TypedQuery<GroupPost> query = em.createQuery(GroupPostUtil.GET_GROUP_POSTS_QUERY, GroupPost.class);
+        TypedQuery<GroupPost> query = em.createQuery(GroupPostUtil.GET_GROUP_POSTS_PAGE_QUERY, GroupPost.class);
         query.setParameter("groupId", groupId);
+        query.setParameter("beforeId", cursor.getIntId());
+        query.setMaxResults(limit + 1);
         
         try {
             List<GroupPost> posts = query.getResultList();
-            return GroupPostDTO.fromGroupPostList(posts);  
+            return PageDTO.of(posts, limit,
+                    p -> PageCursor.ofId(p.getPostId()),
+                    GroupPostDTO::fromGroupPostList);  
         } catch (Exception e) {
             return null;
         }
@@ -197,23 +217,8 @@ public class GroupPostService {
      * @return true if the user is a member of the group, false otherwise.
      */
     public boolean isUserMemberOfGroup(Long userId, Long groupId) {
-        // Query to find the membership record for the user and group
-        TypedQuery<GroupMembership> query = em.createQuery(
-            "SELECT gm FROM GroupMembership gm WHERE gm.user.id = :userId AND gm.group.id = :groupId", 
-            GroupMembership.class
-        );
-        query.setParameter("userId", userId);
-        query.setParameter("groupId", groupId);
-
-        List<GroupMembership> memberships = query.getResultList();
-
-        // If the membership exists and the status is active, return true
-        for (GroupMembership membership : memberships) {
-            if (membership.getStatus() == GroupMemberShipStatusEnum.approved) {
-                return true;
-            }
-        }
-        return false;
+        // Approved members and admins, served from the membership cache
+        return authorizer.isMember(userId, groupId);
     }
     
     /**
@@ -1,5 +1,7 @@
 package service;
 
+import Utils.CacheRegions;
+import Utils.GroupMembershipUtil;
 import Utils.GroupUtil;
 import dtos.GroupDTO;
 import enums.GroupMemberShipStatusEnum;
@@ -8,6 +10,7 @@ import models.GroupMembership;
 import models.User;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
@@ -42,6 +45,18 @@ public class GroupService {
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Cached group permission checks.
+     */
+    @Inject
+    private MembershipAuthorizer authorizer;
+
+    /**
+     * Chunked, asynchronous deletion of groups and their content.
+     */
+    @Inject
+    private GroupDeletionPipeline deletionPipeline;
+
     /**
      * GroupCreationResult
      *
@@ -119,6 +134,7 @@ public class GroupService {
         membership.setStatus(GroupMemberShipStatusEnum.approved);
         membership.setJoinedDate(new Date());
         entityManager.persist(membership);
+        authorizer.invalidate(adminUser.getUserId(), group.getGroupId());
 
         return new GroupCreationResult(GroupDTO.fromGroup(group));
     }
@@ -130,24 +146,14 @@ public class GroupService {
      * @return List of approved GroupMembership entities.
      */
     public List<GroupMembership> getApprovedMembershipsByGroupId(Long groupId) {
-        return entityManager.createQuery(
-                "SELECT gm FROM GroupMembership gm WHERE gm.group.groupId = :groupId AND gm.status = :status",
-                GroupMembership.class)
+        return entityManager.createQuery(GroupMembershipUtil.FIND_MEMBERSHIPS_FOR_GROUP_BY_STATUS, GroupMembership.class)
                 .setParameter("groupId", groupId)
                 .setParameter("status", GroupMemberShipStatusEnum.approved)
                 .getResultList();
     }
     
     boolean isUserAdmin(Long userId, Long groupId) {
-        Long count = entityManager.createQuery(
-            "SELECT COUNT(gm) FROM GroupMembership gm WHERE gm.user.userId = :userId AND gm.group.groupId = :groupId AND gm.role = :role",
-            Long.class)
-            .setParameter("userId", userId)
-            .setParameter("groupId", groupId)
-            .setParameter("role", "admin")
-            .getSingleResult();
-
-        return count > 0;
+        return authorizer.isAdmin(userId, groupId);
     }
     
    
@@ -177,6 +183,7 @@ public class GroupService {
 
         membership.setRole("admin");
         entityManager.merge(membership);
+        authorizer.invalidate(targetUserId, groupId);
         result.put("message", "User promoted to admin successfully.");
         return result;
     }
@@ -200,14 +207,22 @@ public class GroupService {
             return result;
         }
 
-        // Remove memberships first due to foreign key constraints
-        entityManager.createQuery("DELETE FROM GroupMembership gm WHERE gm.group.groupId = :gid")
-            .setParameter("gid", groupId).executeUpdate();
-
-        entityManager.remove(group);
-        result.put("message", "Group deleted successfully.");
+        // Likes, comments, posts, admins and memberships are removed in batches in the background
+        GroupDeletionPipeline.Progress progress = deletionPipeline.start(groupId);
+        result.put("message", "Group deletion started.");
+        result.put("progress", progress);
         return result;
     }
+
+    /**
+     * Retrieves the progress of the last deletion started for a group.
+     *
+     * @param groupId The ID of the group.
+     * @return the progress, or null if no deletion was started since the server started.
+     */
+    public GroupDeletionPipeline.Progress getDeletionProgress(Long groupId) {
+        return deletionPipeline.getProgress(groupId);
+    }
     
    
     public Map<String, Object> removeUserFromGroup(Long adminId, Long targetUserId, Long groupId) {
@@ -235,6 +250,8 @@ public class GroupService {
         }
 
         entityManager.remove(membership);
+        CacheRegions.evictAfterCommit(entityManager, GroupMembership.class, membership.getId());
+        authorizer.invalidate(targetUserId, groupId);
         result.put("message", "User removed from group.");
         return result;
     }
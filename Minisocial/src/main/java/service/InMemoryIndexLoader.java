@@ -0,0 +1,114 @@
+package service;
+
+import Utils.FriendshipUtils;
+import Utils.SocialGraphIndex;
+import Utils.UserSearchIndex;
+import Utils.UserUtils;
+import dtos.UserSummaryDTO;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.DependsOn;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * InMemoryIndexLoader – Fills the in-memory indexes from the database when the application starts.
+ *
+ * Friendship edges are streamed ordered by user, so each user's adjacency array is built
+ * in one pass without loading the whole table into memory; since each pair is stored once,
+ * the edges are streamed from both sides of the pair. User summaries are streamed the
+ * same way into the user search index.
+ */
+@Singleton
+@Startup
+@DependsOn("FriendshipPairMigration")
+public class InMemoryIndexLoader {
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    /**
+     * Loads all in-memory indexes.
+     */
+    @PostConstruct
+    public void load() {
+        loadSocialGraph();
+        loadUserSearchIndex();
+    }
+
+    /**
+     * Loads the social graph index. Every friendship row is read twice, once grouped by
+     * its lower user and once grouped by its higher user, so both users get the edge.
+     */
+    public void loadSocialGraph() {
+        SocialGraphIndex index = SocialGraphIndex.getInstance();
+
+        long edges = loadFriendEdges(index, FriendshipUtils.GET_ALL_FRIEND_EDGES_QUERY);
+        loadFriendEdges(index, FriendshipUtils.GET_ALL_FRIEND_EDGES_REVERSED_QUERY);
+
+        index.markLoaded();
+        System.out.println("Social graph index loaded: " + index.size() + " users, " + edges + " friendship rows.");
+    }
+
+    /**
+     * Streams (userId, friendId) rows ordered by user and friend into the index.
+     *
+     * @return the number of rows read.
+     */
+    private long loadFriendEdges(SocialGraphIndex index, String query) {
+        long edges = 0;
+        try (Stream<Object[]> rows = em.createQuery(query, Object[].class)
+                .getResultStream()) {
+            Iterator<Object[]> it = rows.iterator();
+
+            long currentUser = Long.MIN_VALUE;
+            long[] friends = new long[16];
+            int count = 0;
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                long userId = (Long) row[0];
+                long friendId = (Long) row[1];
+
+                if (userId != currentUser) {
+                    if (count > 0) {
+                        index.mergeFriends(currentUser, Arrays.copyOf(friends, count));
+                    }
+                    currentUser = userId;
+                    count = 0;
+                }
+                if (count == friends.length) {
+                    friends = Arrays.copyOf(friends, count * 2);
+                }
+                // Rows are ordered by friend ID; skip duplicate edges
+                if (count == 0 || friends[count - 1] != friendId) {
+                    friends[count++] = friendId;
+                }
+                edges++;
+            }
+            if (count > 0) {
+                index.mergeFriends(currentUser, Arrays.copyOf(friends, count));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Loads the user search index.
+     */
+    public void loadUserSearchIndex() {
+        UserSearchIndex index = UserSearchIndex.getInstance();
+
+        try (Stream<UserSummaryDTO> users = em.createQuery(UserUtils.GET_ALL_USER_SUMMARIES_QUERY, UserSummaryDTO.class)
+                .getResultStream()) {
+            users.forEach(index::index);
+        }
+
+        index.markLoaded();
+        System.out.println("User search index loaded: " + index.size() + " users.");
+    }
+}
@@ -0,0 +1,142 @@
+package service;
+
+import Utils.BloomFilter;
+import Utils.LikeUtils;
+import Utils.LruCache;
+import Utils.TransactionHooks;
+
+import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * LikeFilterRegistry – Bloom filters of the users who liked hot posts.
+ *
+ * Most like attempts come from users who have not liked the post yet. For a post that
+ * receives many like attempts, a Bloom filter over the IDs of its likers answers
+ * "definitely not liked yet" without touching the database; only possible duplicates
+ * fall through to the indexed existence query.
+ *
+ * A filter is built once a post has been probed {@link #HOT_THRESHOLD} times and is
+ * updated after every committed like. The build streams every liker ID of the post, so it
+ * runs asynchronously; like attempts go to the database until the filter is published.
+ * Likes committed while a filter is built are added to it, since it is registered before
+ * its likers are read. The unique constraint on (user, post) in the likes table stays the
+ * source of truth.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class LikeFilterRegistry {
+
+    /** Number of like attempts after which a post gets a filter. */
+    private static final int HOT_THRESHOLD = Integer.getInteger("minisocial.likes.bloomThreshold", 50);
+
+    /** Maximum number of posts with a filter (least recently used are dropped). */
+    private static final int MAX_FILTERS = Integer.getInteger("minisocial.likes.bloomPosts", 1000);
+
+    /** Target false-positive rate of the filters. */
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    /** Filters are sized for twice the current likes, so they absorb growth before saturating. */
+    private static final int GROWTH_FACTOR = 2;
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    @Resource
+    private SessionContext sessionContext;
+
+    /** Like attempts per post that has no filter yet. */
+    private final LruCache<Integer, AtomicInteger> probes = new LruCache<>(MAX_FILTERS * 10);
+
+    /** Filters of hot posts keyed by post ID. */
+    private final LruCache<Integer, BloomFilter> filters = new LruCache<>(MAX_FILTERS);
+
+    /** Filters being built, keyed by post ID. */
+    private final Map<Integer, BloomFilter> building = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether a user may already have liked a post.
+     *
+     * @param postId the ID of the post (UserPost or GroupPost).
+     * @param userId the ID of the user.
+     * @return false if the user has definitely not liked the post,
+     *         true if the database has to be asked.
+     */
+    public boolean mightHaveLiked(int postId, Long userId) {
+        BloomFilter filter = filters.get(postId);
+        if (filter != null) {
+            return filter.mightContain(userId);
+        }
+        if (building.containsKey(postId)) {
+            return true;
+        }
+        AtomicInteger attempts = probes.computeIfAbsent(postId, id -> new AtomicInteger());
+        if (attempts.incrementAndGet() == HOT_THRESHOLD) {
+            probes.remove(postId);
+            sessionContext.getBusinessObject(LikeFilterRegistry.class).build(postId);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a like to the post's filter once the current transaction commits.
+     *
+     * @param postId the ID of the liked post.
+     * @param userId the ID of the user who liked it.
+     */
+    public void recordLike(int postId, Long userId) {
+        TransactionHooks.afterCommit(() -> {
+            BloomFilter filter = filters.get(postId);
+            if (filter == null) {
+                filter = building.get(postId);
+            }
+            if (filter == null) {
+                return;
+            }
+            filter.put(userId);
+            if (filter.isSaturated()) {
+                // Rebuilt with a larger size on the next like attempts
+                filters.remove(postId);
+            }
+        });
+    }
+
+    /**
+     * Builds the filter of a post from the likes table in the background and publishes it.
+     * Does nothing if the filter of the post is already being built.
+     *
+     * @param postId the ID of the post.
+     */
+    @Asynchronous
+    public void build(int postId) {
+        long likes = em.createQuery(LikeUtils.COUNT_LIKES_FOR_POST_QUERY, Long.class)
+                .setParameter("postId", postId)
+                .getSingleResult();
+
+        int expected = (int) Math.min(Integer.MAX_VALUE / GROWTH_FACTOR, Math.max(1024, likes)) * GROWTH_FACTOR;
+        BloomFilter filter = new BloomFilter(expected, FALSE_POSITIVE_RATE);
+        if (building.putIfAbsent(postId, filter) != null) {
+            return;
+        }
+        try {
+            try (Stream<Long> likerIds = em.createQuery(LikeUtils.GET_LIKER_IDS_FOR_POST_QUERY, Long.class)
+                    .setParameter("postId", postId)
+                    .getResultStream()) {
+                likerIds.forEach(filter::put);
+            }
+            filters.put(postId, filter);
+        } finally {
+            building.remove(postId);
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package service;
 
 import Utils.LikeUtils;
+import Utils.PageCursor;
+import Utils.PersistenceUtils;
+import dtos.LikeDTO;
+import dtos.PageDTO;
+import enums.CounterType;
 import models.*;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 import java.util.Date;
 import java.util.List;
@@ -22,6 +30,22 @@ public class LikeService {
     @PersistenceContext(unitName = "hello")
     private EntityManager em;
 
+    // Like counters of posts (replaces read-modify-write on Post.likesCount)
+    @Inject
+    private EngagementCounterService counterService;
+
+    // Bloom filters of hot posts, short-circuit the "not liked yet" case
+    @Inject
+    private LikeFilterRegistry likeFilters;
+
+    // Cached group permission checks
+    @Inject
+    private MembershipAuthorizer authorizer;
+
+    // Groups being deleted accept no new content
+    @Inject
+    private GroupDeletionPipeline deletionPipeline;
+
     // -------------------- User & Post Finders --------------------
     
     /**
@@ -54,60 +78,65 @@ public class LikeService {
         return em.find(GroupPost.class, postId);
     }
 
-    // -------------------- Friendships --------------------
-
-    /**
-     * Fetches all friendships associated with a specific user.
-     *
-     * @param user the User whose friendships are to be fetched
-     * @return a list of Friendships for the user
-     */
-    public List<Friendships> getAllFriendshipsForUser(User user) {
-        TypedQuery<Friendships> query = em.createQuery(LikeUtils.GET_ALL_FRIENDS_QUERY, Friendships.class);
-        query.setParameter("userId", user.getUserId());
-        return query.getResultList();
-    }
-
     // -------------------- Get Likes for UserPost --------------------
 
     /**
-     * Fetches all likes for a specific UserPost.
+     * Fetches one page of likes for a specific UserPost, newest first.
      *
      * @param postId the ID of the user post
-     * @return a list of likes for the post
+     * @param cursor the position after which the page starts
+     * @param limit the maximum number of likes in the page
+     * @return a page of likes for the post
      * @throws IllegalArgumentException if the post is not found
      */
-    public List<Like> getLikesForUserPost(int postId) {
+    public PageDTO<LikeDTO> getLikesForUserPost(int postId, PageCursor cursor, int limit) {
         UserPost post = findUserPostById(postId);
         if (post == null) {
             throw new IllegalArgumentException("UserPost not found for ID: " + postId);
         }
 
-        TypedQuery<Like> query = em.createQuery(LikeUtils.GET_LIKES_BY_USER_POST_QUERY, Like.class);
+        TypedQuery<Like> query = em.createQuery(LikeUtils.GET_LIKES_BY_USER_POST_PAGE_QUERY, Like.class);
         query.setParameter("postId", postId);
-        return query.getResultList();
+        return fetchLikePage(query, cursor, limit);
     }
 
     // -------------------- Get Likes for GroupPost --------------------
 
     /**
-     * Fetches all likes for a specific GroupPost.
+     * Fetches one page of likes for a specific GroupPost, newest first.
      *
      * @param postId the ID of the group post
      * @param groupId the ID of the group
-     * @return a list of likes for the group post
+     * @param cursor the position after which the page starts
+     * @param limit the maximum number of likes in the page
+     * @return a page of likes for the group post
      * @throws IllegalArgumentException if the post is not found
      */
-    public List<Like> getLikesForGroupPost(int postId, Long groupId) {
+    public PageDTO<LikeDTO> getLikesForGroupPost(int postId, Long groupId, PageCursor cursor, int limit) {
         GroupPost groupPost = findGroupPostById(postId);
         if (groupPost == null) {
             throw new IllegalArgumentException("GroupPost not found for ID: " + postId);
         }
 
-        TypedQuery<Like> query = em.createQuery(LikeUtils.GET_LIKES_BY_GROUP_POST_QUERY, Like.class);
+        TypedQuery<Like> query = em.createQuery(LikeUtils.GET_LIKES_BY_GROUP_POST_PAGE_QUERY, Like.class);
         query.setParameter("postId", postId);
         query.setParameter("groupId", groupId);
-        return query.getResultList();
+        return fetchLikePage(query, cursor, limit);
+    }
+
+    /**
+     * Binds the keyset parameters of a like page query and runs it.
+     * One extra row is fetched to find out whether a next page exists.
+     */
+    private PageDTO<LikeDTO> fetchLikePage(TypedQuery<Like> query, PageCursor cursor, int limit) {
+        query.setParameter("beforeTs", cursor.getTimestampAsDate(), TemporalType.TIMESTAMP);
+        query.setParameter("beforeId", cursor.getIntId());
+        query.setMaxResults(limit + 1);
+
+        List<Like> likes = query.getResultList();
+        return PageDTO.of(likes, limit,
+                l -> PageCursor.of(l.getTimestamp(), l.getLikeId()),
+                LikeDTO::fromLikeList);
     }
 
     // -------------------- Like a UserPost --------------------
@@ -122,25 +151,17 @@ public class LikeService {
      */
     public List<String> likeUserPost(Long userId, int postId) {
         User user = findUserById(userId);
-        List<Friendships> friendships = getAllFriendshipsForUser(user);
 
         UserPost post = findUserPostById(postId);
         if (post == null) return List.of("UserPost not found");
 
         // Validate Like
-        List<String> errors = LikeUtils.validateUserPostLike(user, post, friendships);
+        List<String> errors = LikeUtils.validateUserPostLike(user, post);
         if (!errors.isEmpty()) return errors;
 
         // Prevent duplicate like
-        TypedQuery<Like> likeQuery = em.createQuery(LikeUtils.GET_LIKES_BY_USER_POST_QUERY, Like.class);
-        likeQuery.setParameter("postId", postId);
-        List<Like> existingLikes = likeQuery.getResultList();
-
-        for (Like like : existingLikes) {
-            if (like.getUser().getUserId().equals(userId)) {
-                errors.add("You can only like a post once.");
-                break;
-            }
+        if (likeFilters.mightHaveLiked(postId, userId) && hasUserLikedUserPost(userId, postId)) {
+            errors.add("You can only like a post once.");
         }
 
         if (!errors.isEmpty()) return errors;
@@ -151,10 +172,11 @@ public class LikeService {
         like.setPost(post);
         like.setTimestamp(new Date());
 
+        if (!insertLike(like)) return List.of("You can only like a post once.");
+        likeFilters.recordLike(postId, userId);
+
         // Update like count
-        post.setLikesCount(post.getLikesCount() + 1);
-        em.merge(post);
-        em.persist(like);
+        counterService.increment(postId, CounterType.LIKES, 1);
 
         return List.of(); // Success
     }
@@ -177,6 +199,10 @@ public class LikeService {
         GroupPost groupPost = findGroupPostById(postId);
         if (groupPost == null) return List.of("GroupPost not found");
 
+        if (deletionPipeline.isDeleting(groupPost.getGroup().getGroupId())) {
+            return List.of("This group is being deleted.");
+        }
+
         // Check group membership only
         boolean isGroupMember = isUserMemberOfGroup(user, groupId);
         if (!isGroupMember) {
@@ -189,15 +215,8 @@ public class LikeService {
         }
 
         // Prevent duplicate likes
-        TypedQuery<Like> likeQuery = em.createQuery(LikeUtils.GET_LIKES_BY_GROUP_POST_QUERY, Like.class);
-        likeQuery.setParameter("postId", postId);
-        likeQuery.setParameter("groupId", groupId);
-        List<Like> existingLikes = likeQuery.getResultList();
-
-        for (Like like : existingLikes) {
-            if (like.getUser().getUserId().equals(userId)) {
-                return List.of("You can only like a post once.");
-            }
+        if (likeFilters.mightHaveLiked(postId, userId) && hasUserLikedGroupPost(userId, postId)) {
+            return List.of("You can only like a post once.");
         }
 
         // Create Like
@@ -206,14 +225,66 @@ public class LikeService {
         like.setGroupPost(groupPost);
         like.setTimestamp(new Date());
 
+        if (!insertLike(like)) return List.of("You can only like a post once.");
+        likeFilters.recordLike(postId, userId);
+
         // Update like count
-        groupPost.setLikesCount(groupPost.getLikesCount() + 1);
-        em.merge(groupPost);
-        em.persist(like);
+        counterService.increment(postId, CounterType.LIKES, 1);
 
         return List.of(); // Success
     }
 
+    // -------------------- Duplicate Like Checks --------------------
+
+    /**
+     * Checks whether a user already liked a UserPost (single indexed lookup).
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the user post
+     * @return true if a like exists
+     */
+    public boolean hasUserLikedUserPost(Long userId, int postId) {
+        return em.createQuery(LikeUtils.HAS_LIKED_USER_POST_QUERY, Long.class)
+                 .setParameter("userId", userId)
+                 .setParameter("postId", postId)
+                 .getSingleResult() > 0;
+    }
+
+    /**
+     * Checks whether a user already liked a GroupPost (single indexed lookup).
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the group post
+     * @return true if a like exists
+     */
+    public boolean hasUserLikedGroupPost(Long userId, int postId) {
+        return em.createQuery(LikeUtils.HAS_LIKED_GROUP_POST_QUERY, Long.class)
+                 .setParameter("userId", userId)
+                 .setParameter("postId", postId)
+                 .getSingleResult() > 0;
+    }
+
+    /**
+     * Inserts a like and flushes it so the unique constraint is checked right away.
+     * A concurrent duplicate that slipped past the checks is rejected by the database;
+     * the transaction is then rolled back by the container.
+     *
+     * @param like the like to insert
+     * @return false if the user already liked the post
+     */
+    private boolean insertLike(Like like) {
+        try {
+            em.persist(like);
+            em.flush();
+            return true;
+        } catch (PersistenceException e) {
+            if (PersistenceUtils.isUniqueViolation(e, Like.UK_USER_POST, Like.UK_USER_GROUP_POST)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
     // -------------------- Group Membership Check --------------------
 
     /**
@@ -228,11 +299,6 @@ public class LikeService {
             return false;
         }
 
-        TypedQuery<GroupMembership> query = em.createQuery(LikeUtils.CHECK_GROUP_MEMBERSHIP_QUERY, GroupMembership.class);
-        query.setParameter("userId", user.getUserId());
-        query.setParameter("groupId", groupId);
-
-        List<GroupMembership> memberships = query.getResultList();
-        return !memberships.isEmpty();
+        return authorizer.isMember(user.getUserId(), groupId);
     }
 }
@@ -0,0 +1,174 @@
+package service;
+
+import Utils.GroupMembershipUtil;
+import Utils.ConcurrentLruCache;
+import Utils.TransactionHooks;
+import enums.GroupMemberShipStatusEnum;
+import enums.MembershipLevel;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MembershipAuthorizer – Single entry point for group permission checks.
+ *
+ * Resolves the {@link MembershipLevel} of a (user, group) pair with one lookup on the
+ * (user_id, group_id) index of the membership table and keeps it in a bounded concurrent LRU cache,
+ * so the permission checks of likes, comments and posts read it without taking a lock.
+ * Every service that changes a membership invalidates the pair (or the whole group) after
+ * commit. A generation counter prevents a lookup that raced with an invalidation from
+ * caching the level it read before the change.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class MembershipAuthorizer {
+
+    /** Maximum number of cached (user, group) pairs. */
+    private static final int MAX_ENTRIES = Integer.getInteger("minisocial.membership.cacheSize", 200_000);
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    private final ConcurrentLruCache<Key, MembershipLevel> levels = new ConcurrentLruCache<>(MAX_ENTRIES);
+
+    /** Bumped by every invalidation. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the permission level of a user in a group.
+     *
+     * @param userId the ID of the user.
+     * @param groupId the ID of the group.
+     * @return the level, NONE if the user has no (or a rejected) membership.
+     */
+    public MembershipLevel getLevel(Long userId, Long groupId) {
+        if (userId == null || groupId == null) {
+            return MembershipLevel.NONE;
+        }
+        Key key = new Key(userId, groupId);
+        MembershipLevel cached = levels.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long observedGeneration = generation.get();
+        MembershipLevel level = load(userId, groupId);
+        synchronized (generation) {
+            if (generation.get() == observedGeneration) {
+                levels.put(key, level);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * @return true if the user is an approved member (or admin) of the group.
+     */
+    public boolean isMember(Long userId, Long groupId) {
+        return getLevel(userId, groupId).isMember();
+    }
+
+    /**
+     * @return true if the user is an admin of the group.
+     */
+    public boolean isAdmin(Long userId, Long groupId) {
+        return getLevel(userId, groupId).isAdmin();
+    }
+
+    /**
+     * Drops the cached level of a pair now and again once the current transaction commits.
+     *
+     * @param userId the ID of the user.
+     * @param groupId the ID of the group.
+     */
+    public void invalidate(Long userId, Long groupId) {
+        Key key = new Key(userId, groupId);
+        Runnable evict = () -> {
+            synchronized (generation) {
+                generation.incrementAndGet();
+                levels.remove(key);
+            }
+        };
+        evict.run();
+        TransactionHooks.afterCommit(evict);
+    }
+
+    /**
+     * Drops the cached levels of every user of a group now and again once the current transaction commits.
+     *
+     * @param groupId the ID of the group.
+     */
+    public void invalidateGroup(Long groupId) {
+        Runnable evict = () -> {
+            synchronized (generation) {
+                generation.incrementAndGet();
+                levels.removeIf(key -> key.groupId == groupId.longValue());
+            }
+        };
+        evict.run();
+        TransactionHooks.afterCommit(evict);
+    }
+
+    /**
+     * Reads the level of a pair from the membership table.
+     */
+    private MembershipLevel load(Long userId, Long groupId) {
+        List<Object[]> rows = em.createQuery(GroupMembershipUtil.FIND_ROLE_AND_STATUS, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("groupId", groupId)
+                .getResultList();
+
+        MembershipLevel level = MembershipLevel.NONE;
+        for (Object[] row : rows) {
+            MembershipLevel rowLevel = levelOf((String) row[0], (GroupMemberShipStatusEnum) row[1]);
+            if (rowLevel.compareTo(level) > 0) {
+                level = rowLevel;
+            }
+        }
+        return level;
+    }
+
+    private static MembershipLevel levelOf(String role, GroupMemberShipStatusEnum status) {
+        if ("admin".equals(role)) {
+            return MembershipLevel.ADMIN;
+        }
+        if (status == GroupMemberShipStatusEnum.approved) {
+            return MembershipLevel.MEMBER;
+        }
+        if (status == GroupMemberShipStatusEnum.pending) {
+            return MembershipLevel.PENDING;
+        }
+        return MembershipLevel.NONE;
+    }
+
+    /**
+     * Cache key of a (user, group) pair.
+     */
+    private static final class Key {
+        private final long userId;
+        private final long groupId;
+
+        Key(long userId, long groupId) {
+            this.userId = userId;
+            this.groupId = groupId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return userId == other.userId && groupId == other.groupId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(userId) * 31 + Long.hashCode(groupId);
+        }
+    }
+}
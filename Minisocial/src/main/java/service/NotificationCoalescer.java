@@ -0,0 +1,388 @@
+package service;
+
+import Utils.TransactionHooks;
+import messaging.NotificationEvent;
+import models.NotificationEntity;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * NotificationCoalescer – Folds bursts of similar notifications into one row.
+ *
+ * Events with the same (targetUserId, eventType, referenceId) — e.g. likes on one post — share a
+ * window of {@link #WINDOW_MS} milliseconds. The first event of a window is stored immediately as a
+ * regular notification, so it reaches the user without delay. Later events of the window are only
+ * counted in memory; a scheduled flush applies them to the existing row in place ("Alice and 248
+ * others liked your post."), costing one UPDATE per window and flush instead of one INSERT per event.
+ *
+ * The first event reserves the window before its row is written, so concurrent first events of the
+ * same key (e.g. several MDB instances) are absorbed instead of each writing a row. If the reserving
+ * transaction rolls back, the window is released; events it absorbed meanwhile get a row of their own
+ * at the next flush.
+ *
+ * Folding an event moves the notification's timestamp forward; notification pages are therefore
+ * keyed on the notification ID, which never changes (see NotificationService).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class NotificationCoalescer {
+
+    /** Lifetime of a coalescing window, counted from its first event. */
+    private static final long WINDOW_MS = Long.getLong("minisocial.notifications.coalesceWindowMs", 600_000L);
+
+    /**
+     * Event types that can be coalesced, with the verb used in aggregated messages.
+     */
+    private static final Map<String, String> VERBS = new HashMap<>();
+
+    static {
+        VERBS.put("POST_LIKED", "liked your post.");
+        VERBS.put("COMMENT_ADDED", "commented on your post.");
+    }
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    @Inject
+    private NotificationInbox inbox;
+
+    /** Open windows keyed by target, event type and reference. */
+    private final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+
+    /** Expired windows replaced by a new one before their last events were flushed. */
+    private final Queue<Window> retired = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Folds an event into the open window of its key, or reserves a new window for it.
+     *
+     * @param event the incoming event.
+     * @return true if the event was absorbed (no row must be written), false if it must be stored;
+     *         in that case the caller stores it and calls {@link #open(NotificationEvent, NotificationEntity)}.
+     */
+    public boolean absorb(NotificationEvent event) {
+        WindowKey key = WindowKey.of(event);
+        if (key == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] reserved = { false };
+        Window window = windows.compute(key, (k, current) -> {
+            if (current != null && current.add(event, now)) {
+                return current;
+            }
+            if (current != null && !current.isClosed()) {
+                retired.add(current);
+            }
+            reserved[0] = true;
+            return new Window(k, now);
+        });
+
+        if (reserved[0]) {
+            TransactionHooks.afterRollback(() -> release(key, window));
+            return false;
+        }
+        // The delivery may still roll back and be redelivered: do not count it twice
+        TransactionHooks.afterRollback(window::undoAdd);
+        return true;
+    }
+
+    /**
+     * Attaches the stored notification to the window reserved for it once the current transaction commits.
+     *
+     * @param event the event that created the notification.
+     * @param notification the stored notification.
+     */
+    public void open(NotificationEvent event, NotificationEntity notification) {
+        WindowKey key = WindowKey.of(event);
+        if (key == null) {
+            return;
+        }
+        // The window reserved by absorb() in this transaction; it is not replaced while reserved
+        Window window = windows.get(key);
+        if (window == null) {
+            return;
+        }
+        Long notificationId = notification.getId();
+        TransactionHooks.afterCommit(() -> window.attach(notificationId));
+    }
+
+    /**
+     * Drops a window whose reserving transaction rolled back, unless it absorbed events meanwhile;
+     * those are written as a new notification by the next flush.
+     */
+    private void release(WindowKey key, Window window) {
+        if (window.release()) {
+            windows.remove(key, window);
+        }
+    }
+
+    /**
+     * Applies absorbed events to their notifications and closes expired windows.
+     * If the transaction rolls back, the drained counts are put back.
+     *
+     * @return the number of notifications updated.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*/2", persistent = false)
+    public synchronized int flush() {
+        long now = System.currentTimeMillis();
+        int updated = 0;
+
+        for (Iterator<Window> iterator = retired.iterator(); iterator.hasNext(); ) {
+            Window window = iterator.next();
+            if (flush(window, now)) {
+                updated++;
+            }
+            if (window.isClosed()) {
+                iterator.remove();
+            }
+        }
+
+        Iterator<Window> iterator = windows.values().iterator();
+        while (iterator.hasNext()) {
+            Window window = iterator.next();
+            if (flush(window, now)) {
+                updated++;
+            }
+            if (window.isClosed()) {
+                iterator.remove();
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Applies the absorbed events of one window to its notification, or writes a notification for
+     * them if the window lost its row (the reserving transaction rolled back).
+     *
+     * @return true if a notification was written.
+     */
+    private boolean flush(Window window, long now) {
+        Drained drained = window.drain(now);
+        if (drained == null) {
+            return false;
+        }
+        TransactionHooks.afterRollback(() -> window.restore(drained));
+
+        if (drained.notificationId == null) {
+            NotificationEntity notification = new NotificationEntity();
+            notification.setTargetUserId(window.key.targetUserId);
+            notification.setEventType(window.key.eventType);
+            notification.setReferenceId(window.key.referenceId);
+            notification.setSourceUserId(drained.lastSourceUserId);
+            notification.setAggregateCount(drained.count);
+            notification.setMessage(aggregateMessage(window.key.eventType, drained.lastSourceName,
+                    drained.count, drained.lastMessage));
+            notification.setIsRead(false);
+            notification.setTimestamp(Instant.now());
+            em.persist(notification);
+            inbox.onCreated(notification);
+            Long notificationId = notification.getId();
+            TransactionHooks.afterCommit(() -> window.attach(notificationId));
+            return true;
+        }
+
+        NotificationEntity notification = em.find(NotificationEntity.class, drained.notificationId);
+        if (notification == null) {
+            window.close();
+            return false;
+        }
+
+        boolean wasRead = Boolean.TRUE.equals(notification.getIsRead());
+        int count = (notification.getAggregateCount() == null ? 1 : notification.getAggregateCount()) + drained.count;
+        notification.setAggregateCount(count);
+        notification.setSourceUserId(drained.lastSourceUserId);
+        notification.setMessage(aggregateMessage(notification.getEventType(), drained.lastSourceName,
+                count, drained.lastMessage));
+        notification.setIsRead(false);
+        notification.setTimestamp(Instant.now());
+        inbox.onUpdated(notification, wasRead);
+        return true;
+    }
+
+    /**
+     * Builds the message of an aggregated notification, e.g. "Alice and 248 others liked your post.".
+     */
+    private static String aggregateMessage(String eventType, String sourceName, int count, String fallback) {
+        String verb = VERBS.get(eventType);
+        if (verb == null || count <= 1) {
+            return fallback;
+        }
+        int others = count - 1;
+        if (sourceName == null) {
+            return count + " people " + verb;
+        }
+        return sourceName + " and " + others + (others == 1 ? " other " : " others ") + verb;
+    }
+
+    /**
+     * Identity of a coalescing window.
+     */
+    private static final class WindowKey {
+        private final Long targetUserId;
+        private final String eventType;
+        private final Long referenceId;
+
+        private WindowKey(Long targetUserId, String eventType, Long referenceId) {
+            this.targetUserId = targetUserId;
+            this.eventType = eventType;
+            this.referenceId = referenceId;
+        }
+
+        /**
+         * @return the key of the event, or null if the event cannot be coalesced.
+         */
+        static WindowKey of(NotificationEvent event) {
+            if (event.getTargetUserId() == null || event.getReferenceId() == null
+                    || !VERBS.containsKey(event.getEventType())) {
+                return null;
+            }
+            return new WindowKey(event.getTargetUserId(), event.getEventType(), event.getReferenceId());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WindowKey)) return false;
+            WindowKey other = (WindowKey) o;
+            return targetUserId.equals(other.targetUserId)
+                    && eventType.equals(other.eventType)
+                    && referenceId.equals(other.referenceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(targetUserId, eventType, referenceId);
+        }
+    }
+
+    /**
+     * Events absorbed by a window since the last flush.
+     */
+    private static final class Drained {
+        private final Long notificationId;
+        private final int count;
+        private final Long lastSourceUserId;
+        private final String lastSourceName;
+        private final String lastMessage;
+
+        Drained(Long notificationId, int count, Long lastSourceUserId, String lastSourceName, String lastMessage) {
+            this.notificationId = notificationId;
+            this.count = count;
+            this.lastSourceUserId = lastSourceUserId;
+            this.lastSourceName = lastSourceName;
+            this.lastMessage = lastMessage;
+        }
+    }
+
+    /**
+     * A coalescing window: the notification row it updates and the events absorbed since the last flush.
+     * While reserved, the row is still being written and the notification ID is null; a released window
+     * has lost its row.
+     */
+    private static final class Window {
+        private final WindowKey key;
+        private final long openedAt;
+        private Long notificationId;
+        private boolean released;
+        private boolean closed;
+        private int pending;
+        private Long lastSourceUserId;
+        private String lastSourceName;
+        private String lastMessage;
+
+        Window(WindowKey key, long openedAt) {
+            this.key = key;
+            this.openedAt = openedAt;
+        }
+
+        synchronized void attach(Long notificationId) {
+            this.notificationId = notificationId;
+            this.released = false;
+        }
+
+        /**
+         * Marks the row of the window as lost.
+         *
+         * @return true if nothing was absorbed, so the window can be dropped.
+         */
+        synchronized boolean release() {
+            released = true;
+            if (pending == 0) {
+                closed = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        synchronized boolean isOpen(long now) {
+            return !closed && now - openedAt < WINDOW_MS;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        synchronized boolean add(NotificationEvent event, long now) {
+            if (!isOpen(now)) {
+                return false;
+            }
+            pending++;
+            lastSourceUserId = event.getSourceUserId();
+            lastSourceName = event.getSourceName();
+            lastMessage = event.getMessage();
+            return true;
+        }
+
+        synchronized void undoAdd() {
+            pending = Math.max(0, pending - 1);
+        }
+
+        /**
+         * Takes the pending events. Closes the window once it has expired and nothing is pending.
+         * A reserved window is left alone until its row is written.
+         *
+         * @return the drained events, or null if there were none.
+         */
+        synchronized Drained drain(long now) {
+            if (notificationId == null && !released) {
+                return null; // the row is still being written
+            }
+            if (pending == 0) {
+                if (now - openedAt >= WINDOW_MS) {
+                    closed = true;
+                }
+                return null;
+            }
+            Drained drained = new Drained(notificationId, pending, lastSourceUserId, lastSourceName, lastMessage);
+            pending = 0;
+            return drained;
+        }
+
+        synchronized void restore(Drained drained) {
+            pending += drained.count;
+            if (lastSourceUserId == null) {
+                lastSourceUserId = drained.lastSourceUserId;
+                lastSourceName = drained.lastSourceName;
+                lastMessage = drained.lastMessage;
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package service;
+
+import Utils.ConcurrentLruCache;
+import Utils.TransactionHooks;
+import models.NotificationEntity;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * NotificationInbox – In-memory inbox state per user: the unread counter and the most recent notifications.
+ *
+ * The state of a user is loaded from the notifications table on first access and then kept up to date
+ * by {@link NotificationService} after each committed create or read transition, so badge counts and
+ * "recent" reads are answered from memory. Only {@link #MAX_USERS} inboxes are kept; an evicted inbox is
+ * simply reloaded on its next access.
+ *
+ * Loads and updates of the same user are cut by a striped lock: a transaction that changes an inbox holds
+ * a read lock of the user's stripe from just before its commit until its update is applied, and a load
+ * holds the write lock while it reads the database and installs the inbox. Every change is therefore
+ * either in the loaded state or applied to the installed inbox, never dropped or counted twice.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class NotificationInbox {
+
+    /** Number of recent notifications kept per user. */
+    public static final int RECENT_SIZE = Integer.getInteger("minisocial.inbox.recentSize", 20);
+
+    /** Maximum number of cached inboxes (least recently used are dropped). */
+    private static final int MAX_USERS = Integer.getInteger("minisocial.inbox.maxUsers", 100_000);
+
+    /** Number of lock stripes cutting loads against updates. */
+    private static final int STRIPES = 64;
+
+    @PersistenceContext(unitName = "hello")
+    private EntityManager em;
+
+    private final ConcurrentLruCache<Long, Inbox> inboxes = new ConcurrentLruCache<>(MAX_USERS);
+
+    private final StampedLock[] cuts = new StampedLock[STRIPES];
+
+    public NotificationInbox() {
+        for (int i = 0; i < STRIPES; i++) {
+            cuts[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * Returns the number of unread notifications of a user. Served from memory once loaded.
+     *
+     * @param userId the ID of the user.
+     * @return the unread count.
+     */
+    public long getUnreadCount(Long userId) {
+        return load(userId).unreadCount();
+    }
+
+    /**
+     * Returns the most recent notifications of a user, newest first. Served from memory once loaded.
+     *
+     * @param userId the ID of the user.
+     * @param limit the maximum number of notifications (capped at {@link #RECENT_SIZE}).
+     * @return the recent notifications.
+     */
+    public List<NotificationEntity> getRecent(Long userId, int limit) {
+        List<NotificationEntity> recent = load(userId).recent();
+        return recent.subList(0, Math.min(Math.max(limit, 0), recent.size()));
+    }
+
+    /**
+     * Records a new notification once the current transaction commits.
+     *
+     * @param notification the persisted notification.
+     */
+    public void onCreated(NotificationEntity notification) {
+        NotificationEntity snapshot = copyOf(notification);
+        TransactionHooks.afterCommitHolding(cutOf(snapshot.getTargetUserId()), () -> {
+            Inbox inbox = inboxes.get(snapshot.getTargetUserId());
+            if (inbox != null) {
+                inbox.add(snapshot);
+            }
+        });
+    }
+
+    /**
+     * Records that a notification was updated in place (coalesced) once the current transaction commits.
+     * The notification moves to the top of the recent list and counts as unread again.
+     *
+     * @param notification the updated notification.
+     * @param wasRead whether the notification was read before the update.
+     */
+    public void onUpdated(NotificationEntity notification, boolean wasRead) {
+        NotificationEntity snapshot = copyOf(notification);
+        TransactionHooks.afterCommitHolding(cutOf(snapshot.getTargetUserId()), () -> {
+            Inbox inbox = inboxes.get(snapshot.getTargetUserId());
+            if (inbox != null) {
+                inbox.replace(snapshot, wasRead);
+            }
+        });
+    }
+
+    /**
+     * Records that notifications of a user with IDs up to {@code upToId} were marked as read,
+     * once the current transaction commits.
+     *
+     * @param userId the ID of the user.
+     * @param upToId the highest ID marked as read (Long.MAX_VALUE for all).
+     * @param updated the number of rows that went from unread to read.
+     */
+    public void onRead(Long userId, long upToId, int updated) {
+        if (updated <= 0) {
+            return;
+        }
+        TransactionHooks.afterCommitHolding(cutOf(userId), () -> {
+            Inbox inbox = inboxes.get(userId);
+            if (inbox != null) {
+                inbox.markRead(upToId, updated);
+            }
+        });
+    }
+
+    /**
+     * Records that a single notification was marked as read, once the current transaction commits.
+     *
+     * @param userId the ID of the user.
+     * @param notificationId the ID of the notification.
+     */
+    public void onRead(Long userId, Long notificationId) {
+        TransactionHooks.afterCommitHolding(cutOf(userId), () -> {
+            Inbox inbox = inboxes.get(userId);
+            if (inbox != null) {
+                inbox.markOneRead(notificationId);
+            }
+        });
+    }
+
+    /**
+     * Returns the cached inbox of a user, loading it from the database when missing.
+     * No change of the user's inbox commits while it is loaded.
+     */
+    private Inbox load(Long userId) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox != null) {
+            return inbox;
+        }
+
+        StampedLock cut = cutOf(userId);
+        long stamp = cut.writeLock();
+        try {
+            inbox = inboxes.get(userId);
+            return inbox != null ? inbox : read(userId);
+        } finally {
+            cut.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reads the inbox of a user from the database and caches it.
+     */
+    private Inbox read(Long userId) {
+        long unread = em.createQuery(
+                "SELECT COUNT(n) FROM NotificationEntity n WHERE n.targetUserId = :userId AND n.isRead = false",
+                Long.class)
+            .setParameter("userId", userId)
+            .getSingleResult();
+
+        List<NotificationEntity> recent = new ArrayList<>();
+        for (NotificationEntity n : em.createQuery(
+                "SELECT n FROM NotificationEntity n WHERE n.targetUserId = :userId " +
+                "ORDER BY n.timestamp DESC, n.notificationId DESC",
+                NotificationEntity.class)
+            .setParameter("userId", userId)
+            .setMaxResults(RECENT_SIZE)
+            .getResultList()) {
+            recent.add(copyOf(n));
+        }
+
+        Inbox loaded = new Inbox(unread, recent);
+        inboxes.put(userId, loaded);
+        return loaded;
+    }
+
+    private StampedLock cutOf(Long userId) {
+        return cuts[Math.floorMod(Long.hashCode(userId), STRIPES)];
+    }
+
+    /**
+     * Detached copy of a notification, so cached entries never alias managed entities.
+     */
+    private static NotificationEntity copyOf(NotificationEntity n) {
+        NotificationEntity copy = new NotificationEntity();
+        copy.setId(n.getId());
+        copy.setTargetUserId(n.getTargetUserId());
+        copy.setSourceUserId(n.getSourceUserId());
+        copy.setEventType(n.getEventType());
+        copy.setCategory(n.getCategory());
+        copy.setMessage(n.getMessage());
+        copy.setReferenceId(n.getReferenceId());
+        copy.setTimestamp(n.getTimestamp());
+        copy.setIsRead(n.getIsRead());
+        copy.setAggregateCount(n.getAggregateCount());
+        return copy;
+    }
+
+    /**
+     * Inbox state of one user. The recent list is copy-on-write so readers never see it change.
+     */
+    private static final class Inbox {
+        private long unread;
+        private List<NotificationEntity> recent;
+
+        Inbox(long unread, List<NotificationEntity> recent) {
+            this.unread = unread;
+            this.recent = Collections.unmodifiableList(recent);
+        }
+
+        synchronized long unreadCount() {
+            return unread;
+        }
+
+        synchronized List<NotificationEntity> recent() {
+            return recent;
+        }
+
+        synchronized void add(NotificationEntity notification) {
+            if (!Boolean.TRUE.equals(notification.getIsRead())) {
+                unread++;
+            }
+            List<NotificationEntity> updated = new ArrayList<>(Math.min(recent.size() + 1, RECENT_SIZE));
+            updated.add(notification);
+            for (int i = 0; i < recent.size() && updated.size() < RECENT_SIZE; i++) {
+                updated.add(recent.get(i));
+            }
+            recent = Collections.unmodifiableList(updated);
+        }
+
+        synchronized void replace(NotificationEntity notification, boolean wasRead) {
+            if (wasRead && !Boolean.TRUE.equals(notification.getIsRead())) {
+                unread++;
+            }
+            List<NotificationEntity> updated = new ArrayList<>(Math.min(recent.size() + 1, RECENT_SIZE));
+            updated.add(notification);
+            for (int i = 0; i < recent.size() && updated.size() < RECENT_SIZE; i++) {
+                if (!notification.getId().equals(recent.get(i).getId())) {
+                    updated.add(recent.get(i));
+                }
+            }
+            recent = Collections.unmodifiableList(updated);
+        }
+
+        synchronized void markRead(long upToId, int count) {
+            unread = Math.max(0, unread - count);
+            List<NotificationEntity> updated = new ArrayList<>(recent.size());
+            for (NotificationEntity n : recent) {
+                updated.add(n.getId() != null && n.getId() <= upToId ? asRead(n) : n);
+            }
+            recent = Collections.unmodifiableList(updated);
+        }
+
+        synchronized void markOneRead(Long notificationId) {
+            unread = Math.max(0, unread - 1);
+            List<NotificationEntity> updated = new ArrayList<>(recent.size());
+            for (NotificationEntity n : recent) {
+                updated.add(notificationId.equals(n.getId()) ? asRead(n) : n);
+            }
+            recent = Collections.unmodifiableList(updated);
+        }
+
+        private static NotificationEntity asRead(NotificationEntity n) {
+            if (Boolean.TRUE.equals(n.getIsRead())) {
+                return n;
+            }
+            NotificationEntity copy = copyOf(n);
+            copy.setIsRead(true);
+            return copy;
+        }
+    }
+}
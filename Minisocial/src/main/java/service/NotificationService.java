@@ -1,8 +1,11 @@
 package service;
 
+import Utils.PageCursor;
+import dtos.PageDTO;
 import models.NotificationEntity;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
@@ -24,51 +27,145 @@ public class NotificationService {
     @PersistenceContext
     private EntityManager em;
 
+    /**
+     * Injected in-memory inbox (unread counters and recent notifications).
+     */
+    @Inject
+    private NotificationInbox inbox;
+
+    /**
+     * Injected coalescer folding bursts of similar events (e.g. likes on one post) into one notification.
+     */
+    @Inject
+    private NotificationCoalescer coalescer;
+
     /**
      * Creates a new notification based on the given event details.
+     * Events that belong to an open coalescing window are folded into the existing notification instead.
      * 
      * @param event the event that triggers the creation of a notification.
      * This event contains information such as the source and target user IDs,
      * event type, and message for the notification.
      */
     public void createNotification(NotificationEvent event) {
+        if (coalescer.absorb(event)) {
+            return;
+        }
+
         NotificationEntity notification = new NotificationEntity();
         notification.setSourceUserId(event.getSourceUserId());
         notification.setTargetUserId(event.getTargetUserId());
         notification.setEventType(event.getEventType());
         notification.setMessage(event.getMessage());
+        notification.setReferenceId(event.getReferenceId());
         notification.setIsRead(false);
         notification.setTimestamp(Instant.now());
 
         em.persist(notification);
+        inbox.onCreated(notification);
+        coalescer.open(event, notification);
     }
 
     /**
-     * Retrieves the list of notifications for a specific user.
-     * Notifications are ordered by timestamp in descending order.
+     * Retrieves one page of notifications for a specific user.
+     * Notifications are ordered by ID in descending order, i.e. by creation. The ID never changes,
+     * unlike the timestamp, which coalescing moves forward; a notification therefore keeps its place
+     * between two page requests and is never returned twice or skipped.
      * 
      * @param userId the ID of the user whose notifications are to be fetched.
-     * @return a list of notifications for the user, ordered by the most recent.
+     * @param cursor the position after which the page starts.
+     * @param limit the maximum number of notifications in the page.
+     * @return a page of notifications for the user, newest first.
      */
-    public List<NotificationEntity> getNotificationsForUser(Long userId) {
-        return em.createQuery(
-                "SELECT n FROM NotificationEntity n WHERE n.targetUserId = :userId ORDER BY n.timestamp DESC",
+    public PageDTO<NotificationEntity> getNotificationsForUser(Long userId, PageCursor cursor, int limit) {
+        List<NotificationEntity> notifications = em.createQuery(
+                "SELECT n FROM NotificationEntity n WHERE n.targetUserId = :userId " +
+                "AND n.notificationId < :beforeId " +
+                "ORDER BY n.notificationId DESC",
                 NotificationEntity.class)
             .setParameter("userId", userId)
+            .setParameter("beforeId", cursor.getId())
+            .setMaxResults(limit + 1)
             .getResultList();
+
+        return PageDTO.of(notifications, limit,
+                n -> PageCursor.ofId(n.getId()),
+                page -> page);
     }
 
     /**
      * Marks a notification as read.
+     * The UPDATE is guarded by the unread flag, so of two concurrent calls only one changes the row
+     * and only that one updates the unread count.
      * 
      * @param id the ID of the notification to be marked as read.
-     * If the notification exists, its "isRead" flag will be set to true.
+     * If the notification exists and is unread, its "isRead" flag will be set to true.
      */
     public void markAsRead(Long id) {
-        NotificationEntity notification = em.find(NotificationEntity.class, id);
-        if (notification != null) {
-            notification.setIsRead(true);
-            em.merge(notification);
+        int updated = em.createQuery(
+                "UPDATE NotificationEntity n SET n.isRead = true " +
+                "WHERE n.notificationId = :id AND n.isRead = false")
+            .setParameter("id", id)
+            .executeUpdate();
+        if (updated != 1) {
+            return;
         }
+
+        Long targetUserId = em.createQuery(
+                "SELECT n.targetUserId FROM NotificationEntity n WHERE n.notificationId = :id", Long.class)
+            .setParameter("id", id)
+            .getSingleResult();
+        inbox.onRead(targetUserId, id);
+    }
+
+    /**
+     * Marks all unread notifications of a user as read with a single UPDATE statement.
+     * 
+     * @param userId the ID of the user.
+     * @return the number of notifications that were marked as read.
+     */
+    public int markAllAsRead(Long userId) {
+        return markAsReadUpTo(userId, Long.MAX_VALUE);
+    }
+
+    /**
+     * Marks the unread notifications of a user with an ID up to (and including) the given ID as read,
+     * with a single UPDATE statement.
+     * 
+     * @param userId the ID of the user.
+     * @param upToId the highest notification ID to mark as read.
+     * @return the number of notifications that were marked as read.
+     */
+    public int markAsReadUpTo(Long userId, long upToId) {
+        int updated = em.createQuery(
+                "UPDATE NotificationEntity n SET n.isRead = true " +
+                "WHERE n.targetUserId = :userId AND n.isRead = false AND n.notificationId <= :upToId")
+            .setParameter("userId", userId)
+            .setParameter("upToId", upToId)
+            .executeUpdate();
+
+        inbox.onRead(userId, upToId, updated);
+        return updated;
+    }
+
+    /**
+     * Retrieves the number of unread notifications of a user (served from the inbox cache).
+     * 
+     * @param userId the ID of the user.
+     * @return the unread count.
+     */
+    public long getUnreadCount(Long userId) {
+        return inbox.getUnreadCount(userId);
+    }
+
+    /**
+     * Retrieves the most recent notifications of a user (served from the inbox cache).
+     * 
+     * @param userId the ID of the user.
+     * @param limit the maximum number of notifications.
+     * @return the recent notifications, newest first.
+     */
+    public List<NotificationEntity> getRecentNotifications(Long userId, int limit) {
+        return inbox.getRecent(userId, limit);
     }
 }
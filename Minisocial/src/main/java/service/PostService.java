@@ -3,16 +3,25 @@ package service;
 import models.User;
 import models.UserPost;
 import models.Post;
+import Utils.FriendshipUtils;
+import Utils.PageCursor;
 import Utils.PostFactory;
 import Utils.PostUtil;
+import Utils.TransactionHooks;
+import Utils.UserUtils;
+import dtos.PageDTO;
 import dtos.UserPostDTO;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.PersistenceException;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The PostService class provides functionality for managing User Posts.
@@ -28,6 +37,12 @@ public class PostService {
     @PersistenceContext(unitName = "hello")
     private EntityManager em;
 
+    /**
+     * Precomputed per-user timelines (fan-out-on-write).
+     */
+    @Inject
+    private TimelineStore timelineStore;
+
     /**
      * Creates a new post for the user.
      * 
@@ -72,59 +87,282 @@ public class PostService {
             return "Error while persisting the post.";
         }
 
+        fanOutPost(userId, createdPost.getPostId());
+
         return "Post created successfully";  
     }
 
     /**
-     * Retrieves all posts made by a specific user.
+     * Pushes a new post into the author's timeline and into the timeline of every friend.
+     * Authors with more friends than the fan-out limit are only marked as high fan-out;
+     * their posts are merged into friends' timelines at read time instead.
+     * The pushes happen once the transaction has committed.
+     *
+     * @param authorId The ID of the post author.
+     * @param postId The ID of the new post.
+     */
+    private void fanOutPost(Long authorId, int postId) {
+        long friendCount = FriendshipUtils.countFriends(em, authorId);
+
+        List<Long> friendIds;
+        if (friendCount > timelineStore.getFanoutLimit()) {
+            timelineStore.markHighFanout(authorId);
+            friendIds = List.of();
+        } else {
+            friendIds = FriendshipUtils.getFriendIds(em, authorId);
+        }
+
+        TransactionHooks.afterCommit(() -> {
+            timelineStore.push(authorId, postId);
+            for (Long friendId : friendIds) {
+                timelineStore.push(friendId, postId);
+            }
+        });
+    }
+
+    /**
+     * Drops the timelines a post of the author was pushed into, once the transaction has
+     * committed, so they are rebuilt without the deleted post on their next read.
+     *
+     * @param authorId The ID of the post author.
+     */
+    private void dropTimelinesOf(Long authorId) {
+        List<Long> friendIds = timelineStore.getHighFanoutAuthors().contains(authorId)
+                ? List.of()
+                : FriendshipUtils.getFriendIds(em, authorId);
+
+        TransactionHooks.afterCommit(() -> {
+            timelineStore.invalidate(authorId);
+            for (Long friendId : friendIds) {
+                timelineStore.invalidate(friendId);
+            }
+        });
+    }
+
+    /**
+     * Retrieves one page of the posts made by a specific user, newest first.
      * 
      * @param userId The ID of the user whose posts are to be retrieved.
-     * @return A list of UserPostDTO objects containing the post details.
+     * @param cursor The position after which the page starts.
+     * @param limit The maximum number of posts in the page.
+     * @return A page of UserPostDTO objects containing the post details.
      */
-    public List<UserPostDTO> getAllPostsByUser(Long userId) {
+    public PageDTO<UserPostDTO> getAllPostsByUser(Long userId, PageCursor cursor, int limit) {
 
 
-        TypedQuery<UserPost> query = em.createQuery(PostUtil.GET_POSTS_BY_USER_QUERY, UserPost.class);
+        TypedQuery<UserPost> query = em.createQuery(PostUtil.GET_POSTS_BY_USER_PAGE_QUERY, UserPost.class);
         query.setParameter("userId", userId);
+        query.setParameter("beforeId", cursor.getIntId());
+        query.setMaxResults(limit + 1);
         
         try {
         
             List<UserPost> posts = query.getResultList();
-            return UserPostDTO.fromUserPostList(posts);  
+            return PageDTO.of(posts, limit,
+                    p -> PageCursor.ofId(p.getPostId()),
+                    UserPostDTO::fromUserPostList);  
         } catch (Exception e) {
             return null;
         }
     }
 
     /**
-     * Retrieves the timeline for a user, including posts made by the user and their friends.
+     * Retrieves one page of the timeline for a user, including posts made by the user and their friends.
+     * Posts are read from the precomputed timeline (rebuilt from the database on a cold read),
+     * merged with recent posts of high fan-out friends, and returned newest first.
      * 
      * @param userId The ID of the user whose timeline is to be retrieved.
-     * @return A list of UserPostDTO objects representing the user's timeline.
+     * @param cursor The position after which the page starts.
+     * @param limit The maximum number of posts in the page.
+     * @return A page of UserPostDTO objects representing the user's timeline.
      */
-    public List<UserPostDTO> getUserTimeline(long userId) {
+    public PageDTO<UserPostDTO> getUserTimeline(long userId, PageCursor cursor, int limit) {
        
         User user = em.find(User.class, userId );
         if (user == null) {
             return null;
         }
 
-      
-        String queryStr = "SELECT p FROM UserPost p WHERE p.user.userId = :userId " +
-                "OR p.user IN (SELECT f.friend FROM Friendships f WHERE f.user.userId = :userId)";
-        
-        TypedQuery<UserPost> query = em.createQuery(queryStr, UserPost.class);
-        query.setParameter("userId", userId);
+        long[] postIds = timelineStore.read(userId);
+        if (postIds == null) {
+            postIds = rebuildTimeline(userId);
+        }
+        postIds = mergeHighFanoutPosts(userId, postIds);
+
+        long[] pageIds = selectTimelinePage(userId, postIds, cursor.getId(), limit + 1);
+        if (pageIds.length == 0) {
+            return new PageDTO<>(new ArrayList<>(), null);
+        }
+
+        // Whether there is a next page is decided on the IDs, not on the loaded rows:
+        // an ID whose post no longer loads must not end the timeline early.
+        boolean hasMore = pageIds.length > limit;
+        long[] idsOfPage = hasMore ? Arrays.copyOf(pageIds, limit) : pageIds;
+        String next = hasMore ? PageCursor.ofId(idsOfPage[limit - 1]).encode() : null;
+
+        TypedQuery<UserPost> query = em.createQuery(PostUtil.GET_POSTS_BY_IDS_QUERY, UserPost.class);
+        query.setParameter("postIds", toIntegerList(idsOfPage));
 
         try {
             
             List<UserPost> posts = query.getResultList();
-            return UserPostDTO.fromUserPostList(posts);
+            return new PageDTO<>(UserPostDTO.fromUserPostList(posts), next);
         } catch (Exception e){
             return null;
         }
     }
 
+    /**
+     * Picks up to {@code count} timeline post IDs older than {@code beforeId}.
+     * IDs come from the precomputed timeline; once a client pages past the oldest ID kept
+     * there, the rest of the page is read from the database.
+     * 
+     * @param userId The ID of the timeline owner.
+     * @param postIds The precomputed post IDs, newest first.
+     * @param beforeId The exclusive upper bound of the page.
+     * @param count The number of IDs wanted.
+     * @return The post IDs of the page, newest first.
+     */
+    private long[] selectTimelinePage(long userId, long[] postIds, long beforeId, int count) {
+        int start = firstIndexBelow(postIds, beforeId);
+        long[] page = Arrays.copyOfRange(postIds, start, Math.min(postIds.length, start + count));
+
+        // The store holds the whole timeline unless it is full
+        if (page.length == count || postIds.length < timelineStore.getCapacity()) {
+            return page;
+        }
+
+        long oldest = page.length > 0
+                ? page[page.length - 1]
+                : Math.min(beforeId, postIds[postIds.length - 1]);
+        List<Integer> older = em.createQuery(PostUtil.GET_TIMELINE_POST_IDS_QUERY, Integer.class)
+                .setParameter("userId", userId)
+                .setParameter("beforeId", (int) oldest)
+                .setMaxResults(count - page.length)
+                .getResultList();
+
+        long[] result = Arrays.copyOf(page, page.length + older.size());
+        for (int i = 0; i < older.size(); i++) {
+            result[page.length + i] = older.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Binary search over a descending ID array.
+     * 
+     * @return The index of the first ID lower than {@code bound}.
+     */
+    private static int firstIndexBelow(long[] ids, long bound) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] >= bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Rebuilds a user's timeline from the database and stores it.
+     * 
+     * @param userId The ID of the user whose timeline is rebuilt.
+     * @return The post IDs of the rebuilt timeline, newest first.
+     */
+    public long[] rebuildTimeline(Long userId) {
+        timelineStore.reserve(userId);
+        List<Integer> ids = em.createQuery(PostUtil.GET_TIMELINE_POST_IDS_QUERY, Integer.class)
+                .setParameter("userId", userId)
+                .setParameter("beforeId", Integer.MAX_VALUE)
+                .setMaxResults(timelineStore.getCapacity())
+                .getResultList();
+
+        timelineStore.load(userId, toLongArray(ids));
+        return timelineStore.read(userId);
+    }
+
+    /**
+     * Drops every precomputed timeline and rebuilds them from scratch for all users
+     * (the store keeps the most recently rebuilt ones up to its bound).
+     * 
+     * @return The number of timelines rebuilt.
+     */
+    public int rebuildAllTimelines() {
+        timelineStore.clear();
+
+        List<Long> userIds = em.createQuery(UserUtils.GET_ALL_USER_IDS_QUERY, Long.class).getResultList();
+        for (Long userId : userIds) {
+            rebuildTimeline(userId);
+        }
+        return userIds.size();
+    }
+
+    /**
+     * Merges the most recent posts of the user's high fan-out friends into the timeline.
+     * 
+     * @param userId The ID of the timeline owner.
+     * @param postIds The precomputed post IDs, newest first.
+     * @return The merged post IDs, newest first, capped at the timeline capacity.
+     */
+    private long[] mergeHighFanoutPosts(long userId, long[] postIds) {
+        Set<Long> highFanoutAuthors = timelineStore.getHighFanoutAuthors();
+        if (highFanoutAuthors.isEmpty()) {
+            return postIds;
+        }
+
+        List<Long> authorIds = FriendshipUtils.getFriendIdsAmong(em, userId, new ArrayList<>(highFanoutAuthors));
+        if (authorIds.isEmpty()) {
+            return postIds;
+        }
+
+        List<Integer> pulled = em.createQuery(PostUtil.GET_POST_IDS_BY_AUTHORS_QUERY, Integer.class)
+                .setParameter("authorIds", authorIds)
+                .setMaxResults(timelineStore.getCapacity())
+                .getResultList();
+
+        return mergeDescending(postIds, toLongArray(pulled), timelineStore.getCapacity());
+    }
+
+    /**
+     * Merges two descending ID arrays into one, dropping duplicates.
+     */
+    private static long[] mergeDescending(long[] a, long[] b, int limit) {
+        long[] merged = new long[Math.min(a.length + b.length, limit)];
+        int i = 0, j = 0, n = 0;
+        while (n < merged.length && (i < a.length || j < b.length)) {
+            long next;
+            if (j >= b.length || (i < a.length && a[i] >= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (n == 0 || merged[n - 1] != next) {
+                merged[n++] = next;
+            }
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    private static long[] toLongArray(List<Integer> ids) {
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    private static List<Integer> toIntegerList(long[] ids) {
+        List<Integer> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add((int) id);
+        }
+        return result;
+    }
+
     /**
      * Edits an existing post made by the user.
      * 
@@ -203,6 +441,8 @@ public class PostService {
             return "Error while deleting the post.";
         }
 
+        dropTimelinesOf(userId);
+
         return "Post deleted successfully";
     }
 }
@@ -0,0 +1,208 @@
+package service;
+
+import Utils.ConcurrentLruCache;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TimelineStore – In-memory, precomputed home timelines (fan-out-on-write).
+ *
+ * Every user owns a bounded list of UserPost IDs sorted newest first. When a post is
+ * created, PostService pushes its ID into the author's timeline and into the timeline
+ * of each friend, so reading a timeline is a range scan over a sorted array instead of
+ * a join against Friendships.
+ *
+ * Authors with more friends than {@link #getFanoutLimit()} are marked as high fan-out:
+ * their posts are not pushed to friends and are merged in at read time instead
+ * (fan-out-on-read), which keeps a single post from touching millions of timelines.
+ *
+ * A timeline becomes "warm" once it has been loaded from the database. Posts are only
+ * pushed into timelines that are present: a rebuild reserves a cold timeline before it
+ * reads the database, IDs pushed into it meanwhile are merged when it is loaded, so posts
+ * created while a rebuild is in flight are not lost. Users without a timeline in memory
+ * cost nothing on fan-out; their timeline is rebuilt on their next read.
+ *
+ * At most {@link #MAX_USERS} timelines are kept; the least recently read ones are evicted.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TimelineStore {
+
+    /** Maximum number of post IDs kept per user. */
+    private static final int CAPACITY = Integer.getInteger("minisocial.timeline.capacity", 800);
+
+    /** Authors with more friends than this are served by fan-out-on-read. */
+    private static final int FANOUT_LIMIT = Integer.getInteger("minisocial.timeline.fanoutLimit", 5000);
+
+    /** Maximum number of timelines kept in memory. */
+    private static final int MAX_USERS = Integer.getInteger("minisocial.timeline.maxUsers", 10_000);
+
+    /** Timelines keyed by user ID. */
+    private final ConcurrentLruCache<Long, Timeline> timelines = new ConcurrentLruCache<>(MAX_USERS);
+
+    /** Authors whose posts are merged in at read time. */
+    private final Set<Long> highFanoutAuthors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns a snapshot of the user's timeline, newest post first.
+     *
+     * @param userId the owner of the timeline.
+     * @return the post IDs, or null if the timeline has not been loaded yet.
+     */
+    public long[] read(Long userId) {
+        Timeline timeline = timelines.get(userId);
+        return timeline == null ? null : timeline.snapshotIfWarm();
+    }
+
+    /**
+     * Pushes a post ID into a user's timeline if it is in memory (warm or being rebuilt).
+     * Pushing does not count as a read for the eviction order.
+     *
+     * @param userId the owner of the timeline.
+     * @param postId the ID of the new post.
+     */
+    public void push(Long userId, long postId) {
+        Timeline timeline = timelines.peek(userId);
+        if (timeline != null) {
+            timeline.insert(postId);
+        }
+    }
+
+    /**
+     * Reserves a cold timeline for a user before it is rebuilt, so posts pushed while the
+     * database is read are kept and merged by {@link #load(Long, long[])}.
+     *
+     * @param userId the owner of the timeline.
+     */
+    public void reserve(Long userId) {
+        timelines.computeIfAbsent(userId, id -> new Timeline(CAPACITY));
+    }
+
+    /**
+     * Loads a user's timeline from post IDs fetched from the database and marks it warm.
+     * IDs already pushed into the timeline are merged in.
+     *
+     * @param userId the owner of the timeline.
+     * @param postIdsNewestFirst the post IDs, newest first.
+     */
+    public void load(Long userId, long[] postIdsNewestFirst) {
+        timelines.computeIfAbsent(userId, id -> new Timeline(CAPACITY)).load(postIdsNewestFirst);
+    }
+
+    /**
+     * Drops a user's timeline so the next read rebuilds it from the database.
+     *
+     * @param userId the owner of the timeline.
+     */
+    public void invalidate(Long userId) {
+        timelines.remove(userId);
+    }
+
+    /** Drops every timeline. */
+    public void clear() {
+        timelines.clear();
+    }
+
+    /**
+     * Marks an author as high fan-out (their posts are merged in at read time).
+     *
+     * @param authorId the ID of the author.
+     */
+    public void markHighFanout(Long authorId) {
+        highFanoutAuthors.add(authorId);
+    }
+
+    /**
+     * @return the authors whose posts are merged in at read time.
+     */
+    public Set<Long> getHighFanoutAuthors() {
+        return Collections.unmodifiableSet(highFanoutAuthors);
+    }
+
+    /**
+     * @return the maximum number of post IDs kept per timeline.
+     */
+    public int getCapacity() {
+        return CAPACITY;
+    }
+
+    /**
+     * @return the friend count above which an author is served by fan-out-on-read.
+     */
+    public int getFanoutLimit() {
+        return FANOUT_LIMIT;
+    }
+
+    /**
+     * A bounded array of post IDs kept in descending order.
+     */
+    private static final class Timeline {
+
+        private final long[] ids;
+        private int size;
+        private boolean warm;
+
+        Timeline(int capacity) {
+            this.ids = new long[capacity];
+        }
+
+        synchronized long[] snapshotIfWarm() {
+            return warm ? Arrays.copyOf(ids, size) : null;
+        }
+
+        synchronized void insert(long postId) {
+            int pos = indexOf(postId);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (pos >= ids.length) {
+                return; // older than everything we keep
+            }
+            int moved = Math.min(size, ids.length - 1) - pos;
+            if (moved > 0) {
+                System.arraycopy(ids, pos, ids, pos + 1, moved);
+            }
+            ids[pos] = postId;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        synchronized void load(long[] postIdsNewestFirst) {
+            long[] pushed = Arrays.copyOf(ids, size);
+            size = Math.min(postIdsNewestFirst.length, ids.length);
+            System.arraycopy(postIdsNewestFirst, 0, ids, 0, size);
+            for (long id : pushed) {
+                insert(id);
+            }
+            warm = true;
+        }
+
+        /**
+         * Binary search over the descending array.
+         *
+         * @return the index of the ID, or (-(insertion point) - 1) if absent.
+         */
+        private int indexOf(long postId) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = ids[mid];
+                if (value > postId) {
+                    low = mid + 1;
+                } else if (value < postId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
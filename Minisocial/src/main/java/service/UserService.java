@@ -1,11 +1,16 @@
 package service;
 
-import java.util.ArrayList;
+import java.io.OutputStream;
 import java.util.List;
 import javax.ejb.Stateless;
 import javax.persistence.*;
 import javax.ws.rs.WebApplicationException;
+import Utils.CacheRegions;
+import Utils.JsonStreamWriter;
+import Utils.TransactionHooks;
+import Utils.UserSearchIndex;
 import Utils.UserUtils;
+import dtos.UserSummaryDTO;
 import models.User;
 
 /**
@@ -30,6 +35,10 @@ public class UserService {
      */
     public User register(User user) {
         em.persist(user);
+
+        // Make the new user searchable once the registration is committed
+        UserSummaryDTO summary = UserSummaryDTO.fromUser(user);
+        TransactionHooks.afterCommit(() -> UserSearchIndex.getInstance().index(summary));
         return user;
     }
 
@@ -52,6 +61,13 @@ public class UserService {
         existingUserToUpdate.setBirthdate(user.getBirthdate());
         existingUserToUpdate.setBio(user.getBio());
         existingUserToUpdate.setPassword(user.getPassword());
+
+        // Drop the cached copy explicitly once the new profile is committed
+        CacheRegions.evictAfterCommit(em, User.class, user.getUserId());
+
+        // Re-index the new names and email once committed
+        UserSummaryDTO summary = UserSummaryDTO.fromUser(existingUserToUpdate);
+        TransactionHooks.afterCommit(() -> UserSearchIndex.getInstance().index(summary));
     }
 
     /**
@@ -90,86 +106,95 @@ public class UserService {
      * @return the user object if found, or null if no user with that ID exists.
      */
     public User getUserById(Long userId) {
-        TypedQuery<User> query = em.createQuery(
-            UserUtils.GET_USER_BY_ID_QUERY, User.class);
-        query.setParameter("userId", userId);
-        List<User> users = query.getResultList();
-
-        return users.isEmpty() ? null : users.get(0);
+        if (userId == null) {
+            return null;
+        }
+        // find() is served from the second-level cache when the user is cached
+        return em.find(User.class, userId);
     }
 
     /**
-     * Retrieves the string representation of a user by their ID.
+     * Retrieves the public profile of a user by their ID, as a projection.
      * 
      * @param userId the ID of the user to retrieve.
-     * @return a list containing the user's string representation, or a "User not found" message.
+     * @return the user's summary, or null if no user with that ID exists.
      */
-    public List<String> getUserStringById(Long userId) {
-        User user = getUserById(userId);
-
-        List<String> userStrings = new ArrayList<>();
-        if (user != null && user.getUserId() != null) {
-            userStrings.add(user.toString());
-        } else {
-            userStrings.add("User not found");
-        }
+    public UserSummaryDTO getUserSummaryById(Long userId) {
+        List<UserSummaryDTO> users = em.createQuery(UserUtils.GET_USER_SUMMARY_BY_ID_QUERY, UserSummaryDTO.class)
+            .setParameter("userId", userId)
+            .getResultList();
 
-        return userStrings;
+        return users.isEmpty() ? null : users.get(0);
     }
 
     /**
-     * Retrieves all users and returns their string representations.
+     * Streams the summaries of all users as a JSON array to the given output.
+     * Rows are read through a cursor as projections, so memory use does not grow with the number of users.
      * 
-     * @return a list of all users' string representations.
+     * @param out the response output stream.
+     * @return the number of users written.
      */
-    public List<String> getAllUsers() {
-        TypedQuery<User> query = em.createQuery(
-            UserUtils.GET_ALL_USERS_QUERY, User.class);
-        List<User> users = query.getResultList();
-        List<String> userStrings = new ArrayList<>();
-
-        for (User user : users) {
-            userStrings.add(user.toString());
-        }
-
-        return userStrings;
+    public long writeAllUsers(OutputStream out) {
+        return JsonStreamWriter.writeArray(out,
+            em.createQuery(UserUtils.GET_ALL_USER_SUMMARIES_QUERY, UserSummaryDTO.class)
+                .setHint(JsonStreamWriter.HINT_FETCH_SIZE, JsonStreamWriter.CLEAR_INTERVAL)
+                .getResultStream(),
+            em,
+            (json, user) -> {
+                // Same properties and order as the JSON-B serialization of UserSummaryDTO
+                json.writeStartObject();
+                JsonStreamWriter.writeIfPresent(json, "bio", user.getBio());
+                JsonStreamWriter.writeIfPresent(json, "email", user.getEmail());
+                JsonStreamWriter.writeIfPresent(json, "firstName", user.getFirstName());
+                JsonStreamWriter.writeIfPresent(json, "lastName", user.getLastName());
+                JsonStreamWriter.writeIfPresent(json, "role", user.getRole() != null ? user.getRole().name() : null);
+                JsonStreamWriter.writeIfPresent(json, "userId", user.getUserId());
+                JsonStreamWriter.writeIfPresent(json, "userName", user.getUserName());
+                json.writeEnd();
+            });
     }
 
     /**
      * Searches for users by username.
      * 
      * @param userName the username or part of the username to search for.
-     * @return a list of users whose username matches the search query.
+     * @return the summaries of the users whose username matches the search query.
      */
-    public List<String> searchUsersByUsername(String userName) {
-        TypedQuery<User> query = em.createQuery(UserUtils.SEARCH_BY_USERNAME_QUERY, User.class);
-        query.setParameter("userName", "%" + userName + "%");
-
-        List<User> users = query.getResultList();
-        List<String> userStrings = new ArrayList<>();
-        for (User user : users) {
-            userStrings.add(user.toString());
-        }
-
-        return userStrings;
+    public List<UserSummaryDTO> searchUsersByUsername(String userName) {
+        return em.createQuery(UserUtils.SEARCH_BY_USERNAME_QUERY, UserSummaryDTO.class)
+            .setParameter("userName", "%" + userName + "%")
+            .getResultList();
     }
 
     /**
      * Searches for users by email.
      * 
      * @param email the email or part of the email to search for.
-     * @return a list of users whose email matches the search query.
+     * @return the summaries of the users whose email matches the search query.
      */
-    public List<String> searchUsersByEmail(String email) {
-        TypedQuery<User> query = em.createQuery(UserUtils.SEARCH_BY_EMAIL_QUERY, User.class);
-        query.setParameter("email", "%" + email + "%");
+    public List<UserSummaryDTO> searchUsersByEmail(String email) {
+        return em.createQuery(UserUtils.SEARCH_BY_EMAIL_QUERY, UserSummaryDTO.class)
+            .setParameter("email", "%" + email + "%")
+            .getResultList();
+    }
 
-        List<User> users = query.getResultList();
-        List<String> userStrings = new ArrayList<>();
-        for (User user : users) {
-            userStrings.add(user.toString());
+    /**
+     * Searches users by a prefix or substring of their username, first name, last name or email,
+     * best matches first (see UserSearchIndex for the ranking).
+     * Falls back to a username LIKE query while the index is still loading.
+     * 
+     * @param query the text to search for.
+     * @param limit the maximum number of results.
+     * @return the summaries of the best matching users.
+     */
+    public List<UserSummaryDTO> searchUsers(String query, int limit) {
+        UserSearchIndex index = UserSearchIndex.getInstance();
+        if (index.isLoaded()) {
+            return index.search(query, limit);
         }
-
-        return userStrings;
+        return em.createQuery(UserUtils.SEARCH_BY_USERNAME_QUERY, UserSummaryDTO.class)
+            .setParameter("userName", "%" + query.trim() + "%")
+            .setMaxResults(limit)
+            .getResultList();
     }
 }
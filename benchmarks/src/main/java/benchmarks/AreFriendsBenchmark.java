@@ -0,0 +1,122 @@
+package benchmarks;
+
+import Utils.SocialGraphIndex;
+import models.Friendships;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Friendship check between a user with {@link #degree} friends and other users of the same
+ * degree, half of them friends of the user (at random positions) and half not.
+ *
+ * {@link #index()} asks SocialGraphIndex.areFriends, a binary search of the user's friends.
+ * {@link #listScan()} is the check CommentUtils and LikeUtils made before the index: a scan of
+ * the user's friendships, with either user on either side of the row. It is measured on a list
+ * already in memory; the old check also loaded that list with a query on every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AreFriendsBenchmark {
+
+    private static final int CHECKS = 1024;
+
+    private static final long USER_ID = 1L;
+
+    // IDs of the users who are not friends of the user, and of the friends of the checked users
+    private static final long STRANGER_IDS = 1_000_000L;
+    private static final long PADDING_IDS = 10_000_000L;
+
+    /** Friends of the user. */
+    @Param({ "50", "5000" })
+    public int degree;
+
+    private User user;
+    private List<Friendships> friendships;
+    private final User[] others = new User[CHECKS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        user = user(USER_ID);
+
+        // The user's friendships, stored in either direction as the old rows were
+        friendships = new ArrayList<>(degree);
+        long[] friends = new long[degree];
+        for (int i = 0; i < degree; i++) {
+            User friend = user(USER_ID + 1 + i);
+            friends[i] = friend.getUserId();
+            Friendships row = new Friendships();
+            row.setUser(random.nextBoolean() ? user : friend);
+            row.setFriend(row.getUser() == user ? friend : user);
+            friendships.add(row);
+        }
+        Collections.shuffle(friendships, random);
+
+        // Every checked user has as many friends as the user, so the index searches the user's array
+        long[] padding = new long[degree];
+        for (int i = 0; i < degree; i++) {
+            padding[i] = PADDING_IDS + i;
+        }
+        long[] friendOfUser = padding.clone();
+        friendOfUser[0] = USER_ID;
+
+        SocialGraphIndex index = SocialGraphIndex.getInstance();
+        index.clear();
+        index.mergeFriends(USER_ID, friends);
+        for (int i = 0; i < CHECKS; i++) {
+            boolean friend = i % 2 == 0;
+            others[i] = user(friend ? friends[random.nextInt(degree)] : STRANGER_IDS + i);
+            index.mergeFriends(others[i].getUserId(), friend ? friendOfUser : padding);
+        }
+    }
+
+    private static User user(long userId) {
+        User user = new User();
+        user.setUserId(userId);
+        return user;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SocialGraphIndex.getInstance().clear();
+    }
+
+    @Benchmark
+    public boolean index() {
+        User other = others[next++ % CHECKS];
+        return SocialGraphIndex.getInstance().areFriends(user.getUserId(), other.getUserId());
+    }
+
+    @Benchmark
+    public boolean listScan() {
+        User other = others[next++ % CHECKS];
+        Long id1 = user.getUserId();
+        Long id2 = other.getUserId();
+        return friendships.stream().anyMatch(f ->
+            (f.getUser().getUserId().equals(id1) && f.getFriend().getUserId().equals(id2)) ||
+            (f.getUser().getUserId().equals(id2) && f.getFriend().getUserId().equals(id1)));
+    }
+}
@@ -0,0 +1,156 @@
+package benchmarks;
+
+import org.hibernate.Session;
+import service.InMemoryIndexLoader;
+
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceContext;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BenchmarkEnvironment – Runs the MiniSocial services outside the container.
+ *
+ * Boots the "bench" persistence unit (embedded H2, same entities as the WAR), fills it once
+ * per JVM with a synthetic data set (sized by the bench.* system properties, see
+ * {@link SyntheticDataGenerator.Config}) and loads the in-memory indexes, like the application does
+ * at startup. Services are created with {@link #newService(Class, EntityManager)}, which stands
+ * in for the container: {@code @PersistenceContext} fields get the given EntityManager and
+ * {@code @Inject} fields get instances wired the same way. Singletons shared between threads
+ * are passed to {@link #newService(Class, EntityManager, Object...)}. A {@code @Resource}
+ * SessionContext returns the bean itself as its business object, so {@code @Asynchronous} and
+ * {@code REQUIRES_NEW} methods called through it run on the caller's thread and transaction.
+ *
+ * Outside the container there is no JTA registry, so TransactionHooks callbacks run immediately
+ * (unless the transaction runs through {@link LocalTransactions}).
+ */
+public final class BenchmarkEnvironment {
+
+    private static BenchmarkEnvironment instance;
+
+    private final EntityManagerFactory emf;
+    private final SyntheticDataGenerator.Dataset dataset;
+
+    private BenchmarkEnvironment() {
+        emf = Persistence.createEntityManagerFactory("bench");
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            dataset = em.unwrap(Session.class).doReturningWork(
+                    connection -> new SyntheticDataGenerator(connection, new SyntheticDataGenerator.Config()).generate());
+            em.getTransaction().commit();
+            newService(InMemoryIndexLoader.class, em).load();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Returns the environment of this JVM, booting it on first use.
+     */
+    public static synchronized BenchmarkEnvironment get() {
+        if (instance == null) {
+            instance = new BenchmarkEnvironment();
+        }
+        return instance;
+    }
+
+    /**
+     * Closes the environment of this JVM (its connection pool keeps the forked JVM alive otherwise).
+     * The next {@link #get()} boots a new one.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.emf.close();
+            instance = null;
+        }
+    }
+
+    public SyntheticDataGenerator.Dataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * @return a new EntityManager; the caller closes it
+     */
+    public EntityManager createEntityManager() {
+        return emf.createEntityManager();
+    }
+
+    /**
+     * Creates a service and its dependencies, all bound to the given EntityManager.
+     *
+     * @param type the service class
+     * @param em the EntityManager injected into every {@code @PersistenceContext} field
+     * @return the wired service
+     */
+    public <T> T newService(Class<T> type, EntityManager em) {
+        return type.cast(wire(type, em, new HashMap<>()));
+    }
+
+    /**
+     * Creates a service like {@link #newService(Class, EntityManager)}, injecting the given
+     * instances wherever their class is injected instead of new ones.
+     *
+     * @param type the service class
+     * @param em the EntityManager injected into every {@code @PersistenceContext} field
+     * @param shared already wired instances, e.g. singletons shared between threads
+     * @return the wired service
+     */
+    public <T> T newService(Class<T> type, EntityManager em, Object... shared) {
+        Map<Class<?>, Object> instances = new HashMap<>();
+        for (Object bean : shared) {
+            instances.put(bean.getClass(), bean);
+        }
+        return type.cast(wire(type, em, instances));
+    }
+
+    private Object wire(Class<?> type, EntityManager em, Map<Class<?>, Object> instances) {
+        Object existing = instances.get(type);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            Object bean = type.getDeclaredConstructor().newInstance();
+            instances.put(type, bean);
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(PersistenceContext.class)) {
+                        field.setAccessible(true);
+                        field.set(bean, em);
+                    } else if (field.isAnnotationPresent(Inject.class)) {
+                        field.setAccessible(true);
+                        field.set(bean, wire(field.getType(), em, instances));
+                    } else if (field.isAnnotationPresent(Resource.class) && field.getType() == SessionContext.class) {
+                        field.setAccessible(true);
+                        field.set(bean, sessionContextOf(bean));
+                    }
+                }
+            }
+            return bean;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Session context of a bean that only answers {@code getBusinessObject}, with the bean itself.
+     */
+    private static SessionContext sessionContextOf(Object bean) {
+        return (SessionContext) Proxy.newProxyInstance(SessionContext.class.getClassLoader(),
+                new Class<?>[] { SessionContext.class }, (proxy, method, args) -> {
+                    if ("getBusinessObject".equals(method.getName())) {
+                        return bean;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import Utils.CommentUtils;
+import models.Comment;
+import models.User;
+import models.UserPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommentUtils.validateComment on comments by random users on random posts
+ * (a mix of friends and non-friends of the author).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentValidationBenchmark {
+
+    private static final int COMMENTS = 1024;
+
+    private final Comment[] comments = new Comment[COMMENTS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticDataGenerator.Dataset data = BenchmarkEnvironment.get().getDataset();
+        Random random = new Random(1);
+        for (int i = 0; i < COMMENTS; i++) {
+            int p = random.nextInt(data.getPostIds().length);
+
+            User author = new User();
+            author.setUserId(data.getPostAuthors()[p]);
+            UserPost post = new UserPost();
+            post.setPostId(data.getPostIds()[p]);
+            post.setUser(author);
+
+            User creator = new User();
+            creator.setUserId(data.getUserIds()[random.nextInt(data.getUserIds().length)]);
+
+            Comment comment = new Comment();
+            comment.setCreator(creator);
+            comment.setPost(post);
+            comment.setContent("Comment " + i);
+            comment.setTimestamp(new Date());
+            comments[i] = comment;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.shutdown();
+    }
+
+    @Benchmark
+    public List<String> validateComment() {
+        return CommentUtils.validateComment(comments[next++ & (COMMENTS - 1)]);
+    }
+}
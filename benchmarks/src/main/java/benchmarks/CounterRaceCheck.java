@@ -0,0 +1,198 @@
+package benchmarks;
+
+import Utils.SocialGraphIndex;
+import enums.CounterType;
+import service.CommentService;
+import service.EngagementCounterService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CounterRaceCheck – Hammers the comment counters of a few posts from many threads while the
+ * counters are flushed and reconciled concurrently, then checks that every counter equals the
+ * number of comment rows (exits with status 1 on failure).
+ *
+ * Transactions run through {@link LocalTransactions}, so the counter deltas are recorded
+ * after commit as in the container, which is where a flush or reconciliation can race them.
+ * The reconciliation walks the post IDs in small ranges, one transaction each, as the
+ * scheduled one does, so flushes and comments interleave with it.
+ *
+ * {@code java -Dbench.users=2000 -cp benchmarks/target/benchmarks.jar benchmarks.CounterRaceCheck [threads] [commentsPerThread]}
+ */
+public final class CounterRaceCheck {
+
+    private static final String COUNT_COMMENTS_QUERY =
+        "SELECT COUNT(c) FROM Comment c WHERE c.post.postId = :postId";
+
+    /** Number of posts the comments are spread over. */
+    private static final int POSTS = 4;
+
+    /** Post IDs recounted per reconciliation transaction. */
+    private static final int RECONCILE_RANGE = 1_000;
+
+    private CounterRaceCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int commentsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+        LocalTransactions.install();
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        boolean ok;
+        try {
+            ok = run(env, threads, commentsPerThread);
+        } finally {
+            BenchmarkEnvironment.shutdown();
+        }
+        System.out.println(ok ? "PASSED" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(BenchmarkEnvironment env, int threads, int commentsPerThread) throws Exception {
+        // Posts of authors with friends; only friends of the author may comment
+        SyntheticDataGenerator.Dataset dataset = env.getDataset();
+        int[] postIds = new int[POSTS];
+        long[][] commenters = new long[POSTS][];
+        for (int i = 0, found = 0; found < POSTS; i++) {
+            long[] friends = SocialGraphIndex.getInstance().getFriends(dataset.getPostAuthors()[i]);
+            if (friends.length > 0) {
+                postIds[found] = dataset.getPostIds()[i];
+                commenters[found++] = friends;
+            }
+        }
+
+        // One counter service for all threads, like the container singleton
+        EntityManager counterEm = env.createEntityManager();
+        EngagementCounterService counters = env.newService(EngagementCounterService.class, counterEm);
+        reconcile(counters, counterEm);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger flushes = new AtomicInteger();
+        AtomicInteger reconciles = new AtomicInteger();
+        Thread flusher = new Thread(() -> {
+            while (writing.get()) {
+                inCounterTransaction(counters, counterEm, counters::flush);
+                flushes.incrementAndGet();
+                pause(1);
+            }
+        });
+        Thread reconciler = new Thread(() -> {
+            while (writing.get()) {
+                reconcile(counters, counterEm);
+                reconciles.incrementAndGet();
+                pause(25);
+            }
+        });
+
+        // -------------------- Parallel comments --------------------
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        flusher.start();
+        reconciler.start();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    EntityManager em = env.createEntityManager();
+                    try {
+                        CommentService comments = env.newService(CommentService.class, em, counters);
+                        start.await();
+                        for (int i = 0; i < commentsPerThread; i++) {
+                            int p = random.nextInt(POSTS);
+                            long commenter = commenters[p][random.nextInt(commenters[p].length)];
+                            List<String> errors = LocalTransactions.inTransaction(em,
+                                    () -> comments.addCommentToUserPost(commenter, postIds[p], "Counting comments."));
+                            if (!errors.isEmpty()) {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        em.close();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            writing.set(false);
+            pool.shutdown();
+            flusher.join();
+            reconciler.join();
+        }
+        inCounterTransaction(counters, counterEm, counters::flush);
+
+        // -------------------- Counters against rows --------------------
+        boolean ok = true;
+        EntityManager em = env.createEntityManager();
+        try {
+            for (int postId : postIds) {
+                long rows = em.createQuery(COUNT_COMMENTS_QUERY, Long.class)
+                        .setParameter("postId", postId)
+                        .getSingleResult();
+                long counted;
+                synchronized (counters) {
+                    counted = counters.getCount(postId, CounterType.COMMENTS);
+                }
+                System.out.println("Post " + postId + ": " + rows + " comment rows, counter " + counted);
+                ok &= rows == counted;
+            }
+        } finally {
+            em.close();
+            counterEm.close();
+        }
+        System.out.println(threads + " threads x " + commentsPerThread + " comments (" + rejected + " rejected), "
+                + flushes + " flushes and " + reconciles + " reconciliations meanwhile");
+        return ok && rejected.get() == 0;
+    }
+
+    /**
+     * Reconciles every counter range by range, like {@code EngagementCounterService.reconcile}
+     * does through its business interface.
+     */
+    private static void reconcile(EngagementCounterService counters, EntityManager counterEm) {
+        int lastPostId;
+        synchronized (counters) {
+            lastPostId = counters.getLastCountedPostId();
+        }
+        for (int from = 0; from <= lastPostId; from += RECONCILE_RANGE) {
+            int fromId = from;
+            int toId = Math.min(from + RECONCILE_RANGE - 1, lastPostId);
+            inCounterTransaction(counters, counterEm, () -> counters.reconcileRange(fromId, toId));
+        }
+    }
+
+    /**
+     * Runs a flush or a reconciliation range in its own transaction; the counter service's
+     * EntityManager is used by one thread at a time.
+     */
+    private static void inCounterTransaction(EngagementCounterService counters, EntityManager counterEm, Runnable action) {
+        synchronized (counters) {
+            LocalTransactions.inTransaction(counterEm, () -> {
+                action.run();
+                return null;
+            });
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
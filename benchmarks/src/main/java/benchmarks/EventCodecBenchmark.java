@@ -0,0 +1,121 @@
+package benchmarks;
+
+import messaging.ActivityLogEvent;
+import messaging.ActivityLogEventCodec;
+import messaging.EventCodec;
+import messaging.NotificationEvent;
+import messaging.NotificationEventCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the JMS events: through their binary codec, as the producers send them
+ * in a BytesMessage, and through Java serialization, as an ObjectMessage carried them before.
+ * The setup prints the average payload size of both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final int EVENTS = 256;
+
+    /** The event type: {@code notification} or {@code activityLog}. */
+    @Param({ "notification", "activityLog" })
+    public String event;
+
+    private EventCodec<Object> codec;
+    private final Serializable[] events = new Serializable[EVENTS];
+    private final byte[][] encoded = new byte[EVENTS][];
+    private final byte[][] serialized = new byte[EVENTS][];
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(42);
+        boolean notification = "notification".equals(event);
+        EventCodec<?> eventCodec = notification ? NotificationEventCodec.INSTANCE : ActivityLogEventCodec.INSTANCE;
+        codec = (EventCodec<Object>) eventCodec;
+
+        long encodedBytes = 0;
+        long serializedBytes = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            long source = 1 + random.nextInt(100_000);
+            long post = 1 + random.nextInt(1_000_000);
+            events[i] = notification
+                    ? new NotificationEvent(source, 1L + random.nextInt(100_000), "POST_LIKED",
+                            "user" + source + " liked your post.", post, "user" + source)
+                    : new ActivityLogEvent(source, "LIKED", "Liked post #" + post);
+            encoded[i] = codec.encode(events[i]);
+            serialized[i] = serialize(events[i]);
+            encodedBytes += encoded[i].length;
+            serializedBytes += serialized[i].length;
+        }
+        System.out.println(event + " payload: " + encodedBytes / EVENTS + " bytes with " + codec.name()
+                + ", " + serializedBytes / EVENTS + " bytes serialized.");
+    }
+
+    private static byte[] serialize(Serializable event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] payload) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return codec.encode(events[next++ % EVENTS]);
+    }
+
+    @Benchmark
+    public Object codecDecode() {
+        return codec.decode(encoded[next++ % EVENTS]);
+    }
+
+    @Benchmark
+    public byte[] serializationEncode() {
+        return serialize(events[next++ % EVENTS]);
+    }
+
+    @Benchmark
+    public Object serializationDecode() {
+        return deserialize(serialized[next++ % EVENTS]);
+    }
+}
@@ -0,0 +1,164 @@
+package benchmarks;
+
+import service.ActivityLogService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceContext;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ExportStreamCheck – Streams a large activity log export through {@code ActivityLogService.writeAllLogs}
+ * under a small heap and checks that every row is written as one well-formed JSON array (exits with
+ * status 1 on failure, or dies with an OutOfMemoryError if the export buffers its rows).
+ *
+ * The rows live in a file-based H2 database in a temporary directory, so the heap only holds what
+ * the export itself keeps; the JSON (about 100 bytes per row) is counted and discarded.
+ *
+ * {@code java -Xmx64m -cp benchmarks/target/benchmarks.jar benchmarks.ExportStreamCheck [rows]}
+ */
+public final class ExportStreamCheck {
+
+    /** Rows inserted per transaction while filling the table. */
+    private static final int FILL_CHUNK = 50_000;
+
+    private static final String FILL_SQL =
+        "INSERT INTO ActivityLog (id, userId, action, description, timestamp) " +
+        "SELECT X, MOD(X, 10000) + 1, 'post created', CONCAT('Created post #', X), " +
+        "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(?, ?)";
+
+    private ExportStreamCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        File directory = Files.createTempDirectory("export-check").toFile();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url", "jdbc:h2:" + new File(directory, "export").getAbsolutePath());
+        properties.put("hibernate.connection.pool_size", "2");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("bench", properties);
+        boolean ok;
+        try {
+            ok = run(emf, rows);
+        } finally {
+            emf.close();
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+        System.out.println(ok ? "PASSED" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(EntityManagerFactory emf, long rows) throws Exception {
+        // -------------------- Fill --------------------
+        long started = System.nanoTime();
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (long from = 1; from <= rows; from += FILL_CHUNK) {
+                em.getTransaction().begin();
+                em.createNativeQuery(FILL_SQL)
+                        .setParameter(1, from)
+                        .setParameter(2, Math.min(rows, from + FILL_CHUNK - 1))
+                        .executeUpdate();
+                em.getTransaction().commit();
+            }
+        } finally {
+            em.close();
+        }
+        System.out.println(rows + " activity logs inserted in " + (System.nanoTime() - started) / 1_000_000 + " ms.");
+
+        // -------------------- Export --------------------
+        resetPeakHeap();
+        started = System.nanoTime();
+        CountingOutputStream out = new CountingOutputStream();
+        long written;
+        em = emf.createEntityManager();
+        try {
+            ActivityLogService service = new ActivityLogService();
+            inject(service, em);
+            em.getTransaction().begin();
+            written = service.writeAllLogs(out);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.println(written + " rows, " + out.count / (1024 * 1024) + " MB of JSON in " + millis + " ms; peak heap "
+                + peakHeap() / (1024 * 1024) + " MB of " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB.");
+        return written == rows && out.first == '[' && out.last == ']';
+    }
+
+    /**
+     * Sets the {@code @PersistenceContext} field of a service, as the container does.
+     */
+    private static void inject(Object service, EntityManager em) throws IllegalAccessException {
+        for (Field field : service.getClass().getDeclaredFields()) {
+            if (field.isAnnotationPresent(PersistenceContext.class)) {
+                field.setAccessible(true);
+                field.set(service, em);
+            }
+        }
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the peak usage of the heap pools since the last reset
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Discards the JSON, keeping its size and its first and last bytes.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+        private int first = -1;
+        private int last = -1;
+
+        @Override
+        public void write(int b) {
+            if (count++ == 0) {
+                first = b;
+            }
+            last = b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (len <= 0) {
+                return;
+            }
+            if (count == 0) {
+                first = b[off];
+            }
+            count += len;
+            last = b[off + len - 1];
+        }
+    }
+}
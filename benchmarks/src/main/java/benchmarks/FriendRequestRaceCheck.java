@@ -0,0 +1,159 @@
+package benchmarks;
+
+import Utils.SocialGraphIndex;
+import enums.FriendRequestOutcome;
+import models.FriendshipRequests;
+import models.User;
+import service.FriendshipService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FriendRequestRaceCheck – Fires concurrent friend requests at FriendshipService on the benchmark
+ * database and checks the outcome (exits with status 1 on failure).
+ *
+ * <ol>
+ *   <li>{@code threads} (default 100) parallel requests A → B, each in its own transaction:
+ *       exactly one pending request row must exist afterwards.</li>
+ *   <li>The reverse request B → A: the pending request is accepted, A and B are friends and
+ *       no pending request is left for the pair.</li>
+ * </ol>
+ *
+ * {@code java -Dbench.users=2000 -cp benchmarks/target/benchmarks.jar benchmarks.FriendRequestRaceCheck [threads]}
+ */
+public final class FriendRequestRaceCheck {
+
+    private static final String COUNT_REQUESTS_QUERY =
+        "SELECT COUNT(r) FROM FriendshipRequests r WHERE r.requester.userId = :requesterId AND r.receiver.userId = :receiverId";
+
+    private FriendRequestRaceCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        boolean ok;
+        try {
+            ok = run(env, threads);
+        } finally {
+            BenchmarkEnvironment.shutdown();
+        }
+        System.out.println(ok ? "PASSED" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(BenchmarkEnvironment env, int threads) throws Exception {
+        long[] pair = pickStrangers(env.getDataset().getUserIds());
+        long a = pair[0];
+        long b = pair[1];
+
+        // -------------------- Parallel A -> B --------------------
+        Map<FriendRequestOutcome, AtomicLong> outcomes = new EnumMap<>(FriendRequestOutcome.class);
+        for (FriendRequestOutcome outcome : FriendRequestOutcome.values()) {
+            outcomes.put(outcome, new AtomicLong());
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    outcomes.get(send(env, a, b)).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long rows = countRequests(env, a, b);
+        System.out.println(threads + " parallel requests " + a + " -> " + b + ": " + outcomes + ", rows: " + rows);
+        boolean ok = rows == 1 && outcomes.get(FriendRequestOutcome.SENT).get() == 1;
+
+        // -------------------- Reverse B -> A --------------------
+        FriendRequestOutcome reverse = send(env, b, a);
+        EntityManager em = env.createEntityManager();
+        try {
+            FriendshipRequests pending = em.createQuery(
+                    "SELECT r FROM FriendshipRequests r WHERE r.requester.userId = :a AND r.receiver.userId = :b",
+                    FriendshipRequests.class)
+                .setParameter("a", a)
+                .setParameter("b", b)
+                .getSingleResult();
+            boolean friends = env.newService(FriendshipService.class, em)
+                    .isAlreadyFriends(em.find(User.class, a), em.find(User.class, b));
+            long reverseRows = countRequests(env, b, a);
+            System.out.println("Reverse request " + b + " -> " + a + ": " + reverse + ", request status: "
+                    + pending.getStatus() + ", pending pair: " + pending.getPendingPair()
+                    + ", friends: " + friends + ", reverse rows: " + reverseRows);
+            ok &= reverse == FriendRequestOutcome.ACCEPTED && friends
+                    && pending.getPendingPair() == null && reverseRows == 0;
+        } finally {
+            em.close();
+        }
+        return ok;
+    }
+
+    /**
+     * Sends one request in its own transaction, the way the container runs FriendshipService.
+     */
+    private static FriendRequestOutcome send(BenchmarkEnvironment env, long requesterId, long receiverId) {
+        EntityManager em = env.createEntityManager();
+        try {
+            FriendshipService service = env.newService(FriendshipService.class, em);
+            em.getTransaction().begin();
+            FriendRequestOutcome outcome = service.sendFriendRequest(
+                    em.find(User.class, requesterId), em.find(User.class, receiverId));
+            if (em.getTransaction().getRollbackOnly()) {
+                em.getTransaction().rollback();
+            } else {
+                em.getTransaction().commit();
+            }
+            return outcome;
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static long countRequests(BenchmarkEnvironment env, long requesterId, long receiverId) {
+        EntityManager em = env.createEntityManager();
+        try {
+            return em.createQuery(COUNT_REQUESTS_QUERY, Long.class)
+                    .setParameter("requesterId", requesterId)
+                    .setParameter("receiverId", receiverId)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * @return two users that are not friends.
+     */
+    private static long[] pickStrangers(long[] userIds) {
+        for (int i = userIds.length - 1; i > 0; i--) {
+            for (int j = 0; j < i; j++) {
+                if (!SocialGraphIndex.getInstance().areFriends(userIds[i], userIds[j])) {
+                    return new long[] { userIds[i], userIds[j] };
+                }
+            }
+        }
+        throw new IllegalStateException("Every pair of users is already friends.");
+    }
+}
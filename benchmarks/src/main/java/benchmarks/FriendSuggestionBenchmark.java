@@ -0,0 +1,63 @@
+package benchmarks;
+
+import Utils.FriendshipUtils;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FriendshipUtils.suggestFriends: top suggestions of users taken round-robin, including
+ * loading the suggested users. Run with -Dminisocial.suggestions.cacheSize=1 to measure the
+ * ranking itself rather than the suggestion cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FriendSuggestionBenchmark {
+
+    private static final int LIMIT = 10;
+
+    private EntityManager em;
+    private long[] userIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        em = env.createEntityManager();
+        userIds = env.getDataset().getUserIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        BenchmarkEnvironment.shutdown();
+    }
+
+    @Benchmark
+    public Map<User, Integer> suggestFriends() {
+        long userId = userIds[next++ % userIds.length];
+        try {
+            return FriendshipUtils.suggestFriends(em, userId, LIMIT);
+        } finally {
+            em.clear();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package benchmarks;
+
+import Utils.SocialGraphIndex;
+import models.ActivityLog;
+import models.Friendships;
+import models.NotificationEntity;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of the entities written in bulk: friendship rows, notification fan-out
+ * and activity log entries. Each invocation persists {@link #ROWS} rows in one transaction,
+ * flushes them and rolls back; the score is in inserted rows per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertThroughputBenchmark {
+
+    private static final int ROWS = 100;
+
+    private EntityManager em;
+    private long[] userIds;
+    private final long[][] pairs = new long[ROWS][];
+    private final Random random = new Random(1);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        em = env.createEntityManager();
+        userIds = env.getDataset().getUserIds();
+
+        // Distinct pairs of users that are not friends yet (uk_friendships_pair)
+        Set<String> seen = new HashSet<>();
+        int found = 0;
+        while (found < ROWS) {
+            long a = randomUserId();
+            long b = randomUserId();
+            long low = Math.min(a, b);
+            long high = Math.max(a, b);
+            if (low != high && !SocialGraphIndex.getInstance().areFriends(low, high) && seen.add(low + ":" + high)) {
+                pairs[found++] = new long[] { low, high };
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        BenchmarkEnvironment.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertFriendships() {
+        em.getTransaction().begin();
+        try {
+            // One row per pair in (lower ID, higher ID) order, as FriendshipUtils.createMutualFriendship writes it
+            for (int i = 0; i < ROWS; i++) {
+                Friendships friendship = new Friendships();
+                friendship.setUser(em.getReference(User.class, pairs[i][0]));
+                friendship.setFriend(em.getReference(User.class, pairs[i][1]));
+                friendship.setSince(new Date());
+                em.persist(friendship);
+            }
+            em.flush();
+        } finally {
+            em.getTransaction().rollback();
+            em.clear();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertNotifications() {
+        em.getTransaction().begin();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                NotificationEntity notification = new NotificationEntity();
+                notification.setSourceUserId(randomUserId());
+                notification.setTargetUserId(randomUserId());
+                notification.setEventType("POST_LIKED");
+                notification.setMessage("Someone liked your post.");
+                notification.setIsRead(false);
+                notification.setTimestamp(Instant.now());
+                em.persist(notification);
+            }
+            em.flush();
+        } finally {
+            em.getTransaction().rollback();
+            em.clear();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertActivityLogs() {
+        em.getTransaction().begin();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                ActivityLog log = new ActivityLog();
+                log.setUserId(randomUserId());
+                log.setAction("LIKE");
+                log.setDescription("Liked a post.");
+                log.setTimestamp(Instant.now());
+                em.persist(log);
+            }
+            em.flush();
+        } finally {
+            em.getTransaction().rollback();
+            em.clear();
+        }
+    }
+
+    private long randomUserId() {
+        return userIds[random.nextInt(userIds.length)];
+    }
+}
@@ -0,0 +1,151 @@
+package benchmarks;
+
+import Utils.SocialGraphIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.LikeService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LikeService.likeUserPost on one hot post that already has {@link #likes} likes: friends of the
+ * author who have not liked it yet like it, taken round-robin. The latency should not grow with
+ * the likes of the post, since duplicates are ruled out by its Bloom filter (built after the
+ * first like attempts) or by the indexed existence query.
+ *
+ * The post is topped up to the wanted number of likes before the run. The generated likes are
+ * inserted with referential integrity off and name liker IDs that have no user row: only the
+ * IDs are ever read, and a million user rows would take H2 much longer to insert. Each call
+ * runs in its own transaction through {@link LocalTransactions}, which is rolled back so the
+ * data set stays unchanged and the filter only learns committed likes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LikeServiceBenchmark {
+
+    /** Generated likes inserted per transaction. */
+    private static final int FILL_CHUNK = 100_000;
+
+    private static final String COUNT_POST_LIKES_SQL =
+        "SELECT COUNT(*) FROM likes WHERE post_id = ?";
+
+    // Like IDs follow the liker IDs, shifted past the existing likes
+    private static final String INSERT_LIKES_SQL =
+        "INSERT INTO likes (like_id, user_id, post_id, group_post_id, timestamp) " +
+        "SELECT X + ?, X, ?, NULL, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)";
+
+    /** Likes of the hot post when the run starts. */
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int likes;
+
+    private EntityManager em;
+    private LikeService likeService;
+
+    private int post;
+    private long[] likers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalTransactions.install();
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        em = env.createEntityManager();
+        likeService = env.newService(LikeService.class, em);
+
+        // The post of the author with the most friends, so there are many possible likers
+        SyntheticDataGenerator.Dataset data = env.getDataset();
+        int hot = 0;
+        for (int i = 1; i < data.getPostIds().length; i++) {
+            if (degree(data.getPostAuthors()[i]) > degree(data.getPostAuthors()[hot])) {
+                hot = i;
+            }
+        }
+        post = data.getPostIds()[hot];
+        List<Long> candidates = new ArrayList<>();
+        for (long friend : SocialGraphIndex.getInstance().getFriends(data.getPostAuthors()[hot])) {
+            if (!data.hasLike(post, friend)) {
+                candidates.add(friend);
+            }
+        }
+        likers = candidates.stream().mapToLong(Long::longValue).toArray();
+
+        topUp();
+    }
+
+    /**
+     * Adds generated likes of the hot post until it has the wanted number of likes.
+     */
+    private void topUp() {
+        long existing = ((Number) em.createNativeQuery(COUNT_POST_LIKES_SQL)
+                .setParameter(1, post)
+                .getSingleResult()).longValue();
+        long missing = likes - existing;
+        if (missing <= 0) {
+            return;
+        }
+
+        long firstLiker = maxId("User", "userId") + 1;
+        long likeIdShift = maxId("likes", "like_id") + 1 - firstLiker;
+        long lastLiker = firstLiker + missing - 1;
+        execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (long from = firstLiker; from <= lastLiker; from += FILL_CHUNK) {
+            long to = Math.min(lastLiker, from + FILL_CHUNK - 1);
+            em.getTransaction().begin();
+            em.createNativeQuery(INSERT_LIKES_SQL)
+                    .setParameter(1, likeIdShift)
+                    .setParameter(2, post)
+                    .setParameter(3, from)
+                    .setParameter(4, to)
+                    .executeUpdate();
+            em.getTransaction().commit();
+        }
+
+        execute("SET REFERENTIAL_INTEGRITY TRUE");
+        execute("ALTER SEQUENCE like_seq RESTART WITH " + (maxId("likes", "like_id") + 1));
+    }
+
+    private void execute(String sql) {
+        em.getTransaction().begin();
+        em.createNativeQuery(sql).executeUpdate();
+        em.getTransaction().commit();
+    }
+
+    private long maxId(String table, String column) {
+        return ((Number) em.createNativeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)
+                .getSingleResult()).longValue();
+    }
+
+    private static int degree(long userId) {
+        return SocialGraphIndex.getInstance().getFriends(userId).length;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        BenchmarkEnvironment.shutdown();
+    }
+
+    @Benchmark
+    public List<String> likeUserPost() {
+        long liker = likers[next++ % likers.length];
+        return LocalTransactions.inRolledBackTransaction(em, () -> likeService.likeUserPost(liker, post));
+    }
+}
@@ -0,0 +1,259 @@
+package benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadDriver – Replays a weighted mix of REST calls against a running MiniSocial server at a
+ * target request rate and reports throughput and latency percentiles per endpoint.
+ *
+ * The load is open-loop: requests are issued on a fixed schedule whether or not earlier ones
+ * have completed, and latency is measured from the scheduled start, so a slow server shows up
+ * as higher latency instead of silently lowering the offered load.
+ *
+ * IDs are drawn uniformly from the ranges of a data set loaded by {@link SyntheticDataGenerator}.
+ *
+ * Usage: {@code java -cp benchmarks.jar benchmarks.LoadDriver [key=value ...]}
+ * <ul>
+ *   <li>{@code url} – base URL of the REST API (default http://localhost:8080/Minisocial/api)</li>
+ *   <li>{@code rps} – target requests per second (default 100)</li>
+ *   <li>{@code duration} – seconds of load after warmup (default 60)</li>
+ *   <li>{@code warmup} – seconds of load not recorded (default 10)</li>
+ *   <li>{@code users}, {@code posts}, {@code groups} – ID ranges of the data set</li>
+ *   <li>{@code mix} – endpoint weights, e.g. {@code timeline=40,posts=20,likes=10,comments=10,
+ *       suggestions=5,search=5,like=5,comment=5}</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    private static final String DEFAULT_MIX =
+        "timeline=40,posts=20,likes=10,comments=10,suggestions=5,search=5,like=5,comment=5";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final int users;
+    private final int posts;
+    private final int groups;
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final String[] wheel;
+
+    private volatile boolean recording;
+
+    LoadDriver(Map<String, String> options) {
+        baseUrl = options.getOrDefault("url", "http://localhost:8080/Minisocial/api");
+        users = Integer.parseInt(options.getOrDefault("users", "10000"));
+        posts = Integer.parseInt(options.getOrDefault("posts", String.valueOf(users * 5)));
+        groups = Integer.parseInt(options.getOrDefault("groups", "100"));
+
+        // Weighted round-robin wheel of endpoint names
+        List<String> slots = new ArrayList<>();
+        for (String entry : options.getOrDefault("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.trim().split("=");
+            String name = parts[0].trim();
+            if (!isKnown(name)) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + name);
+            }
+            recorders.put(name, new Recorder());
+            for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+                slots.add(name);
+            }
+        }
+        wheel = slots.toArray(new String[0]);
+    }
+
+    // -------------------- Endpoints --------------------
+
+    private static boolean isKnown(String name) {
+        return Arrays.asList("timeline", "posts", "likes", "comments", "suggestions", "search",
+                "members", "like", "comment").contains(name);
+    }
+
+    private HttpRequest request(String name) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long user = 1 + random.nextInt(users);
+        long post = 1 + random.nextInt(posts);
+        switch (name) {
+            case "timeline":
+                return get("/posts/timeline/" + user);
+            case "posts":
+                return get("/posts/" + user);
+            case "likes":
+                return get("/likes/userpost/" + post);
+            case "comments":
+                return get("/comments/userpost/" + post);
+            case "suggestions":
+                return get("/friendships/" + user + "/suggestions");
+            case "search":
+                return get("/users/search?q=user" + random.nextInt(100));
+            case "members":
+                return get("/groups/members/" + (1 + random.nextInt(groups)));
+            case "like":
+                return post("/likes/userpost/" + post + "/" + user, "");
+            case "comment":
+                return post("/comments/userpost/" + post + "/" + user, "{\"content\":\"Load test comment\"}");
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    // -------------------- Run --------------------
+
+    /**
+     * Issues requests at the target rate for warmup + duration seconds, then waits for the
+     * requests still in flight.
+     */
+    void run(int rps, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long recordFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = recordFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        AtomicLong issued = new AtomicLong();
+
+        for (long n = 0; ; n++) {
+            long scheduled = start + n * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (!recording && scheduled >= recordFrom) {
+                recording = true;
+                System.out.println("Warmup done, recording for " + durationSeconds + " s.");
+            }
+
+            String name = wheel[(int) (n % wheel.length)];
+            Recorder recorder = recorders.get(name);
+            boolean record = recording;
+            inFlight.add(client.sendAsync(request(name), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (record) {
+                            boolean failed = error != null || response.statusCode() >= 500;
+                            recorder.record(System.nanoTime() - scheduled, failed);
+                        }
+                        return null;
+                    }));
+            issued.incrementAndGet();
+            if (inFlight.size() >= 10_000) {
+                inFlight.removeIf(CompletableFuture::isDone);
+            }
+        }
+
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture<?>[]::new)).join();
+        report(durationSeconds, issued.get());
+    }
+
+    private void report(int durationSeconds, long issued) {
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-12s %8s %7s %9s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Recorder total = new Recorder();
+        for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+            print(entry.getKey(), entry.getValue(), durationSeconds);
+            total.addAll(entry.getValue());
+        }
+        print("total", total, durationSeconds);
+        System.out.println("Requests issued (including warmup): " + issued);
+    }
+
+    private static void print(String name, Recorder recorder, int durationSeconds) {
+        long[] latencies = recorder.sorted();
+        System.out.println(String.format(Locale.ROOT, "%-12s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, latencies.length, recorder.errors, (double) latencies.length / durationSeconds,
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                percentile(latencies, 99.9), percentile(latencies, 100)));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    /**
+     * Latencies of one endpoint (nanoseconds).
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void record(long nanos, boolean failed) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        synchronized void addAll(Recorder other) {
+            long[] values = other.sorted();
+            for (long value : values) {
+                record(value, false);
+            }
+            errors += other.errors;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.out.println("Usage: LoadDriver [url=..] [rps=..] [duration=..] [warmup=..] "
+                        + "[users=..] [posts=..] [groups=..] [mix=name=weight,...]");
+                return;
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LoadDriver driver = new LoadDriver(options);
+        driver.run(Integer.parseInt(options.getOrDefault("rps", "100")),
+                Integer.parseInt(options.getOrDefault("warmup", "10")),
+                Integer.parseInt(options.getOrDefault("duration", "60")));
+    }
+}
@@ -0,0 +1,162 @@
+package benchmarks;
+
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.OperationNotSupportedException;
+import javax.naming.spi.InitialContextFactory;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * LocalTransactions – Stands in for the container's TransactionSynchronizationRegistry, so
+ * TransactionHooks callbacks run around the commit the way they do under JTA instead of
+ * immediately.
+ *
+ * After {@link #install()}, transactions run through {@link #inTransaction(EntityManager, Supplier)}
+ * flush, call beforeCompletion of the registered synchronizations, commit and then call
+ * afterCompletion with the outcome. Code running outside such a transaction sees no active
+ * transaction, as before.
+ */
+public final class LocalTransactions implements TransactionSynchronizationRegistry {
+
+    /** JNDI name TransactionHooks looks the registry up under. */
+    private static final String REGISTRY_JNDI_NAME = "java:comp/TransactionSynchronizationRegistry";
+
+    private static final LocalTransactions REGISTRY = new LocalTransactions();
+
+    private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+    private LocalTransactions() {}
+
+    /**
+     * Makes the registry visible to {@code new InitialContext()} in this JVM.
+     * Call before the first transaction.
+     */
+    public static void install() {
+        System.setProperty(Context.INITIAL_CONTEXT_FACTORY, ContextFactory.class.getName());
+    }
+
+    /**
+     * Runs work in a resource-local transaction of the EntityManager with container-like
+     * synchronization callbacks. The transaction rolls back if the work throws.
+     */
+    public static <T> T inTransaction(EntityManager em, Supplier<T> work) {
+        Transaction tx = new Transaction();
+        REGISTRY.current.set(tx);
+        em.getTransaction().begin();
+        boolean committed = false;
+        try {
+            T result = work.get();
+            if (tx.rollbackOnly) {
+                return result;
+            }
+            em.flush();
+            tx.synchronizations.forEach(Synchronization::beforeCompletion);
+            em.getTransaction().commit();
+            committed = true;
+            return result;
+        } finally {
+            REGISTRY.current.remove();
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.clear();
+            int status = committed ? Status.STATUS_COMMITTED : Status.STATUS_ROLLEDBACK;
+            tx.synchronizations.forEach(s -> s.afterCompletion(status));
+        }
+    }
+
+    /**
+     * Runs work like {@link #inTransaction(EntityManager, Supplier)}, then rolls the transaction
+     * back, so callbacks see a rollback and the data stays unchanged.
+     */
+    public static <T> T inRolledBackTransaction(EntityManager em, Supplier<T> work) {
+        return inTransaction(em, () -> {
+            T result = work.get();
+            REGISTRY.setRollbackOnly();
+            return result;
+        });
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        return current.get();
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        active().resources.put(key, value);
+    }
+
+    @Override
+    public Object getResource(Object key) {
+        return active().resources.get(key);
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        active().synchronizations.add(sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        return current.get() == null ? Status.STATUS_NO_TRANSACTION : Status.STATUS_ACTIVE;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        active().rollbackOnly = true;
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        return active().rollbackOnly;
+    }
+
+    private Transaction active() {
+        Transaction tx = current.get();
+        if (tx == null) {
+            throw new IllegalStateException("No transaction is active.");
+        }
+        return tx;
+    }
+
+    private static final class Transaction {
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+        private final Map<Object, Object> resources = new HashMap<>();
+        private boolean rollbackOnly;
+    }
+
+    /**
+     * Initial context that only knows the registry.
+     */
+    public static final class ContextFactory implements InitialContextFactory {
+
+        @Override
+        public Context getInitialContext(Hashtable<?, ?> environment) {
+            return (Context) Proxy.newProxyInstance(Context.class.getClassLoader(), new Class<?>[] { Context.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "lookup":
+                                if (REGISTRY_JNDI_NAME.equals(String.valueOf(args[0]))) {
+                                    return REGISTRY;
+                                }
+                                throw new NameNotFoundException(String.valueOf(args[0]));
+                            case "close":
+                                return null;
+                            default:
+                                throw new OperationNotSupportedException(method.getName());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package benchmarks;
+
+import Utils.PageCursor;
+import Utils.RequestMetrics;
+import dtos.PageDTO;
+import service.CommentService;
+import service.GroupPostService;
+import service.LikeService;
+import service.PostService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StatementCountCheck – Calls the list endpoints' services (likes, comments, user posts and group
+ * posts) on the benchmark database with growing page sizes and checks that each of them issues the
+ * same, constant number of SQL statements whatever the page size (exits with status 1 on failure).
+ *
+ * Statements are counted by {@link Utils.SqlStatementCounter}, registered in the "bench" unit as in
+ * the "hello" unit. Every call runs in its own EntityManager, so nothing is served from an earlier
+ * persistence context. A page that triggers one lazy load per row fails the check.
+ *
+ * {@code java -Dbench.users=2000 -cp benchmarks/target/benchmarks.jar benchmarks.StatementCountCheck [maxStatements]}
+ */
+public final class StatementCountCheck {
+
+    // The targets with the most rows, so the larger pages are full
+    private static final String MOST_LIKED_USER_POST_SQL =
+        "SELECT post_id FROM likes WHERE post_id IS NOT NULL GROUP BY post_id ORDER BY COUNT(*) DESC";
+    private static final String MOST_LIKED_GROUP_POST_SQL =
+        "SELECT l.group_post_id, g.groupId FROM likes l JOIN groupposts g ON g.postId = l.group_post_id " +
+        "GROUP BY l.group_post_id, g.groupId ORDER BY COUNT(*) DESC";
+    private static final String MOST_COMMENTED_USER_POST_SQL =
+        "SELECT post_id FROM comments WHERE post_id IS NOT NULL GROUP BY post_id ORDER BY COUNT(*) DESC";
+    private static final String MOST_COMMENTED_GROUP_POST_SQL =
+        "SELECT c.group_post_id, g.groupId FROM comments c JOIN groupposts g ON g.postId = c.group_post_id " +
+        "GROUP BY c.group_post_id, g.groupId ORDER BY COUNT(*) DESC";
+    private static final String MOST_ACTIVE_AUTHOR_SQL =
+        "SELECT user_id FROM UserPost GROUP BY user_id ORDER BY COUNT(*) DESC";
+    private static final String LARGEST_GROUP_SQL =
+        "SELECT groupId FROM groupposts GROUP BY groupId ORDER BY COUNT(*) DESC";
+
+    /** Page sizes every endpoint is called with. */
+    private static final int[] PAGE_SIZES = { 1, 10, PageCursor.MAX_LIMIT };
+
+    private StatementCountCheck() {}
+
+    public static void main(String[] args) {
+        int maxStatements = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        boolean ok;
+        try {
+            ok = run(env, maxStatements);
+        } finally {
+            BenchmarkEnvironment.shutdown();
+        }
+        System.out.println(ok ? "PASSED" : "FAILED");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(BenchmarkEnvironment env, int maxStatements) {
+        int likedPost;
+        Object[] likedGroupPost;
+        int commentedPost;
+        Object[] commentedGroupPost;
+        long author;
+        long group;
+        EntityManager em = env.createEntityManager();
+        try {
+            likedPost = ((Number) first(em, MOST_LIKED_USER_POST_SQL)).intValue();
+            likedGroupPost = (Object[]) first(em, MOST_LIKED_GROUP_POST_SQL);
+            commentedPost = ((Number) first(em, MOST_COMMENTED_USER_POST_SQL)).intValue();
+            commentedGroupPost = (Object[]) first(em, MOST_COMMENTED_GROUP_POST_SQL);
+            author = ((Number) first(em, MOST_ACTIVE_AUTHOR_SQL)).longValue();
+            group = ((Number) first(em, LARGEST_GROUP_SQL)).longValue();
+        } finally {
+            em.close();
+        }
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new Endpoint("likes of user post " + likedPost,
+                (e, limit) -> env.newService(LikeService.class, e)
+                        .getLikesForUserPost(likedPost, PageCursor.first(), limit)));
+        endpoints.add(new Endpoint("likes of group post " + likedGroupPost[0],
+                (e, limit) -> env.newService(LikeService.class, e)
+                        .getLikesForGroupPost(((Number) likedGroupPost[0]).intValue(),
+                                ((Number) likedGroupPost[1]).longValue(), PageCursor.first(), limit)));
+        endpoints.add(new Endpoint("comments of user post " + commentedPost,
+                (e, limit) -> env.newService(CommentService.class, e)
+                        .getCommentsForUserPost(commentedPost, PageCursor.first(), limit)));
+        endpoints.add(new Endpoint("comments of group post " + commentedGroupPost[0],
+                (e, limit) -> env.newService(CommentService.class, e)
+                        .getCommentsForGroupPost(((Number) commentedGroupPost[0]).intValue(),
+                                ((Number) commentedGroupPost[1]).longValue(), PageCursor.first(), limit)));
+        endpoints.add(new Endpoint("posts of user " + author,
+                (e, limit) -> env.newService(PostService.class, e)
+                        .getAllPostsByUser(author, PageCursor.first(), limit)));
+        endpoints.add(new Endpoint("posts of group " + group,
+                (e, limit) -> env.newService(GroupPostService.class, e)
+                        .getAllGroupPosts(group, PageCursor.first(), limit)));
+
+        boolean ok = true;
+        for (Endpoint endpoint : endpoints) {
+            ok &= endpoint.check(env, maxStatements);
+        }
+        return ok;
+    }
+
+    private static Object first(EntityManager em, String sql) {
+        return em.createNativeQuery(sql).setMaxResults(1).getSingleResult();
+    }
+
+    /**
+     * One list endpoint's service call, parameterized by the page size.
+     */
+    private interface PageCall {
+        PageDTO<?> apply(EntityManager em, int limit);
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final PageCall call;
+
+        Endpoint(String name, PageCall call) {
+            this.name = name;
+            this.call = call;
+        }
+
+        /**
+         * @return true if every page size issued the same number of statements, at most maxStatements,
+         *         and the largest page returned more than one row.
+         */
+        boolean check(BenchmarkEnvironment env, int maxStatements) {
+            long[] statements = new long[PAGE_SIZES.length];
+            int[] items = new int[PAGE_SIZES.length];
+            StringBuilder line = new StringBuilder(name).append(':');
+            RequestMetrics metrics = RequestMetrics.getInstance();
+            for (int i = 0; i < PAGE_SIZES.length; i++) {
+                EntityManager em = env.createEntityManager();
+                long started = System.nanoTime();
+                metrics.begin();
+                try {
+                    PageDTO<?> page = call.apply(em, PAGE_SIZES[i]);
+                    items[i] = page == null ? 0 : page.getItems().size();
+                    statements[i] = metrics.currentStatements();
+                } finally {
+                    metrics.end("GET", name, 200, System.nanoTime() - started);
+                    em.close();
+                }
+                line.append(' ').append(items[i]).append(" rows -> ").append(statements[i]).append(" statements;");
+            }
+
+            boolean ok = items[items.length - 1] > 1;
+            for (long count : statements) {
+                ok &= count == statements[0] && count <= maxStatements;
+            }
+            System.out.println((ok ? "ok     " : "FAILED ") + line);
+            return ok;
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package benchmarks;
+
+import enums.CounterType;
+import enums.GroupMemberShipStatusEnum;
+import enums.RoleEnum;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * SyntheticDataGenerator – Bulk-loads a realistic social graph into the schema of {@code models.*}
+ * with JDBC batch inserts.
+ *
+ * <ul>
+ *   <li>Friendships: power-law graph grown by preferential attachment. Every new user befriends
+ *       {@code friendsPerUser} existing users picked with probability proportional to their degree.
+ *       Each friendship is stored as one row ordered as (lower user ID, higher user ID),
+ *       as {@code FriendshipUtils.createMutualFriendship} does.</li>
+ *   <li>Groups: member counts follow a Zipf distribution; the first member is the admin.</li>
+ *   <li>Posts: each user writes {@code postsPerUser} posts; group posts are written by members,
+ *       spread over the groups by the same Zipf distribution.</li>
+ *   <li>Likes and comments: post popularity follows a Zipf distribution; likers and commenters
+ *       are friends of the author (user posts) or members of the group (group posts).
+ *       Like and comment counters are written to post_counters.</li>
+ * </ul>
+ *
+ * IDs continue after the highest existing ID of each table; on H2 the identity columns and
+ * ID sequences are restarted after the load so the application keeps generating free IDs.
+ *
+ * Standalone use, against a database whose schema was created by the application:
+ * {@code java -cp benchmarks.jar benchmarks.SyntheticDataGenerator <jdbcUrl> [user] [password]}
+ * (sizes from the bench.* system properties, see {@link Config}).
+ */
+public class SyntheticDataGenerator {
+
+    /** Rows per JDBC batch (and per transaction). */
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_USER =
+        "INSERT INTO User (userId, userName, firstName, lastName, email, password, bio, role) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FRIENDSHIP =
+        "INSERT INTO Friendships (friendship_id, user_id, friend_id, since) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_GROUP =
+        "INSERT INTO Groups (groupId, groupName, description, isOpen) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_MEMBERSHIP =
+        "INSERT INTO GroupMembership (id, user_id, group_id, role, status, joinedDate) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_POST =
+        "INSERT INTO Post (postId, post_type, content, publishDate, likesCount, commentsCount) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_POST =
+        "INSERT INTO UserPost (postId, user_id) VALUES (?, ?)";
+    private static final String INSERT_GROUP_POST =
+        "INSERT INTO groupposts (postId, userId, groupId) VALUES (?, ?, ?)";
+    private static final String INSERT_LIKE =
+        "INSERT INTO likes (like_id, user_id, post_id, group_post_id, timestamp) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_COMMENT =
+        "INSERT INTO comments (comment_id, creator_id, post_id, group_post_id, content, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COUNTER =
+        "INSERT INTO post_counters (id, post_id, counter_type, shard, n) VALUES (?, ?, ?, 0, ?)";
+
+    private final Connection connection;
+    private final Config config;
+    private final Random random;
+
+    public SyntheticDataGenerator(Connection connection, Config config) {
+        this.connection = connection;
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    /**
+     * Generates and loads the data set. Commits after every batch.
+     *
+     * @return the generated IDs
+     */
+    public Dataset generate() throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Dataset dataset = load();
+            restartIdGenerators();
+            System.out.println("Synthetic data generated: " + dataset.userIds.length + " users, "
+                    + dataset.friendships + " friendships, " + config.groups + " groups, "
+                    + dataset.memberships + " memberships, " + dataset.posts + " posts, "
+                    + dataset.likes.size() + " likes, " + dataset.comments + " comments in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            return dataset;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private Dataset load() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        java.sql.Date today = new java.sql.Date(now.getTime());
+        int users = config.users;
+
+        // -------------------- Users --------------------
+        long firstUserId = nextId("User", "userId");
+        long[] userIds = new long[users];
+        try (Batch batch = new Batch(INSERT_USER)) {
+            for (int i = 0; i < users; i++) {
+                long id = firstUserId + i;
+                userIds[i] = id;
+                String name = "user" + id;
+                batch.add(id, name, "First" + id, "Last" + id, name + "@example.com", "password", null,
+                        RoleEnum.user.name());
+            }
+        }
+
+        // -------------------- Friendships (preferential attachment) --------------------
+        int maxEdges = users * config.friendsPerUser;
+        int[] edgeFrom = new int[maxEdges];
+        int[] edgeTo = new int[maxEdges];
+        int edges = 0;
+        int[] endpoints = new int[2 * maxEdges];
+        int endpointCount = 0;
+        int[] chosen = new int[config.friendsPerUser];
+        for (int i = 1; i < users; i++) {
+            int wanted = Math.min(config.friendsPerUser, i);
+            int count = 0;
+            while (count < wanted) {
+                int other = endpointCount == 0 ? random.nextInt(i) : endpoints[random.nextInt(endpointCount)];
+                if (contains(chosen, count, other)) {
+                    continue;
+                }
+                chosen[count++] = other;
+                edgeFrom[edges] = i;
+                edgeTo[edges] = other;
+                edges++;
+            }
+            for (int k = 0; k < count; k++) {
+                endpoints[endpointCount++] = i;
+                endpoints[endpointCount++] = chosen[k];
+            }
+        }
+        int[][] friends = adjacency(users, edgeFrom, edgeTo, edges);
+
+        long friendshipId = nextId("Friendships", "friendship_id");
+        try (Batch batch = new Batch(INSERT_FRIENDSHIP)) {
+            for (int e = 0; e < edges; e++) {
+                // edgeTo is always an earlier user, so it has the lower ID
+                batch.add(friendshipId++, userIds[edgeTo[e]], userIds[edgeFrom[e]], today);
+            }
+        }
+
+        // -------------------- Groups (Zipf-sized) --------------------
+        int groups = config.groups;
+        int[][] members = new int[groups][];
+        int memberships = 0;
+        long firstGroupId = 0;
+        if (groups > 0) {
+            ZipfSampler groupPopularity = new ZipfSampler(groups, config.zipfExponent);
+            List<Set<Integer>> memberSets = new ArrayList<>(groups);
+            for (int g = 0; g < groups; g++) {
+                memberSets.add(new HashSet<>());
+            }
+            for (int i = 0; i < users; i++) {
+                for (int k = 0; k < config.groupsPerUser; k++) {
+                    memberSets.get(groupPopularity.next(random)).add(i);
+                }
+            }
+
+            firstGroupId = nextId("Groups", "groupId");
+            try (Batch batch = new Batch(INSERT_GROUP)) {
+                for (int g = 0; g < groups; g++) {
+                    long groupId = firstGroupId + g;
+                    batch.add(groupId, "Group " + groupId, "Synthetic group", g % 2 == 0);
+                    members[g] = memberSets.get(g).stream().mapToInt(Integer::intValue).toArray();
+                    if (members[g].length == 0) {
+                        members[g] = new int[] { random.nextInt(users) };
+                    }
+                }
+            }
+
+            long membershipId = nextId("GroupMembership", "id");
+            try (Batch batch = new Batch(INSERT_MEMBERSHIP)) {
+                for (int g = 0; g < groups; g++) {
+                    for (int m = 0; m < members[g].length; m++) {
+                        batch.add(membershipId++, userIds[members[g][m]], firstGroupId + g,
+                                m == 0 ? "admin" : "member", GroupMemberShipStatusEnum.approved.name(), now);
+                        memberships++;
+                    }
+                }
+            }
+        }
+
+        // -------------------- Posts --------------------
+        int userPosts = users * config.postsPerUser;
+        int groupPosts = groups > 0 ? groups * config.groupPostsPerGroup : 0;
+        int posts = userPosts + groupPosts;
+        long firstPostId = nextId("Post", "postId");
+        int[] postIds = new int[userPosts];
+        long[] postAuthors = new long[userPosts];
+        // Audience of each post: friends of the author, or members of the group.
+        // Parent (Post) and child rows are added in lockstep, so a parent batch always runs first.
+        int[][] audience = new int[posts][];
+        int[] postAuthorIndex = new int[posts];
+        int[] postGroup = new int[posts];
+
+        try (Batch postBatch = new Batch(INSERT_POST);
+             Batch userPostBatch = new Batch(INSERT_USER_POST);
+             Batch groupPostBatch = new Batch(INSERT_GROUP_POST)) {
+            int p = 0;
+            for (int i = 0; i < users; i++) {
+                for (int k = 0; k < config.postsPerUser; k++, p++) {
+                    int postId = (int) (firstPostId + p);
+                    postBatch.add(postId, "UserPost", "Post " + k + " of user " + userIds[i], today, 0, 0);
+                    userPostBatch.add(postId, userIds[i]);
+                    postIds[p] = postId;
+                    postAuthors[p] = userIds[i];
+                    audience[p] = friends[i];
+                    postAuthorIndex[p] = i;
+                    postGroup[p] = -1;
+                }
+            }
+            postBatch.flush();
+            userPostBatch.flush();
+
+            ZipfSampler groupActivity = groups > 0 ? new ZipfSampler(groups, config.zipfExponent) : null;
+            for (int k = 0; k < groupPosts; k++, p++) {
+                int g = groupActivity.next(random);
+                int author = members[g][random.nextInt(members[g].length)];
+                int postId = (int) (firstPostId + p);
+                postBatch.add(postId, "GroupPost", "Group post " + k, today, 0, 0);
+                groupPostBatch.add(postId, userIds[author], firstGroupId + g);
+                audience[p] = members[g];
+                postAuthorIndex[p] = author;
+                postGroup[p] = g;
+            }
+            postBatch.flush();
+        }
+
+        // -------------------- Likes and comments (Zipf popularity) --------------------
+        int[] popularityOrder = shuffledRange(posts);
+        ZipfSampler postPopularity = new ZipfSampler(Math.max(posts, 1), config.zipfExponent);
+        int[] likeCounts = new int[posts];
+        int[] commentCounts = new int[posts];
+        Set<Long> likes = new HashSet<>();
+
+        long likeId = nextId("likes", "like_id");
+        long totalLikes = (long) users * config.likesPerUser;
+        try (Batch batch = new Batch(INSERT_LIKE)) {
+            for (long n = 0; n < totalLikes && posts > 0; n++) {
+                int p = popularityOrder[postPopularity.next(random)];
+                int liker = pickAudience(audience[p], postAuthorIndex[p]);
+                if (liker < 0) {
+                    continue;
+                }
+                int postId = (int) (firstPostId + p);
+                long key = Dataset.likeKey(postId, userIds[liker]);
+                if (!likes.add(key)) {
+                    continue;
+                }
+                boolean groupPost = postGroup[p] >= 0;
+                batch.add(likeId++, userIds[liker], groupPost ? null : postId, groupPost ? postId : null, now);
+                likeCounts[p]++;
+            }
+        }
+
+        long commentId = nextId("comments", "comment_id");
+        long totalComments = (long) users * config.commentsPerUser;
+        int comments = 0;
+        try (Batch batch = new Batch(INSERT_COMMENT)) {
+            for (long n = 0; n < totalComments && posts > 0; n++) {
+                int p = popularityOrder[postPopularity.next(random)];
+                int creator = pickAudience(audience[p], postAuthorIndex[p]);
+                if (creator < 0) {
+                    continue;
+                }
+                int postId = (int) (firstPostId + p);
+                boolean groupPost = postGroup[p] >= 0;
+                batch.add(commentId++, userIds[creator], groupPost ? null : postId, groupPost ? postId : null,
+                        "Comment " + n, now);
+                commentCounts[p]++;
+                comments++;
+            }
+        }
+
+        long counterId = nextId("post_counters", "id");
+        try (Batch batch = new Batch(INSERT_COUNTER)) {
+            for (int p = 0; p < posts; p++) {
+                int postId = (int) (firstPostId + p);
+                if (likeCounts[p] > 0) {
+                    batch.add(counterId++, postId, CounterType.LIKES.name(), (long) likeCounts[p]);
+                }
+                if (commentCounts[p] > 0) {
+                    batch.add(counterId++, postId, CounterType.COMMENTS.name(), (long) commentCounts[p]);
+                }
+            }
+        }
+
+        return new Dataset(userIds, postIds, postAuthors, likes, edges, memberships, posts, comments);
+    }
+
+    // -------------------- Helpers --------------------
+
+    /**
+     * Picks a random member of the audience other than the author, -1 if there is none.
+     */
+    private int pickAudience(int[] audience, int author) {
+        if (audience.length == 0 || (audience.length == 1 && audience[0] == author)) {
+            return -1;
+        }
+        int pick;
+        do {
+            pick = audience[random.nextInt(audience.length)];
+        } while (pick == author);
+        return pick;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds sorted adjacency arrays from an edge list (both directions).
+     */
+    private static int[][] adjacency(int users, int[] from, int[] to, int edges) {
+        int[] degree = new int[users];
+        for (int e = 0; e < edges; e++) {
+            degree[from[e]]++;
+            degree[to[e]]++;
+        }
+        int[][] adjacency = new int[users][];
+        for (int i = 0; i < users; i++) {
+            adjacency[i] = new int[degree[i]];
+        }
+        int[] fill = new int[users];
+        for (int e = 0; e < edges; e++) {
+            adjacency[from[e]][fill[from[e]]++] = to[e];
+            adjacency[to[e]][fill[to[e]]++] = from[e];
+        }
+        for (int[] list : adjacency) {
+            Arrays.sort(list);
+        }
+        return adjacency;
+    }
+
+    private int[] shuffledRange(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    private long nextId(String table, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1) + 1;
+        }
+    }
+
+    /**
+     * Moves the identity columns and ID sequences past the loaded IDs
+     * (H2 only; other databases print a warning).
+     */
+    private void restartIdGenerators() throws SQLException {
+        if (!"H2".equals(connection.getMetaData().getDatabaseProductName())) {
+            System.out.println("ID generators not restarted: unsupported database "
+                    + connection.getMetaData().getDatabaseProductName());
+            return;
+        }
+        String[][] identities = {
+            { "User", "userId" }, { "Groups", "groupId" }, { "post_counters", "id" }
+        };
+        // Entities with pooled sequence IDs (see Utils.PooledSequenceGenerator)
+        String[][] sequences = {
+            { "friendship_seq", "Friendships", "friendship_id" }, { "group_membership_seq", "GroupMembership", "id" },
+            { "post_seq", "Post", "postId" }, { "like_seq", "likes", "like_id" },
+            { "comment_seq", "comments", "comment_id" }
+        };
+        try (Statement statement = connection.createStatement()) {
+            for (String[] identity : identities) {
+                statement.execute("ALTER TABLE " + identity[0] + " ALTER COLUMN " + identity[1]
+                        + " RESTART WITH " + nextId(identity[0], identity[1]));
+            }
+            for (String[] sequence : sequences) {
+                statement.execute("ALTER SEQUENCE " + sequence[0]
+                        + " RESTART WITH " + nextId(sequence[1], sequence[2]));
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * A JDBC batch that executes and commits every BATCH_SIZE rows.
+     */
+    private final class Batch implements AutoCloseable {
+        private final PreparedStatement statement;
+        private int size;
+
+        Batch(String sql) throws SQLException {
+            statement = connection.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (size > 0) {
+                statement.executeBatch();
+                connection.commit();
+                size = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+
+    /**
+     * Sizes of the generated data set, read from system properties.
+     */
+    public static final class Config {
+        /** Number of users (bench.users). */
+        final int users = Integer.getInteger("bench.users", 10_000);
+        /** Friendships created by every new user (bench.friendsPerUser). */
+        final int friendsPerUser = Integer.getInteger("bench.friendsPerUser", 5);
+        /** Posts per user (bench.postsPerUser). */
+        final int postsPerUser = Integer.getInteger("bench.postsPerUser", 5);
+        /** Number of groups (bench.groups). */
+        final int groups = Integer.getInteger("bench.groups", 100);
+        /** Group memberships drawn per user (bench.groupsPerUser). */
+        final int groupsPerUser = Integer.getInteger("bench.groupsPerUser", 2);
+        /** Group posts per group on average (bench.groupPostsPerGroup). */
+        final int groupPostsPerGroup = Integer.getInteger("bench.groupPostsPerGroup", 20);
+        /** Likes drawn per user (bench.likesPerUser). */
+        final int likesPerUser = Integer.getInteger("bench.likesPerUser", 10);
+        /** Comments drawn per user (bench.commentsPerUser). */
+        final int commentsPerUser = Integer.getInteger("bench.commentsPerUser", 3);
+        /** Skew of group sizes and post popularity (bench.zipf). */
+        final double zipfExponent = Double.parseDouble(System.getProperty("bench.zipf", "1.0"));
+        /** Seed of the generator (bench.seed). */
+        final long seed = Long.getLong("bench.seed", 42L);
+    }
+
+    /**
+     * IDs of the generated data.
+     */
+    public static final class Dataset {
+        private final long[] userIds;
+        private final int[] postIds;
+        private final long[] postAuthors;
+        private final Set<Long> likes;
+        private final int friendships;
+        private final int memberships;
+        private final int posts;
+        private final int comments;
+
+        Dataset(long[] userIds, int[] postIds, long[] postAuthors, Set<Long> likes,
+                int friendships, int memberships, int posts, int comments) {
+            this.userIds = userIds;
+            this.postIds = postIds;
+            this.postAuthors = postAuthors;
+            this.likes = likes;
+            this.friendships = friendships;
+            this.memberships = memberships;
+            this.posts = posts;
+            this.comments = comments;
+        }
+
+        static long likeKey(int postId, long userId) {
+            return ((long) postId << 32) | (userId & 0xffffffffL);
+        }
+
+        public long[] getUserIds() {
+            return userIds;
+        }
+
+        /** IDs of the user posts. */
+        public int[] getPostIds() {
+            return postIds;
+        }
+
+        /** Author of the post at the same index in {@link #getPostIds()}. */
+        public long[] getPostAuthors() {
+            return postAuthors;
+        }
+
+        /**
+         * @return true if the generator created a like of the post by the user
+         */
+        public boolean hasLike(int postId, long userId) {
+            return likes.contains(likeKey(postId, userId));
+        }
+    }
+
+    /**
+     * Loads a data set into an existing database.
+     *
+     * @param args JDBC URL, optional user and password
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 1) {
+            System.out.println("Usage: SyntheticDataGenerator <jdbcUrl> [user] [password]");
+            return;
+        }
+        String user = args.length > 1 ? args[1] : "sa";
+        String password = args.length > 2 ? args[2] : "";
+        try (Connection connection = DriverManager.getConnection(args[0], user, password)) {
+            new SyntheticDataGenerator(connection, new Config()).generate();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import Utils.PageCursor;
+import Utils.SocialGraphIndex;
+import dtos.PageDTO;
+import dtos.UserPostDTO;
+import models.UserPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.PostService;
+import service.TimelineStore;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of the timeline of users taken round-robin, over 10,000 users with 100 posts each
+ * (1,000,000 posts; the fork sets bench.users and bench.postsPerUser).
+ *
+ * {@link #store()} reads it through PostService.getUserTimeline, served from the precomputed
+ * timelines; the setup loads all of them from the generated data set, as the fan-out of every
+ * post would have built them. {@link #inSubquery()} runs the query the timeline used before:
+ * posts of the user or of anyone in the user's friendships, through IN subqueries, here given
+ * the same page size and order so both return the same page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx3g", "-Dbench.users=10000", "-Dbench.postsPerUser=100" })
+public class TimelineBenchmark {
+
+    // The timeline query before the timeline store, reading both sides of the canonical friendship rows
+    private static final String IN_SUBQUERY_TIMELINE_QUERY =
+        "SELECT p FROM UserPost p WHERE p.user.userId = :userId " +
+        "OR p.user IN (SELECT f.friend FROM Friendships f WHERE f.user.userId = :userId) " +
+        "OR p.user IN (SELECT f.user FROM Friendships f WHERE f.friend.userId = :userId) " +
+        "ORDER BY p.postId DESC";
+
+    private EntityManager em;
+    private PostService postService;
+    private long[] userIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        em = env.createEntityManager();
+        TimelineStore timelineStore = env.newService(TimelineStore.class, em);
+        postService = env.newService(PostService.class, em, timelineStore);
+        userIds = env.getDataset().getUserIds();
+        loadTimelines(env.getDataset(), timelineStore);
+    }
+
+    /**
+     * Loads the timeline of every user: the newest posts of the user and of their friends.
+     */
+    private void loadTimelines(SyntheticDataGenerator.Dataset data, TimelineStore timelineStore) {
+        Map<Long, List<Integer>> postsByAuthor = new HashMap<>();
+        for (int i = 0; i < data.getPostIds().length; i++) {
+            postsByAuthor.computeIfAbsent(data.getPostAuthors()[i], k -> new ArrayList<>()).add(data.getPostIds()[i]);
+        }
+        for (long userId : userIds) {
+            List<Integer> timeline = new ArrayList<>(postsByAuthor.getOrDefault(userId, Collections.emptyList()));
+            for (long friendId : SocialGraphIndex.getInstance().getFriends(userId)) {
+                timeline.addAll(postsByAuthor.getOrDefault(friendId, Collections.emptyList()));
+            }
+            timeline.sort(Collections.reverseOrder());
+            timelineStore.load(userId, timeline.stream()
+                    .limit(timelineStore.getCapacity())
+                    .mapToLong(Integer::longValue)
+                    .toArray());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        BenchmarkEnvironment.shutdown();
+    }
+
+    @Benchmark
+    public PageDTO<UserPostDTO> store() {
+        long userId = userIds[next++ % userIds.length];
+        try {
+            return postService.getUserTimeline(userId, PageCursor.first(), PageCursor.DEFAULT_LIMIT);
+        } finally {
+            em.clear();
+        }
+    }
+
+    @Benchmark
+    public List<UserPostDTO> inSubquery() {
+        long userId = userIds[next++ % userIds.length];
+        try {
+            List<UserPost> posts = em.createQuery(IN_SUBQUERY_TIMELINE_QUERY, UserPost.class)
+                    .setParameter("userId", userId)
+                    .setMaxResults(PageCursor.DEFAULT_LIMIT)
+                    .getResultList();
+            return UserPostDTO.fromUserPostList(posts);
+        } finally {
+            em.clear();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import Utils.UserSearchIndex;
+import dtos.UserSummaryDTO;
+import enums.RoleEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserSearchIndex.search over {@code bench.searchUsers} (default 1,000,000) users, sampled so JMH
+ * reports the p99 latency per query length. Queries of one and two characters match a large
+ * share of the users; longer ones intersect several posting lists. The target is a p99 below
+ * one millisecond for every length.
+ *
+ * The users are indexed directly (no database), with names drawn from a small vocabulary so that
+ * prefixes are shared by many users, as with real names. The queries repeat, so this measures
+ * searches continued from the cached matches of the query; the first search of a popular query
+ * scores all its candidates and costs tens of milliseconds at this size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UserSearchBenchmark {
+
+    private static final int USERS = Integer.getInteger("bench.searchUsers", 1_000_000);
+
+    private static final String[] FIRST_NAMES = {
+        "adam", "alice", "amir", "anna", "ben", "carla", "chen", "david", "elena", "farah", "george", "hana",
+        "ivan", "jana", "john", "karim", "laila", "liam", "maria", "mohamed", "nadia", "omar", "paul", "rana",
+        "sara", "sofia", "tarek", "yara", "youssef", "zeina"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "ali", "brown", "costa", "davis", "el sayed", "fathy", "garcia", "hassan", "ibrahim", "jones", "khan",
+        "lopez", "mahmoud", "nasser", "novak", "osman", "peters", "rossi", "saleh", "smith", "taha", "wang",
+        "williams", "younis", "zaki"
+    };
+
+    /** Queries of the measured length, drawn from the indexed names. */
+    @Param({ "1", "2", "3", "5" })
+    public int queryLength;
+
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserSearchIndex index = UserSearchIndex.getInstance();
+        Random random = new Random(42);
+        if (index.size() < USERS) {
+            for (long id = index.size() + 1; id <= USERS; id++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String userName = first + "." + last.replace(' ', '_') + id;
+                index.index(new UserSummaryDTO(id, userName, capitalize(first), capitalize(last),
+                        userName + "@example.com", null, RoleEnum.user));
+            }
+            index.markLoaded();
+        }
+
+        queries = new String[256];
+        for (int i = 0; i < queries.length; i++) {
+            String name = random.nextBoolean()
+                    ? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                    : LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            queries[i] = name.substring(0, Math.min(queryLength, name.length()));
+        }
+    }
+
+    @Benchmark
+    public List<UserSummaryDTO> search() {
+        String query = queries[next++ & (queries.length - 1)];
+        return UserSearchIndex.getInstance().search(query, UserSearchIndex.DEFAULT_LIMIT);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
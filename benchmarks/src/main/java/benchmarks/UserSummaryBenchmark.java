@@ -0,0 +1,113 @@
+package benchmarks;
+
+import dtos.UserSummaryDTO;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.UserService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User lookup by ID and username search (about a hundred matches per query at 10,000 users),
+ * through the UserSummaryDTO projections of UserService and through the path they replaced:
+ * managed User entities turned into User.toString() strings. Run it with {@code -prof gc} to
+ * compare the allocation per request ({@code gc.alloc.rate.norm}) of both paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSummaryBenchmark {
+
+    // The search query before the projection
+    private static final String SEARCH_ENTITIES_BY_USERNAME_QUERY =
+        "SELECT u FROM User u WHERE u.userName LIKE :userName";
+
+    private EntityManager em;
+    private UserService userService;
+    private long[] userIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment env = BenchmarkEnvironment.get();
+        em = env.createEntityManager();
+        userService = env.newService(UserService.class, em);
+        userIds = env.getDataset().getUserIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        BenchmarkEnvironment.shutdown();
+    }
+
+    /**
+     * @return a username fragment shared by about 1% of the users ("user" followed by two digits)
+     */
+    private String nextFragment() {
+        return "user" + (10 + next++ % 90);
+    }
+
+    @Benchmark
+    public UserSummaryDTO summaryById() {
+        long userId = userIds[next++ % userIds.length];
+        try {
+            return userService.getUserSummaryById(userId);
+        } finally {
+            em.clear();
+        }
+    }
+
+    @Benchmark
+    public String entityToStringById() {
+        long userId = userIds[next++ % userIds.length];
+        try {
+            User user = userService.getUserById(userId);
+            return user != null ? user.toString() : "User not found";
+        } finally {
+            em.clear();
+        }
+    }
+
+    @Benchmark
+    public List<UserSummaryDTO> summarySearch() {
+        try {
+            return userService.searchUsersByUsername(nextFragment());
+        } finally {
+            em.clear();
+        }
+    }
+
+    @Benchmark
+    public List<String> entityToStringSearch() {
+        try {
+            List<User> users = em.createQuery(SEARCH_ENTITIES_BY_USERNAME_QUERY, User.class)
+                    .setParameter("userName", "%" + nextFragment() + "%")
+                    .getResultList();
+            List<String> userStrings = new ArrayList<>();
+            for (User user : users) {
+                userStrings.add(user.toString());
+            }
+            return userStrings;
+        } finally {
+            em.clear();
+        }
+    }
+}
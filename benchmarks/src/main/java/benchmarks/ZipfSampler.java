@@ -0,0 +1,38 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ZipfSampler – Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s.
+ * The cumulative distribution is computed once; each draw is a binary search.
+ */
+public final class ZipfSampler {
+
+    private final double[] cdf;
+
+    /**
+     * @param n number of ranks
+     * @param exponent skew (0 = uniform, 1 = classic Zipf)
+     */
+    public ZipfSampler(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    /**
+     * @return a rank, 0 being the most popular
+     */
+    public int next(Random random) {
+        int pos = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = pos >= 0 ? pos : -pos - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}